@@ -1,9 +1,16 @@
 import structures.ABR;
 import structures.HashTable;
 import utils.ChargeurDonnees;
-import utils.MoteurMorphologique;
+import utils.InstantaneDictionnaire;
+import utils.Journal;
+import utils.RechargeurRacines;
+import utils.SystemeMorphologique;
+import utils.TestsPerformance;
+import serveur.ServeurLignes;
+import serveur.ServeurMorphologique;
 import utils.MoteurMorphologique.ResultatValidation;
 import utils.MoteurMorphologique.ResultatDecomposition;
+import utils.OrdonnanceurMoteur.Priorite;
 import models.Scheme;
 import models.RacineNode;
 
@@ -16,13 +23,48 @@ import java.util.List;
  */
 public class Main {
 
-    private static ABR arbreRacines;
-    private static HashTable tableSchemes;
-    private static MoteurMorphologique moteur;
-    private static Scanner scanner;
+    private ABR arbreRacines;
+    private HashTable tableSchemes;
+    private SystemeMorphologique systeme;   // Façade partagée par le menu et les serveurs
+    private Scanner scanner;
     private static final String FICHIER_RACINES = "data/racines.txt";
+    private static final String FICHIER_INSTANTANE = "data/dictionnaire.bin";
+    private static final String FICHIER_JOURNAL = "data/journal.bin";
+    private static final int SEUIL_COMPACTION = 10_000;
+    private Journal journal;
+    private long empreinteRacines = InstantaneDictionnaire.EMPREINTE_INCONNUE;   // Fichier texte intégré à l'arbre
+    private RechargeurRacines rechargeur;
+    private ServeurMorphologique serveur;
+    private ServeurLignes serveurLignes;
 
     public static void main(String[] args) {
+        new Main().executer(args);
+    }
+
+    /**
+     * Démarre l'application : chargement, services optionnels, menu, fermeture
+     */
+    private void executer(String[] args) {
+        // Précalcul du lexique : option --precalcul ou -Dmorpho.precalcul=true
+        boolean precalcul = java.util.Arrays.asList(args).contains("--precalcul")
+                || Boolean.getBoolean("morpho.precalcul");
+        // Journal des modifications : option --journal ou -Dmorpho.journal=true
+        boolean avecJournal = java.util.Arrays.asList(args).contains("--journal")
+                || Boolean.getBoolean("morpho.journal");
+        // Rechargement à chaud de racines.txt : option --surveiller ou -Dmorpho.surveillance=true
+        boolean surveiller = java.util.Arrays.asList(args).contains("--surveiller")
+                || Boolean.getBoolean("morpho.surveillance");
+        // Service HTTP/JSON : option --serveur (port 8080) ou -Dmorpho.serveur.port=<port>
+        Integer portServeur = Integer.getInteger("morpho.serveur.port");
+        if (portServeur == null && java.util.Arrays.asList(args).contains("--serveur")) {
+            portServeur = 8080;
+        }
+        // Protocole ligne TCP (NIO) : option --serveur-lignes (port 7070) ou -Dmorpho.serveur.lignes.port=<port>
+        Integer portLignes = Integer.getInteger("morpho.serveur.lignes.port");
+        if (portLignes == null && java.util.Arrays.asList(args).contains("--serveur-lignes")) {
+            portLignes = 7070;
+        }
+
         // Initialisation
         initialiser();
 
@@ -30,12 +72,31 @@ public class Main {
         afficherEntete();
 
         // Charger les données
-        chargerDonnees();
+        chargerDonnees(precalcul, avecJournal);
+        if (surveiller) {
+            demarrerSurveillance();
+        }
+        if (portServeur != null) {
+            demarrerServeur(portServeur);
+        }
+        if (portLignes != null) {
+            demarrerServeurLignes(portLignes);
+        }
 
         // Menu principal
         menuPrincipal();
 
         // Fermeture
+        if (serveur != null) {
+            serveur.arreter(1);
+        }
+        if (serveurLignes != null) {
+            serveurLignes.close();
+        }
+        if (rechargeur != null) {
+            rechargeur.arreter();
+        }
+        fermerJournal();
         scanner.close();
         System.out.println("\n👋 Merci d'avoir utilisé le Moteur Morphologique Arabe!");
     }
@@ -43,7 +104,7 @@ public class Main {
     /**
      * Initialise les structures de données
      */
-    private static void initialiser() {
+    private void initialiser() {
         arbreRacines = new ABR();
         tableSchemes = new HashTable();
         scanner = new Scanner(System.in);
@@ -52,7 +113,7 @@ public class Main {
     /**
      * Affiche l'en-tête de l'application
      */
-    private static void afficherEntete() {
+    private void afficherEntete() {
         System.out.println("\n" + "═".repeat(70));
         System.out.println("  🔍 MOTEUR DE RECHERCHE MORPHOLOGIQUE ARABE");
         System.out.println("  📚 Système de Génération et Validation de Dérivés");
@@ -64,23 +125,49 @@ public class Main {
 
     /**
      * Charge les données initiales
+     * @param precalcul true pour générer tout le lexique racine × schème au démarrage
+     * @param avecJournal true pour rejouer puis tenir le journal des modifications
      */
-    private static void chargerDonnees() {
+    private void chargerDonnees(boolean precalcul, boolean avecJournal) {
         System.out.println("🔄 Initialisation du système...\n");
 
         // Créer un fichier exemple si nécessaire
         ChargeurDonnees.creerFichierExemple(FICHIER_RACINES);
 
-        // Charger les racines
-        System.out.println("📖 Chargement des racines...");
-        int nbRacines = ChargeurDonnees.chargerRacinesDepuisFichier(FICHIER_RACINES, arbreRacines);
+        int nbRacines;
+        boolean instantaneCharge = chargerInstantane();
+        if (instantaneCharge) {
+            nbRacines = arbreRacines.getTaille();
+        } else {
+            // Charger les racines
+            System.out.println("📖 Chargement des racines...");
+            nbRacines = ChargeurDonnees.chargerRacinesDepuisFichier(FICHIER_RACINES, arbreRacines);
+
+            // Initialiser les schèmes
+            System.out.println("\n🔧 Initialisation des schèmes morphologiques...");
+            ChargeurDonnees.initialiserSchemes(tableSchemes);
+            empreinteRacines = empreinteFichierRacines();
+        }
+
+        if (avecJournal) {
+            boolean rejouer = instantaneCharge || !new java.io.File(FICHIER_INSTANTANE).exists();
+            if (!rejouer) {
+                // Instantané non chargé : ni lui ni le journal ne décrivent l'état chargé,
+                // on les met de côté au lieu de les écraser par la compaction initiale
+                mettreDeCote(FICHIER_INSTANTANE);
+                mettreDeCote(FICHIER_JOURNAL);
+            }
+            ouvrirJournal(rejouer);
+            nbRacines = arbreRacines.getTaille();
+        }
 
-        // Initialiser les schèmes
-        System.out.println("\n🔧 Initialisation des schèmes morphologiques...");
-        ChargeurDonnees.initialiserSchemes(tableSchemes);
+        // Créer le moteur morphologique (derrière sa façade thread-safe)
+        systeme = new SystemeMorphologique(arbreRacines, tableSchemes);
 
-        // Créer le moteur morphologique
-        moteur = new MoteurMorphologique(arbreRacines, tableSchemes);
+        if (precalcul) {
+            System.out.println("\n⚙ Précalcul du lexique...");
+            System.out.println(systeme.getMoteur().precalculerLexique(0));
+        }
 
         // Afficher le rapport
         ChargeurDonnees.afficherRapportChargement(arbreRacines, tableSchemes);
@@ -90,10 +177,157 @@ public class Main {
         }
     }
 
+    /**
+     * Restaure l'état complet depuis l'instantané binaire s'il a été écrit avec le fichier
+     * texte actuel (même empreinte). Les dates de modification ne servent pas : l'application
+     * réécrit elle-même racines.txt (menu Racines, Sauvegarder).
+     * @return true si l'instantané a été chargé
+     */
+    private boolean chargerInstantane() {
+        if (!new java.io.File(FICHIER_INSTANTANE).exists()) {
+            return false;
+        }
+
+        long debut = System.nanoTime();
+        try {
+            long empreinte = InstantaneDictionnaire.charger(FICHIER_INSTANTANE, arbreRacines, tableSchemes);
+            if (empreinte != empreinteFichierRacines()) {
+                System.out.println("ℹ " + FICHIER_RACINES + " a changé depuis l'instantané, chargement du fichier texte");
+                arbreRacines = new ABR();
+                tableSchemes = new HashTable();
+                return false;
+            }
+            empreinteRacines = empreinte;
+            System.out.println("✓ Instantané restauré: " + arbreRacines.getTaille() + " racines, " +
+                    tableSchemes.getTaille() + " schèmes en " +
+                    String.format("%.2f", (System.nanoTime() - debut) / 1_000_000.0) + " ms");
+            return true;
+        } catch (Exception e) {
+            System.err.println("⚠ Instantané ignoré (" + e.getMessage() + "), chargement du fichier texte");
+            arbreRacines = new ABR();
+            tableSchemes = new HashTable();
+            return false;
+        }
+    }
+
+    /**
+     * Empreinte actuelle de racines.txt (EMPREINTE_INCONNUE s'il est illisible)
+     */
+    private long empreinteFichierRacines() {
+        try {
+            return InstantaneDictionnaire.empreinte(FICHIER_RACINES);
+        } catch (java.io.IOException e) {
+            return InstantaneDictionnaire.EMPREINTE_INCONNUE;
+        }
+    }
+
+    /**
+     * Renomme un fichier en .ancien (sans rien perdre) s'il existe
+     */
+    private void mettreDeCote(String nomFichier) {
+        java.nio.file.Path chemin = java.nio.file.Paths.get(nomFichier);
+        if (!java.nio.file.Files.exists(chemin)) {
+            return;
+        }
+        try {
+            java.nio.file.Files.move(chemin, java.nio.file.Paths.get(nomFichier + ".ancien"),
+                    java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("⚠ " + nomFichier + " ne correspond pas à l'état chargé, conservé dans "
+                    + nomFichier + ".ancien");
+        } catch (java.io.IOException e) {
+            System.err.println("❌ Impossible de mettre de côté " + nomFichier + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Rejoue le journal des modifications puis l'attache à l'arbre
+     * @param rejouer false si le journal ne s'applique pas à l'état chargé
+     *                (instantané non chargé, déjà mis de côté)
+     */
+    private void ouvrirJournal(boolean rejouer) {
+        try {
+            if (rejouer) {
+                int nb = Journal.rejouer(FICHIER_JOURNAL, arbreRacines);
+                if (nb > 0) {
+                    System.out.println("✓ Journal rejoué: " + nb + " modifications");
+                }
+            }
+            journal = new Journal(FICHIER_JOURNAL, arbreRacines, tableSchemes, FICHIER_INSTANTANE,
+                    SEUIL_COMPACTION, false);
+            journal.setEmpreinteSource(empreinteRacines);
+            if (!rejouer) {
+                // Repartir d'un instantané cohérent avec l'état chargé
+                journal.compacter();
+            }
+        } catch (java.io.IOException e) {
+            System.err.println("❌ Journal désactivé: " + e.getMessage());
+            journal = null;
+        }
+    }
+
+    /**
+     * Surveille le fichier des racines et applique ses modifications sans redémarrer
+     */
+    private void demarrerSurveillance() {
+        rechargeur = new RechargeurRacines(FICHIER_RACINES, systeme);
+        rechargeur.setApresRechargement(this::synchroniserAvecFichierRacines);
+        try {
+            rechargeur.demarrer();
+            System.out.println("👁 Surveillance de " + FICHIER_RACINES + " activée");
+        } catch (java.io.IOException e) {
+            System.err.println("❌ Surveillance impossible: " + e.getMessage());
+            rechargeur = null;
+        }
+    }
+
+    /**
+     * Expose le moteur en HTTP/JSON sur l'interface locale, en parallèle du menu
+     */
+    private void demarrerServeur(int port) {
+        try {
+            serveur = new ServeurMorphologique(systeme, port);
+            serveur.demarrer();
+            System.out.println("🌐 Service HTTP/JSON sur http://127.0.0.1:" + serveur.getPort() +
+                    " (/generer, /valider, /decomposer, /lot/...)");
+        } catch (java.io.IOException e) {
+            System.err.println("❌ Service HTTP impossible: " + e.getMessage());
+            serveur = null;
+        }
+    }
+
+    /**
+     * Expose le moteur en protocole ligne sur TCP (traitements en masse, pipelining)
+     */
+    private void demarrerServeurLignes(int port) {
+        try {
+            serveurLignes = new ServeurLignes(systeme, port, 0);
+            serveurLignes.demarrer();
+            System.out.println("🔌 Protocole ligne sur 127.0.0.1:" + serveurLignes.getPort() +
+                    " (D <mot> | G <racine> <schème> | V <mot> <racine>)");
+        } catch (java.io.IOException e) {
+            System.err.println("❌ Serveur ligne impossible: " + e.getMessage());
+            serveurLignes = null;
+        }
+    }
+
+    /**
+     * Écrit les dernières modifications et ferme le journal
+     */
+    private void fermerJournal() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (java.io.IOException e) {
+            System.err.println("❌ Erreur à la fermeture du journal: " + e.getMessage());
+        }
+    }
+
     /**
      * Menu principal de l'application
      */
-    private static void menuPrincipal() {
+    private void menuPrincipal() {
         boolean continuer = true;
 
         while (continuer) {
@@ -127,6 +361,9 @@ public class Main {
                 case 8:
                     rechercherRacine();
                     break;
+                case 9:
+                    testsPerformance();
+                    break;
                 case 0:
                     continuer = false;
                     break;
@@ -144,7 +381,7 @@ public class Main {
     /**
      * Affiche le menu principal
      */
-    private static void afficherMenu() {
+    private void afficherMenu() {
         System.out.println("\n" + "─".repeat(70));
         System.out.println("  MENU PRINCIPAL");
         System.out.println("─".repeat(70));
@@ -156,6 +393,7 @@ public class Main {
         System.out.println("  6. 📖 Afficher les dérivés d'une racine");
         System.out.println("  7. 📊 Afficher les statistiques");
         System.out.println("  8. 🔎 Rechercher une racine");
+        System.out.println("  9. ⏱  Tests de performance");
         System.out.println("  0. 🚪 Quitter");
         System.out.println("─".repeat(70));
         System.out.print("Votre choix: ");
@@ -164,7 +402,7 @@ public class Main {
     /**
      * Gestion des racines
      */
-    private static void gererRacines() {
+    private void gererRacines() {
         System.out.println("═".repeat(70));
         System.out.println("  GESTION DES RACINES");
         System.out.println("═".repeat(70));
@@ -172,6 +410,7 @@ public class Main {
         System.out.println("2. Afficher toutes les racines");
         System.out.println("3. Rechercher une racine");
         System.out.println("4. Sauvegarder les racines");
+        System.out.println("5. Sauvegarder l'état complet (instantané binaire)");
         System.out.print("\nChoix: ");
 
         int choix = lireChoix();
@@ -189,14 +428,52 @@ public class Main {
                 break;
             case 4:
                 ChargeurDonnees.sauvegarderRacines(FICHIER_RACINES, arbreRacines);
+                synchroniserAvecFichierRacines();
+                break;
+            case 5:
+                sauvegarderInstantane();
                 break;
         }
     }
 
+    /**
+     * Sauvegarde l'état complet (racines, fréquences, dérivés, schèmes)
+     */
+    private void sauvegarderInstantane() {
+        try {
+            if (journal != null) {
+                // L'instantané absorbe le journal, qui repart vide
+                journal.compacter();
+                System.out.println("✓ Journal compacté dans: " + FICHIER_INSTANTANE);
+                return;
+            }
+            long taille = InstantaneDictionnaire.sauvegarder(FICHIER_INSTANTANE, arbreRacines, tableSchemes,
+                    empreinteRacines);
+            System.out.println("✓ Instantané sauvegardé dans: " + FICHIER_INSTANTANE + " (" + taille + " octets)");
+        } catch (java.io.IOException e) {
+            System.err.println("❌ Erreur lors de la sauvegarde: " + e.getMessage());
+        }
+    }
+
+    /**
+     * racines.txt et l'arbre viennent d'être mis en accord (sauvegarde depuis le menu ou
+     * rechargement à chaud) : l'instantané est réécrit avec la nouvelle empreinte, sinon
+     * il serait écarté au prochain démarrage avec ses fréquences et ses dérivés
+     */
+    private void synchroniserAvecFichierRacines() {
+        empreinteRacines = empreinteFichierRacines();
+        if (journal != null) {
+            journal.setEmpreinteSource(empreinteRacines);
+        }
+        if (journal != null || new java.io.File(FICHIER_INSTANTANE).exists()) {
+            sauvegarderInstantane();
+        }
+    }
+
     /**
      * Ajoute une nouvelle racine
      */
-    private static void ajouterRacine() {
+    private void ajouterRacine() {
         System.out.print("Entrez la racine trilitère (3 lettres): ");
         scanner.nextLine(); // Vider le buffer
         String racine = scanner.nextLine().trim();
@@ -206,24 +483,23 @@ public class Main {
             return;
         }
 
-        if (arbreRacines.existe(racine)) {
-            System.out.println("⚠ Cette racine existe déjà dans l'arbre.");
-        } else {
-            arbreRacines.inserer(racine);
+        if (systeme.ajouterRacine(racine)) {
             System.out.println("✓ Racine '" + racine + "' ajoutée avec succès!");
+        } else {
+            System.out.println("⚠ Cette racine existe déjà dans l'arbre.");
         }
     }
 
     /**
      * Recherche une racine
      */
-    private static void rechercherRacine() {
+    private void rechercherRacine() {
         System.out.print("Entrez la racine à rechercher: ");
         scanner.nextLine(); // Vider le buffer
         String racine = scanner.nextLine().trim();
 
         long debut = System.nanoTime();
-        RacineNode noeud = arbreRacines.rechercher(racine);
+        RacineNode noeud = systeme.rechercherRacine(racine);
         long fin = System.nanoTime();
 
         double tempsMs = (fin - debut) / 1_000_000.0;
@@ -245,7 +521,7 @@ public class Main {
     /**
      * Gestion des schèmes
      */
-    private static void gererSchemes() {
+    private void gererSchemes() {
         System.out.println("═".repeat(70));
         System.out.println("  GESTION DES SCHÈMES");
         System.out.println("═".repeat(70));
@@ -270,12 +546,12 @@ public class Main {
     /**
      * Recherche un schème
      */
-    private static void rechercherScheme() {
+    private void rechercherScheme() {
         System.out.print("Entrez le nom du schème: ");
         scanner.nextLine();
         String nom = scanner.nextLine().trim();
 
-        Scheme scheme = tableSchemes.rechercher(nom);
+        Scheme scheme = systeme.rechercherScheme(nom);
 
         if (scheme != null) {
             System.out.println("✓ Schème trouvé: " + scheme);
@@ -288,7 +564,7 @@ public class Main {
     /**
      * Génère des mots dérivés
      */
-    private static void genererMotsDerivees() {
+    private void genererMotsDerivees() {
         System.out.println("═".repeat(70));
         System.out.println("  GÉNÉRATION DE MOTS DÉRIVÉS");
         System.out.println("═".repeat(70));
@@ -310,14 +586,14 @@ public class Main {
     /**
      * Génère un mot avec un schème spécifique
      */
-    private static void genererMotSpecifique() {
+    private void genererMotSpecifique() {
         System.out.print("Racine: ");
         String racine = scanner.nextLine().trim();
 
         System.out.print("Schème: ");
         String scheme = scanner.nextLine().trim();
 
-        String motGenere = moteur.genererMotDerive(racine, scheme);
+        String motGenere = systeme.executer(Priorite.INTERACTIVE, () -> systeme.generer(racine, scheme));
 
         if (motGenere != null) {
             System.out.println("\n✨ Mot généré:");
@@ -326,23 +602,26 @@ public class Main {
             System.out.println("  Schème: " + scheme);
             System.out.println("  Résultat: " + motGenere);
             System.out.println("─".repeat(50));
+        } else {
+            String raison = systeme.expliquerEchecGeneration(racine, scheme);
+            System.out.println("❌ Erreur: " + (raison != null ? raison : "génération impossible."));
         }
     }
 
     /**
      * Génère tous les dérivés d'une racine
      */
-    private static void genererTousLesDerivees() {
+    private void genererTousLesDerivees() {
         System.out.print("Racine: ");
         String racine = scanner.nextLine().trim();
 
-        moteur.genererTousLesDerivees(racine);
+        systeme.executer(Priorite.INTERACTIVE, () -> systeme.genererTous(racine));
     }
 
     /**
      * Valide un mot morphologiquement
      */
-    private static void validerMorphologie() {
+    private void validerMorphologie() {
         System.out.println("═".repeat(70));
         System.out.println("  VALIDATION MORPHOLOGIQUE");
         System.out.println("═".repeat(70));
@@ -355,7 +634,7 @@ public class Main {
         System.out.print("Racine supposée: ");
         String racine = scanner.nextLine().trim();
 
-        ResultatValidation resultat = moteur.validerMot(mot, racine);
+        ResultatValidation resultat = systeme.executer(Priorite.INTERACTIVE, () -> systeme.valider(mot, racine));
 
         System.out.println("\n📋 Résultat de la validation:");
         System.out.println("─".repeat(50));
@@ -368,7 +647,7 @@ public class Main {
     /**
      * Décompose un mot
      */
-    private static void decomposerMot() {
+    private void decomposerMot() {
         System.out.println("═".repeat(70));
         System.out.println("  DÉCOMPOSITION MORPHOLOGIQUE");
         System.out.println("═".repeat(70));
@@ -379,7 +658,7 @@ public class Main {
         String mot = scanner.nextLine().trim();
 
         System.out.println("\n🔍 Analyse en cours...");
-        ResultatDecomposition resultat = moteur.decomposerMot(mot);
+        ResultatDecomposition resultat = systeme.executer(Priorite.INTERACTIVE, () -> systeme.decomposer(mot));
 
         System.out.println("\n📋 Résultat:");
         System.out.println("─".repeat(50));
@@ -391,19 +670,19 @@ public class Main {
     /**
      * Affiche les dérivés d'une racine
      */
-    private static void afficherDerivesRacine() {
+    private void afficherDerivesRacine() {
         scanner.nextLine();
 
         System.out.print("Racine: ");
         String racine = scanner.nextLine().trim();
 
-        moteur.afficherDerivesDeRacine(racine);
+        systeme.getMoteur().afficherDerivesDeRacine(racine);
     }
 
     /**
      * Affiche les statistiques du système
      */
-    private static void afficherStatistiques() {
+    private void afficherStatistiques() {
         System.out.println("\n" + "═".repeat(70));
         System.out.println("  STATISTIQUES DU SYSTÈME");
         System.out.println("═".repeat(70));
@@ -414,10 +693,93 @@ public class Main {
         System.out.println("═".repeat(70));
     }
 
+    /**
+     * Menu des tests de performance intégrés
+     */
+    private void testsPerformance() {
+        int nbThreads = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+        System.out.println("═".repeat(70));
+        System.out.println("  TESTS DE PERFORMANCE");
+        System.out.println("═".repeat(70));
+        System.out.println("1. Stress test de la table de hachage concurrente");
+        System.out.println("2. Débit: verrou global vs table concurrente");
+        System.out.println("3. Précalcul parallèle du lexique (10k racines × 100 schèmes)");
+        System.out.println("4. Chargement de 2 millions de lignes (classique vs projection)");
+        System.out.println("5. Dictionnaire en mémoire vs fichier trié projeté");
+        System.out.println("6. Segmentation des affixes (proclitiques et suffixes)");
+        System.out.println("7. Service HTTP/JSON sous charge (req/s, p99)");
+        System.out.println("8. Décomposition en masse: HTTP/JSON vs protocole ligne (NIO)");
+        System.out.println("9. Façade partagée: lectures parallèles et écritures concurrentes");
+        System.out.println("10. Racine chaude: compteurs de fréquence sous contention");
+        System.out.println("11. API asynchrone: délais et annulation des décompositions");
+        System.out.println("12. Flux d'analyse (Flow): contre-pression avec un consommateur lent");
+        System.out.println("13. Dictionnaire fragmenté par première lettre vs ABR unique");
+        System.out.println("14. Rafales de décompositions d'un même mot (parcours partagé)");
+        System.out.println("15. Décomposition bornée: échéance et budget de candidats");
+        System.out.println("16. Ordonnancement: requêtes interactives vs traitements en lot");
+        System.out.print("\nChoix: ");
+
+        int choix = lireChoix();
+        scanner.nextLine();
+        System.out.println();
+
+        switch (choix) {
+            case 1:
+                TestsPerformance.testerConcurrenceHashTable(nbThreads, 20_000);
+                break;
+            case 2:
+                TestsPerformance.comparerDebitHashTable(nbThreads, 1_000_000);
+                break;
+            case 3:
+                TestsPerformance.mesurerPrecalcul(10_000, 100, nbThreads);
+                break;
+            case 4:
+                TestsPerformance.comparerChargeurs(2_000_000, nbThreads);
+                break;
+            case 5:
+                TestsPerformance.comparerDictionnaireDisque(20_000, 2_000_000);
+                break;
+            case 6:
+                TestsPerformance.mesurerSegmentation(2_000, 5_000);
+                break;
+            case 7:
+                TestsPerformance.mesurerServeurHttp(2_000, 16, 3_000, 50);
+                break;
+            case 8:
+                TestsPerformance.comparerServeurLignes(2_000, 200_000, 500);
+                break;
+            case 9:
+                TestsPerformance.testerFacadeConcurrente(nbThreads, 20_000);
+                break;
+            case 10:
+                TestsPerformance.mesurerRacineChaude(nbThreads, 2_000_000);
+                break;
+            case 11:
+                TestsPerformance.testerApiAsynchrone(500_000, nbThreads, 200_000);
+                break;
+            case 12:
+                TestsPerformance.testerFluxAnalyse(2_000, 20_000, nbThreads, 256);
+                break;
+            case 13:
+                TestsPerformance.comparerDictionnaireFragmente(400_000, nbThreads);
+                break;
+            case 14:
+                TestsPerformance.testerCoalescence(20_000, 16, 50);
+                break;
+            case 15:
+                TestsPerformance.testerDecompositionBornee(400_000, 5, 500);
+                break;
+            case 16:
+                TestsPerformance.comparerOrdonnancement(nbThreads, 2_000);
+                break;
+        }
+    }
+
     /**
      * Lit un choix entier de l'utilisateur
      */
-    private static int lireChoix() {
+    private int lireChoix() {
         try {
             return scanner.nextInt();
         } catch (Exception e) {
@@ -7,8 +7,11 @@ import structures.ABR;
 import structures.HashTable;
 import utils.ChargeurDonnees;
 import utils.MoteurMorphologique;
+import utils.SystemeMorphologique;
+import utils.RechargeurRacines;
 import utils.MoteurMorphologique.ResultatValidation;
 import utils.MoteurMorphologique.ResultatDecomposition;
+import utils.OrdonnanceurMoteur.Priorite;
 import models.RacineNode;
 import models.Scheme;
 import java.util.List;
@@ -23,7 +26,9 @@ public class MainSwing extends JFrame {
 
     private ABR arbreRacines;
     private HashTable tableSchemes;
+    private SystemeMorphologique systeme;   // Façade partagée avec le thread de surveillance
     private MoteurMorphologique moteur;
+    private RechargeurRacines rechargeur;   // null si la surveillance n'est pas activée
 
     private JComboBox<String> racineCombo;
     private JTextField racineField, motField, racineValField, motDecField, rechSchemeField, nouvelleRacineField;
@@ -63,6 +68,15 @@ public class MainSwing extends JFrame {
 
         initialiserDonnees();
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                // Ferme le WatchService et son thread avant la sortie
+                if (rechargeur != null) {
+                    rechargeur.arreter();
+                }
+            }
+        });
         setSize(1400, 900);
         setLocationRelativeTo(null);
 
@@ -81,7 +95,20 @@ public class MainSwing extends JFrame {
         ChargeurDonnees.creerFichierExemple(FICHIER_RACINES);
         ChargeurDonnees.chargerRacinesDepuisFichier(FICHIER_RACINES, arbreRacines);
         ChargeurDonnees.initialiserSchemes(tableSchemes);
-        moteur = new MoteurMorphologique(arbreRacines, tableSchemes);
+        systeme = new SystemeMorphologique(arbreRacines, tableSchemes);
+        moteur = systeme.getMoteur();
+        if (Boolean.getBoolean("morpho.precalcul")) {
+            System.out.println(moteur.precalculerLexique(0));
+        }
+        if (Boolean.getBoolean("morpho.surveillance")) {
+            rechargeur = new RechargeurRacines(FICHIER_RACINES, systeme);
+            try {
+                rechargeur.demarrer();
+            } catch (java.io.IOException e) {
+                System.err.println("❌ Surveillance impossible: " + e.getMessage());
+                rechargeur = null;
+            }
+        }
     }
 
     private void creerInterface() {
@@ -592,7 +619,7 @@ public class MainSwing extends JFrame {
         // Clic pour afficher les dérivés dans un popup
         card.addMouseListener(new MouseAdapter() {
             public void mouseClicked(MouseEvent e) {
-                List<String> derives = moteur.genererTousLesDerivees(racine);
+                List<String> derives = systeme.executer(Priorite.INTERACTIVE, () -> moteur.genererTousLesDerivees(racine));
                 afficherDerivesPopup(racine, derives);
             }
             public void mouseEntered(MouseEvent e) {
@@ -1094,7 +1121,7 @@ public class MainSwing extends JFrame {
             return;
         }
 
-        String motGenere = moteur.genererMotDerive(racine, scheme);
+        String motGenere = systeme.executer(Priorite.INTERACTIVE, () -> moteur.genererMotDerive(racine, scheme));
 
         if (motGenere != null) {
             compteurDerivees++;  // ← ICI
@@ -1116,7 +1143,8 @@ public class MainSwing extends JFrame {
             );
             rafraichirPanneauRacines();
         } else {
-            afficherPopupErreur("فشل في توليد الكلمة\nÉchec de génération");
+            String raison = moteur.expliquerEchecGeneration(racine, scheme);
+            afficherPopupErreur("فشل في توليد الكلمة\nÉchec de génération" + (raison != null ? "\n" + raison : ""));
         }
     }
 
@@ -1128,7 +1156,7 @@ public class MainSwing extends JFrame {
             return;
         }
 
-        List<String> derivees = moteur.genererTousLesDerivees(racine);
+        List<String> derivees = systeme.executer(Priorite.INTERACTIVE, () -> moteur.genererTousLesDerivees(racine));
 
         if (!derivees.isEmpty()) {
             compteurDerivees += derivees.size();  // ← ICI
@@ -1154,7 +1182,7 @@ public class MainSwing extends JFrame {
             return;
         }
 
-        ResultatValidation resultat = moteur.validerMot(mot, racine);
+        ResultatValidation resultat = systeme.executer(Priorite.INTERACTIVE, () -> moteur.validerMot(mot, racine));
 
         compteurValidations++;
         if (labelValidations != null) labelValidations.setText(String.valueOf(compteurValidations));
@@ -1195,7 +1223,7 @@ public class MainSwing extends JFrame {
             return;
         }
 
-        ResultatDecomposition resultat = moteur.decomposerMot(mot);
+        ResultatDecomposition resultat = systeme.executer(Priorite.INTERACTIVE, () -> moteur.decomposerMot(mot));
 
         afficherPopupSucces(
                 "🔬 تحليل مورفولوجي | Décomposition",
@@ -1222,12 +1250,11 @@ public class MainSwing extends JFrame {
             return;
         }
 
-        if (arbreRacines.rechercher(racine) != null) {
+        if (!systeme.ajouterRacine(racine)) {
             afficherPopupErreur("الجذر موجود مسبقا\nCette racine existe déjà");
             return;
         }
 
-        arbreRacines.inserer(racine);
         nouvelleRacineField.setText("");
         rafraichirComboRacines();
 
@@ -0,0 +1,132 @@
+package models;
+
+/**
+ * Codec compact de l'alphabet arabe : chaque lettre (ء..ي) et chaque signe diacritique
+ * (tanwin, voyelles brèves, chadda, soukoun) reçoit un code sur 6 bits, et un mot
+ * d'au plus 10 caractères tient dans un seul long (60 bits).
+ *
+ * Les codes sont attribués dans l'ordre croissant des points de code Unicode, et le
+ * premier caractère occupe les bits de poids fort (code 0 = fin de mot). La comparaison
+ * de deux mots codés (Long.compare) donne donc le même ordre que String.compareTo :
+ * l'ABR et les tables peuvent comparer et hacher les formes codées sans les décoder.
+ *
+ * Un mot contenant un autre caractère, ou plus de 10 caractères, n'est pas codable
+ * (NON_CODABLE) : les structures gardent alors la chaîne telle quelle.
+ */
+public final class AlphabetArabe {
+
+    /** Valeur retournée pour un mot non représentable */
+    public static final long NON_CODABLE = -1L;
+
+    /** Nombre maximal de caractères dans un long */
+    public static final int LONGUEUR_MAX = 10;
+
+    private static final int BITS = 6;
+    private static final int MASQUE = (1 << BITS) - 1;
+
+    private static final char[] CARACTERES;   // code → caractère (index 0 inutilisé)
+    private static final byte[] CODES;        // caractère - DEBUT → code (0 si absent)
+    private static final char DEBUT = 'ء';
+    private static final char FIN = 'ْ';
+
+    static {
+        StringBuilder alphabet = new StringBuilder();
+        for (char c = 'ء'; c <= 'غ'; c++) {   // ء .. غ
+            alphabet.append(c);
+        }
+        for (char c = 'ـ'; c <= FIN; c++) {        // ـ ف .. ي, puis ً .. ْ
+            alphabet.append(c);
+        }
+
+        CARACTERES = new char[alphabet.length() + 1];
+        CODES = new byte[FIN - DEBUT + 1];
+        for (int i = 0; i < alphabet.length(); i++) {
+            CARACTERES[i + 1] = alphabet.charAt(i);
+            CODES[alphabet.charAt(i) - DEBUT] = (byte) (i + 1);
+        }
+    }
+
+    private AlphabetArabe() {
+    }
+
+    /**
+     * Code d'un caractère
+     * @return Le code (1..63), ou 0 si le caractère n'appartient pas à l'alphabet
+     */
+    public static int code(char c) {
+        return (c < DEBUT || c > FIN) ? 0 : CODES[c - DEBUT];
+    }
+
+    /**
+     * Code un mot dans un long
+     * @return Le mot codé, ou NON_CODABLE
+     */
+    public static long coder(String mot) {
+        if (mot == null || mot.length() > LONGUEUR_MAX) {
+            return NON_CODABLE;
+        }
+        long resultat = 0;
+        for (int i = 0; i < mot.length(); i++) {
+            int code = code(mot.charAt(i));
+            if (code == 0) {
+                return NON_CODABLE;
+            }
+            resultat |= (long) code << decalage(i);
+        }
+        return resultat;
+    }
+
+    /**
+     * Décode un mot (à la frontière de l'API uniquement)
+     */
+    public static String decoder(long mot) {
+        char[] caracteres = new char[LONGUEUR_MAX];
+        int longueur = 0;
+        while (longueur < LONGUEUR_MAX) {
+            int code = lettre(mot, longueur);
+            if (code == 0) {
+                break;
+            }
+            caracteres[longueur++] = CARACTERES[code];
+        }
+        return new String(caracteres, 0, longueur);
+    }
+
+    /**
+     * Code du i-ème caractère d'un mot codé (0 au-delà de la fin)
+     */
+    public static int lettre(long mot, int i) {
+        return (int) (mot >>> decalage(i)) & MASQUE;
+    }
+
+    /**
+     * Remplace le i-ème caractère d'un mot codé
+     */
+    public static long avecLettre(long mot, int i, int code) {
+        int d = decalage(i);
+        return (mot & ~((long) MASQUE << d)) | ((long) code << d);
+    }
+
+    /**
+     * Nombre de caractères d'un mot codé
+     */
+    public static int longueur(long mot) {
+        int n = 0;
+        while (n < LONGUEUR_MAX && lettre(mot, n) != 0) {
+            n++;
+        }
+        return n;
+    }
+
+    /**
+     * Mélange les bits d'un mot codé pour l'indexation dans une table de hachage
+     */
+    public static int hacher(long mot) {
+        long h = mot * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static int decalage(int i) {
+        return BITS * (LONGUEUR_MAX - 1 - i);
+    }
+}
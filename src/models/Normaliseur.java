@@ -0,0 +1,204 @@
+package models;
+
+import java.util.EnumSet;
+import java.util.Locale;
+
+/**
+ * Normalisation orthographique appliquée avant toute insertion, recherche ou comparaison :
+ * suppression du tashkeel et du tatweel, unification des variantes d'alef (أ إ آ ٱ → ا), etc.
+ *
+ * Une table de remplacement indexée par caractère (bloc arabe U+0600..U+06FF) est
+ * construite une fois ; la normalisation est ensuite une seule passe sans regex.
+ * normaliserEtCoder produit directement la forme codée (AlphabetArabe) sans aucune
+ * allocation ; normaliser(String) retourne la chaîne elle-même si rien ne change et
+ * passe sinon par un tampon réutilisé par thread.
+ *
+ * Les règles actives se choisissent par déploiement avec la propriété système
+ * morpho.normalisation (liste séparée par des virgules, ou "aucune"), lue au démarrage.
+ * Par défaut : tashkeel, tatweel, alef. Une valeur invalide est signalée sur stderr et
+ * remplacée par les règles par défaut, plutôt que de faire échouer l'initialisation de
+ * la classe (et toute normalisation ensuite).
+ */
+public final class Normaliseur {
+
+    /** Propriété système listant les règles actives */
+    public static final String PROPRIETE = "morpho.normalisation";
+
+    /**
+     * Règles de normalisation disponibles
+     */
+    public enum Regle {
+        TASHKEEL,       // supprime ً ٌ ٍ َ ُ ِ ّ ْ et l'alef suscrit
+        TATWEEL,        // supprime ـ
+        ALEF,           // أ إ آ ٱ → ا
+        ALEF_MAQSOURA,  // ى → ي
+        TA_MARBOUTA,    // ة → ه
+        HAMZA           // ؤ → و, ئ → ي
+    }
+
+    private static final char DEBUT = '\u0600';
+    private static final char FIN = '\u06FF';
+    private static final char SUPPRIME = '\uFFFF';
+
+    private static final String REGLES_PAR_DEFAUT = "tashkeel,tatweel,alef";
+
+    private static final Normaliseur DEFAUT = chargerDefaut();
+
+    private final EnumSet<Regle> regles;
+    private final char[] table;   // caractère - DEBUT → remplaçant, SUPPRIME, ou le caractère lui-même
+    private final ThreadLocal<char[]> tampons = ThreadLocal.withInitial(() -> new char[32]);
+
+    public Normaliseur(EnumSet<Regle> regles) {
+        this.regles = EnumSet.copyOf(regles);
+        this.table = new char[FIN - DEBUT + 1];
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (char) (DEBUT + i);
+        }
+
+        if (regles.contains(Regle.TASHKEEL)) {
+            for (char c = '\u064B'; c <= '\u0652'; c++) {
+                remplacer(c, SUPPRIME);
+            }
+            remplacer('\u0670', SUPPRIME);
+        }
+        if (regles.contains(Regle.TATWEEL)) {
+            remplacer('\u0640', SUPPRIME);
+        }
+        if (regles.contains(Regle.ALEF)) {
+            remplacer('أ', 'ا');
+            remplacer('إ', 'ا');
+            remplacer('آ', 'ا');
+            remplacer('ٱ', 'ا');
+        }
+        if (regles.contains(Regle.ALEF_MAQSOURA)) {
+            remplacer('ى', 'ي');
+        }
+        if (regles.contains(Regle.TA_MARBOUTA)) {
+            remplacer('ة', 'ه');
+        }
+        if (regles.contains(Regle.HAMZA)) {
+            remplacer('ؤ', 'و');
+            remplacer('ئ', 'ي');
+        }
+    }
+
+    private void remplacer(char c, char remplacant) {
+        table[c - DEBUT] = remplacant;
+    }
+
+    /**
+     * Construit un normaliseur à partir d'une liste de règles ("tashkeel,alef", "aucune", ...)
+     * @throws IllegalArgumentException si une règle est inconnue
+     */
+    public static Normaliseur depuisConfiguration(String configuration) {
+        EnumSet<Regle> regles = EnumSet.noneOf(Regle.class);
+        for (String nom : configuration.split(",")) {
+            String r = nom.trim().toUpperCase(Locale.ROOT);
+            if (!r.isEmpty() && !r.equals("AUCUNE")) {
+                try {
+                    regles.add(Regle.valueOf(r));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Règle de normalisation inconnue: " + nom.trim()
+                            + " (règles: " + EnumSet.allOf(Regle.class).toString().toLowerCase(Locale.ROOT) + ", ou aucune)");
+                }
+            }
+        }
+        return new Normaliseur(regles);
+    }
+
+    /**
+     * Lit la propriété morpho.normalisation ; une valeur invalide est signalée et
+     * remplacée par les règles par défaut
+     */
+    private static Normaliseur chargerDefaut() {
+        String configuration = System.getProperty(PROPRIETE, REGLES_PAR_DEFAUT);
+        try {
+            return depuisConfiguration(configuration);
+        } catch (IllegalArgumentException e) {
+            System.err.println("⚠ " + PROPRIETE + "=" + configuration + " ignorée (" + e.getMessage()
+                    + "), règles par défaut: " + REGLES_PAR_DEFAUT);
+            return depuisConfiguration(REGLES_PAR_DEFAUT);
+        }
+    }
+
+    /**
+     * Normaliseur du déploiement (propriété morpho.normalisation)
+     */
+    public static Normaliseur getDefaut() {
+        return DEFAUT;
+    }
+
+    /**
+     * Normalise un caractère
+     * @return Le caractère remplaçant, ou '\uFFFF' s'il doit être supprimé
+     */
+    public char normaliser(char c) {
+        return (c < DEBUT || c > FIN) ? c : table[c - DEBUT];
+    }
+
+    /**
+     * Normalise un mot en une passe.
+     * @return Le mot lui-même s'il est déjà normalisé (aucune allocation), sinon sa forme normalisée
+     */
+    public String normaliser(String mot) {
+        if (mot == null) {
+            return null;
+        }
+        int i = 0;
+        int n = mot.length();
+        while (i < n && normaliser(mot.charAt(i)) == mot.charAt(i)) {
+            i++;
+        }
+        if (i == n) {
+            return mot;
+        }
+
+        char[] tampon = tampons.get();
+        if (tampon.length < n) {
+            tampon = new char[Math.max(n, tampon.length * 2)];
+            tampons.set(tampon);
+        }
+        mot.getChars(0, i, tampon, 0);
+        int longueur = i;
+        for (; i < n; i++) {
+            char c = normaliser(mot.charAt(i));
+            if (c != SUPPRIME) {
+                tampon[longueur++] = c;
+            }
+        }
+        return new String(tampon, 0, longueur);
+    }
+
+    /**
+     * Normalise et code un mot (AlphabetArabe) en une seule passe, sans allocation
+     * @return Le mot normalisé codé, ou AlphabetArabe.NON_CODABLE
+     */
+    public long normaliserEtCoder(String mot) {
+        if (mot == null) {
+            return AlphabetArabe.NON_CODABLE;
+        }
+        long code = 0;
+        int longueur = 0;
+        for (int i = 0; i < mot.length(); i++) {
+            char c = normaliser(mot.charAt(i));
+            if (c == SUPPRIME) {
+                continue;
+            }
+            int lettre = AlphabetArabe.code(c);
+            if (lettre == 0 || longueur == AlphabetArabe.LONGUEUR_MAX) {
+                return AlphabetArabe.NON_CODABLE;
+            }
+            code = AlphabetArabe.avecLettre(code, longueur++, lettre);
+        }
+        return code;
+    }
+
+    public EnumSet<Regle> getRegles() {
+        return EnumSet.copyOf(regles);
+    }
+
+    @Override
+    public String toString() {
+        return "Normaliseur" + regles;
+    }
+}
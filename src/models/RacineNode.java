@@ -1,7 +1,12 @@
 package models;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * hey lbnet avl tal3it ABR juste far9 bin niveau wel tahtou ka3ba
@@ -10,11 +15,24 @@ import java.util.List;
  *
  * Représente un nœud de l'arbre binaire de recherche contenant une racine arabe.
  * Chaque nœud stocke la racine, sa fréquence et la liste des mots dérivés validés.
+ * La racine et les mots dérivés sont gardés sous forme codée (AlphabetArabe, un long) ;
+ * la chaîne n'est conservée que si le mot n'est pas codable.
+ *
+ * Concurrence : l'enregistrement des dérivés et les fréquences sont non bloquants
+ * (index ConcurrentHashMap par mot, file d'insertion sans verrou, compteurs LongAdder) ;
+ * plusieurs threads peuvent valider et générer sur la même racine en même temps.
+ * Un LongAdder répartit les incréments d'une racine populaire sur plusieurs cellules
+ * au lieu d'une seule case disputée ; la lecture (somme) est un instantané pour les
+ * statistiques, exact une fois les écritures terminées.
+ * Les liens gauche/droit et la hauteur restent sous le verrou d'écriture de l'ABR.
  */
 public class RacineNode {
-    private String racine;              // Racine trilitère arabe (ex: "كتب")
-    private int frequence;              // Fréquence d'utilisation de la racine
-    private List<MotDerive> motsDerivesValides;  // Liste des mots dérivés validés
+    private int id;                     // Identifiant dense attribué par l'ABR à l'insertion
+    private long code;                  // Racine trilitère codée (ex: "كتب"), voir AlphabetArabe
+    private String racineNonCodee;      // La racine elle-même si elle n'est pas codable, sinon null
+    private final LongAdder frequence = new LongAdder();  // Fréquence d'utilisation de la racine
+    private final ConcurrentHashMap<Object, MotDerive> indexDerives = new ConcurrentHashMap<>();  // mot → dérivé
+    private final ConcurrentLinkedQueue<MotDerive> motsDerivesValides = new ConcurrentLinkedQueue<>();  // ordre d'ajout
     private RacineNode gauche;          // Sous-arbre gauche
     private RacineNode droit;           // Sous-arbre droit
     private int hauteur;                // Hauteur du nœud (pour AVL) kol insert nsajil hauteur!
@@ -24,41 +42,97 @@ public class RacineNode {
      * @param racine La racine arabe trilitère
      */
     public RacineNode(String racine) {
-        this.racine = racine;
-        this.frequence = 1;
-        this.motsDerivesValides = new ArrayList<>();
+        this.id = -1;
+        setRacine(racine);
+        this.frequence.increment();
         this.gauche = null;
         this.droit = null;
         this.hauteur = 1;
     }
 
     // Getters et Setters
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    /**
+     * Retourne la racine (décodée à la demande)
+     */
     public String getRacine() {
-        return racine;
+        return racineNonCodee != null ? racineNonCodee : AlphabetArabe.decoder(code);
     }
 
     public void setRacine(String racine) {
-        this.racine = racine;
+        this.code = AlphabetArabe.coder(racine);
+        this.racineNonCodee = (code == AlphabetArabe.NON_CODABLE) ? racine : null;
     }
 
-    public int getFrequence() {
-        return frequence;
+    /**
+     * Retourne la racine codée, ou AlphabetArabe.NON_CODABLE
+     */
+    public long getCode() {
+        return code;
     }
 
-    public void setFrequence(int frequence) {
-        this.frequence = frequence;
+    /**
+     * Compare une racine (déjà codée si possible) à celle du nœud, dans l'ordre de String.compareTo
+     * @param codeAutre La racine codée, ou NON_CODABLE
+     * @param autre La racine en clair (utilisée seulement si l'une des deux n'est pas codable)
+     */
+    public int comparer(long codeAutre, String autre) {
+        if (codeAutre != AlphabetArabe.NON_CODABLE && code != AlphabetArabe.NON_CODABLE) {
+            return Long.compare(codeAutre, code);
+        }
+        return autre.compareTo(getRacine());
+    }
+
+    /**
+     * @return Instantané de la fréquence (somme des cellules du compteur, sur 64 bits :
+     *         une racine très consultée dépasse Integer.MAX_VALUE sans être tronquée)
+     */
+    public long getFrequence() {
+        return frequence.sum();
+    }
+
+    /**
+     * Fixe la fréquence (restauration, avant tout accès concurrent)
+     */
+    public void setFrequence(long frequence) {
+        this.frequence.reset();
+        this.frequence.add(frequence);
     }
 
     public void incrementerFrequence() {
-        this.frequence++;
+        frequence.increment();
     }
 
+    /**
+     * @return Les dérivés dans leur ordre d'ajout (copie ; faiblement cohérente si
+     *         d'autres threads en ajoutent pendant la lecture)
+     */
     public List<MotDerive> getMotsDerivesValides() {
-        return motsDerivesValides;
+        return new ArrayList<>(motsDerivesValides);
     }
 
+    /**
+     * Remplace les dérivés (restauration d'un instantané, avant tout accès concurrent)
+     */
     public void setMotsDerivesValides(List<MotDerive> motsDerivesValides) {
-        this.motsDerivesValides = motsDerivesValides;
+        this.indexDerives.clear();
+        this.motsDerivesValides.clear();
+        for (MotDerive md : motsDerivesValides) {
+            if (indexDerives.putIfAbsent(md.cle(), md) == null) {
+                this.motsDerivesValides.add(md);
+            }
+        }
+    }
+
+    public int getNombreDerives() {
+        return indexDerives.size();
     }
 
     public RacineNode getGauche() {
@@ -86,59 +160,156 @@ public class RacineNode {
     }
 
     /**
-     * Ajoute un mot dérivé validé à la liste
+     * Ajoute un mot dérivé validé, ou incrémente sa fréquence s'il est déjà présent.
+     * Sans verrou : un seul des threads ajoutant le même mot l'insère, les autres comptent.
      * @param motDerive Le mot dérivé à ajouter
      */
     public void ajouterMotDerive(MotDerive motDerive) {
-        // Vérifier si le mot n'existe pas déjà
-        for (MotDerive md : motsDerivesValides) {
-            if (md.getMot().equals(motDerive.getMot())) {
-                md.incrementerFrequence();
+        Object cle = motDerive.cle();
+        MotDerive existant = indexDerives.get(cle);   // Cas courant sur une racine chaude : lecture seule
+        if (existant == null) {
+            existant = indexDerives.putIfAbsent(cle, motDerive);
+            if (existant == null) {
+                motsDerivesValides.add(motDerive);
                 return;
             }
         }
-        motsDerivesValides.add(motDerive);
+        existant.incrementerFrequence();
+    }
+
+    /**
+     * Les k dérivés les plus fréquents, du plus fréquent au moins fréquent
+     * (chaque fréquence est lue une seule fois)
+     */
+    public List<Frequence> getDerivesLesPlusFrequents(int k) {
+        List<Frequence> instantane = new ArrayList<>(indexDerives.size());
+        for (MotDerive md : motsDerivesValides) {
+            instantane.add(new Frequence(md.getMot(), md.getFrequence()));
+        }
+        return Frequence.meilleures(instantane, k);
+    }
+
+    /**
+     * Fusionne un lot de mots dérivés en une seule passe (indexation par mot).
+     * Contrairement à ajouterMotDerive, un mot déjà présent n'est pas compté une
+     * seconde fois : le lot complète la liste sans modifier les fréquences.
+     * @param lot Les mots dérivés à fusionner
+     */
+    public void fusionnerMotsDerives(List<MotDerive> lot) {
+        for (MotDerive md : lot) {
+            if (indexDerives.putIfAbsent(md.cle(), md) == null) {
+                motsDerivesValides.add(md);
+            }
+        }
     }
 
     /**
      * Classe interne représentant un mot dérivé
      */
     public static class MotDerive {
-        private String mot;
+        private long code;            // Mot codé (AlphabetArabe), ou NON_CODABLE
+        private String motNonCode;    // Le mot lui-même s'il n'est pas codable, sinon null
         private String scheme;
-        private int frequence;
+        private final LongAdder frequence = new LongAdder();
 
         public MotDerive(String mot, String scheme) {
-            this.mot = mot;
+            this.code = AlphabetArabe.coder(mot);
+            this.motNonCode = (code == AlphabetArabe.NON_CODABLE) ? mot : null;
             this.scheme = scheme;
-            this.frequence = 1;
+            this.frequence.increment();
         }
 
         public String getMot() {
-            return mot;
+            return motNonCode != null ? motNonCode : AlphabetArabe.decoder(code);
+        }
+
+        public long getCode() {
+            return code;
+        }
+
+        /**
+         * Clé d'indexation : le code si le mot est codable, sinon la chaîne
+         */
+        Object cle() {
+            return motNonCode != null ? motNonCode : (Object) code;
         }
 
         public String getScheme() {
             return scheme;
         }
 
-        public int getFrequence() {
-            return frequence;
+        public long getFrequence() {
+            return frequence.sum();
         }
 
         public void incrementerFrequence() {
-            this.frequence++;
+            frequence.increment();
+        }
+
+        public void setFrequence(long frequence) {
+            this.frequence.reset();
+            this.frequence.add(frequence);
+        }
+
+        @Override
+        public String toString() {
+            return getMot() + " (" + scheme + ") - Fréq: " + frequence;
+        }
+    }
+
+    /**
+     * Instantané (mot, fréquence) pour les statistiques et les classements
+     */
+    public static class Frequence {
+        private final String mot;
+        private final long frequence;
+
+        public Frequence(String mot, long frequence) {
+            this.mot = mot;
+            this.frequence = frequence;
+        }
+
+        public String getMot() {
+            return mot;
+        }
+
+        public long getFrequence() {
+            return frequence;
+        }
+
+        /**
+         * Sélectionne les k plus fréquents avec un tas-min de taille k
+         * Complexité: O(n log k)
+         * @return Du plus fréquent au moins fréquent
+         */
+        public static List<Frequence> meilleures(Collection<Frequence> candidats, int k) {
+            if (k <= 0) {
+                return new ArrayList<>();
+            }
+            PriorityQueue<Frequence> tas = new PriorityQueue<>(k + 1,
+                    (a, b) -> Long.compare(a.frequence, b.frequence));
+            for (Frequence f : candidats) {
+                if (tas.size() < k) {
+                    tas.add(f);
+                } else if (f.frequence > tas.peek().frequence) {
+                    tas.poll();
+                    tas.add(f);
+                }
+            }
+            List<Frequence> resultat = new ArrayList<>(tas);
+            resultat.sort((a, b) -> Long.compare(b.frequence, a.frequence));
+            return resultat;
         }
 
         @Override
         public String toString() {
-            return mot + " (" + scheme + ") - Fréq: " + frequence;
+            return mot + " (" + frequence + ")";
         }
     }
 
     @Override
     public String toString() {
-        return "Racine: " + racine + " | Fréquence: " + frequence +
-                " | Dérivés: " + motsDerivesValides.size();
+        return "Racine: " + getRacine() + " | Fréquence: " + frequence.sum() +
+                " | Dérivés: " + indexDerives.size();
     }
 }
\ No newline at end of file
@@ -7,10 +7,18 @@ package models;
  * Un schème définit comment les consonnes d'une racine sont insérées dans un pattern.
  */
 public class Scheme {
+    private int id;                     // Identifiant dense attribué par la HashTable à l'enregistrement
     private String nom;                 // Nom du schème (ex: "فاعل", "مفعول")
     private String pattern;             // Pattern abstrait (ex: "فاعل" où ف-ع-ل sont des positions)
     private String description;         // Description du schème
     private TypeScheme type;            // Type de schème (nom, verbe, etc.)
+    private volatile int versionPattern; // Incrémentée à chaque setPattern (invalide les caches de génération)
+    private long codePattern;           // Pattern normalisé et codé (AlphabetArabe), ou NON_CODABLE
+    private byte[] positionsRacine;     // Pour chaque case du pattern: 1, 2, 3 (lettre de la racine) ou 0
+
+    private static final int CODE_F = AlphabetArabe.code('ف');
+    private static final int CODE_A = AlphabetArabe.code('ع');
+    private static final int CODE_L = AlphabetArabe.code('ل');
 
     /**
      * he4i sna3 type esmou typeScheme stamlou fi type eli lfou9
@@ -30,10 +38,30 @@ public class Scheme {
      * Constructors
      */
     public Scheme(String nom, String pattern, String description, TypeScheme type) {
+        this.id = -1;
         this.nom = nom;
         this.pattern = pattern;
         this.description = description;
         this.type = type;
+        coderPattern();
+    }
+
+    /**
+     * Normalise et code le pattern, et repère les cases ف / ع / ل, pour appliquer le schème
+     * directement sur des racines codées
+     */
+    private void coderPattern() {
+        this.codePattern = Normaliseur.getDefaut().normaliserEtCoder(pattern);
+        if (codePattern == AlphabetArabe.NON_CODABLE) {
+            this.positionsRacine = null;
+            return;
+        }
+        byte[] positions = new byte[AlphabetArabe.longueur(codePattern)];
+        for (int i = 0; i < positions.length; i++) {
+            int code = AlphabetArabe.lettre(codePattern, i);
+            positions[i] = (byte) (code == CODE_F ? 1 : code == CODE_A ? 2 : code == CODE_L ? 3 : 0);
+        }
+        this.positionsRacine = positions;
     }
 
     public Scheme(String nom, String pattern, TypeScheme type) {
@@ -76,18 +104,59 @@ public class Scheme {
     }
 
     /**
-     * Vérifie si un mot correspond à ce schème appliqué à une racine donnée
+     * Vérifie si un mot correspond à ce schème appliqué à une racine donnée.
+     * Le mot, la racine et le pattern sont comparés après normalisation (Normaliseur).
      * @param mot Le mot à vérifier
      * @param racine La racine supposée
      * @return true si le mot correspond au schème + racine
      */
     public boolean correspondAuScheme(String mot, String racine) {
-        if (mot == null || racine == null || racine.length() != 3) {
+        if (mot == null || racine == null) {
             return false;
         }
 
-        String motTest = appliquerScheme(racine); //generate word from given racine
-        return mot.equals(motTest);               //compare given word and the generated word. equals eli bil overide to compare schemes bch na3rfou bech n3aytou el this function
+        // Chemin codé : normalisation et codage en une passe, aucune chaîne n'est construite
+        Normaliseur normaliseur = Normaliseur.getDefaut();
+        long codeRacine = normaliseur.normaliserEtCoder(racine);
+        if (codePattern != AlphabetArabe.NON_CODABLE && codeRacine != AlphabetArabe.NON_CODABLE) {
+            return correspondAuScheme(normaliseur.normaliserEtCoder(mot), codeRacine);
+        }
+
+        String r = normaliseur.normaliser(racine);
+        if (r.length() != 3) {
+            return false;
+        }
+        String motTest = appliquerScheme(r); //generate word from given racine
+        return normaliseur.normaliser(mot).equals(normaliseur.normaliser(motTest));               //compare given word and the generated word. equals eli bil overide to compare schemes bch na3rfou bech n3aytou el this function
+    }
+
+    /**
+     * Applique le schème à une racine trilitère codée (AlphabetArabe), sur le pattern normalisé
+     * @return Le mot dérivé normalisé et codé, ou NON_CODABLE si le pattern ou la racine ne sont pas codables
+     */
+    public long appliquerScheme(long racine) {
+        byte[] positions = positionsRacine;
+        long resultat = codePattern;
+        if (positions == null || racine == AlphabetArabe.NON_CODABLE || AlphabetArabe.longueur(racine) != 3) {
+            return AlphabetArabe.NON_CODABLE;
+        }
+        for (int i = 0; i < positions.length; i++) {
+            if (positions[i] != 0) {
+                resultat = AlphabetArabe.avecLettre(resultat, i, AlphabetArabe.lettre(racine, positions[i] - 1));
+            }
+        }
+        return resultat;
+    }
+
+    /**
+     * Version codée de correspondAuScheme : une application du schème et une comparaison de long
+     */
+    public boolean correspondAuScheme(long mot, long racine) {
+        if (mot == AlphabetArabe.NON_CODABLE) {
+            return false;
+        }
+        long genere = appliquerScheme(racine);
+        return genere != AlphabetArabe.NON_CODABLE && genere == mot;
     }
 
     @Override
@@ -117,6 +186,14 @@ public class Scheme {
      * hatit getters w setters houni bch nitlhew bil main code 9bal*/
 
     // Getters et Setters
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
     public String getNom() {
         return nom;
     }
@@ -131,6 +208,12 @@ public class Scheme {
 
     public void setPattern(String pattern) {
         this.pattern = pattern;
+        coderPattern();
+        this.versionPattern++;
+    }
+
+    public int getVersionPattern() {
+        return versionPattern;
     }
 
     public String getDescription() {
@@ -0,0 +1,225 @@
+package serveur;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Générateur de charge interne à la JVM pour ServeurMorphologique.
+ *
+ * nbClients clients envoient leurs requêtes en boucle fermée (une requête à la fois chacun)
+ * pendant la durée demandée, en tirant au hasard une génération, une validation ou une
+ * décomposition sur les racines et schèmes fournis. Avec tailleLot > 1, chaque requête est
+ * un POST /lot/... de tailleLot éléments. La latence de chaque requête est mesurée côté client.
+ * Le générateur se ferme après usage : close() arrête les threads du client HTTP.
+ */
+public class GenerateurCharge implements AutoCloseable {
+
+    private final String base;
+    private final List<String> racines;
+    private final List<String> schemes;
+    private final HttpClient client;
+    private final ExecutorService executeurClient;
+
+    /**
+     * @param port Port du serveur sur 127.0.0.1
+     * @param racines Racines existantes utilisées pour les requêtes
+     * @param schemes Noms de schèmes existants
+     */
+    public GenerateurCharge(int port, List<String> racines, List<String> schemes) {
+        this.base = "http://127.0.0.1:" + port;
+        this.racines = racines;
+        this.schemes = schemes;
+        this.executeurClient = ServeurMorphologique.creerExecuteurParTache();
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(executeurClient)
+                .build();
+    }
+
+    /**
+     * Arrête l'exécuteur du client HTTP (les requêtes déjà lancées se terminent)
+     */
+    @Override
+    public void close() {
+        executeurClient.shutdown();
+    }
+
+    /**
+     * Lance la charge et attend la fin
+     * @param nbClients Nombre de clients concurrents
+     * @param dureeMs Durée de la mesure
+     * @param tailleLot 1 pour des requêtes simples, sinon le nombre d'éléments par lot
+     */
+    public RapportCharge executer(int nbClients, long dureeMs, int tailleLot) {
+        ExecutorService clients = ServeurMorphologique.creerExecuteurParTache();
+        CountDownLatch depart = new CountDownLatch(1);
+        CountDownLatch fin = new CountDownLatch(nbClients);
+        LongAdder erreurs = new LongAdder();
+        List<long[]> latencesParClient = new ArrayList<>();
+        int[] nbParClient = new int[nbClients];
+
+        for (int c = 0; c < nbClients; c++) {
+            final int numero = c;
+            long[] latences = new long[1 << 16];
+            latencesParClient.add(latences);
+            clients.execute(() -> {
+                long[] l = latences;
+                int n = 0;
+                try {
+                    depart.await();
+                    long limite = System.nanoTime() + dureeMs * 1_000_000L;
+                    while (System.nanoTime() < limite) {
+                        HttpRequest requete = tailleLot > 1 ? requeteLot(tailleLot) : requeteSimple();
+                        long debut = System.nanoTime();
+                        try {
+                            HttpResponse<String> reponse = client.send(requete, HttpResponse.BodyHandlers.ofString());
+                            if (reponse.statusCode() != 200) {
+                                erreurs.increment();
+                            }
+                        } catch (java.io.IOException e) {
+                            erreurs.increment();
+                        }
+                        if (n == l.length) {
+                            l = Arrays.copyOf(l, l.length * 2);
+                            latencesParClient.set(numero, l);
+                        }
+                        l[n++] = System.nanoTime() - debut;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    nbParClient[numero] = n;
+                    fin.countDown();
+                }
+            });
+        }
+
+        long debut = System.nanoTime();
+        depart.countDown();
+        try {
+            fin.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        long duree = System.nanoTime() - debut;
+        clients.shutdown();
+
+        // fin.await() publie les écritures des clients (latences et compteurs)
+        int total = 0;
+        for (int n : nbParClient) {
+            total += n;
+        }
+        long[] toutes = new long[total];
+        int k = 0;
+        for (int c = 0; c < nbClients; c++) {
+            System.arraycopy(latencesParClient.get(c), 0, toutes, k, nbParClient[c]);
+            k += nbParClient[c];
+        }
+        Arrays.sort(toutes);
+        return new RapportCharge(nbClients, tailleLot, toutes, erreurs.sum(), duree);
+    }
+
+    private HttpRequest requeteSimple() {
+        ThreadLocalRandom aleatoire = ThreadLocalRandom.current();
+        String racine = racines.get(aleatoire.nextInt(racines.size()));
+        String scheme = schemes.get(aleatoire.nextInt(schemes.size()));
+        String chemin;
+        switch (aleatoire.nextInt(3)) {
+            case 0:
+                chemin = "/generer?racine=" + encoder(racine) + "&scheme=" + encoder(scheme);
+                break;
+            case 1:
+                chemin = "/valider?mot=" + encoder(racine) + "&racine=" + encoder(racine);
+                break;
+            default:
+                chemin = "/decomposer?mot=" + encoder(racine);
+        }
+        return HttpRequest.newBuilder(URI.create(base + chemin)).GET().build();
+    }
+
+    private HttpRequest requeteLot(int tailleLot) {
+        ThreadLocalRandom aleatoire = ThreadLocalRandom.current();
+        List<Object> elements = new ArrayList<>(tailleLot);
+        for (int i = 0; i < tailleLot; i++) {
+            Map<String, Object> element = new LinkedHashMap<>();
+            element.put("racine", racines.get(aleatoire.nextInt(racines.size())));
+            element.put("scheme", schemes.get(aleatoire.nextInt(schemes.size())));
+            elements.add(element);
+        }
+        return HttpRequest.newBuilder(URI.create(base + "/lot/generer"))
+                .header("Content-Type", "application/json; charset=utf-8")
+                .POST(HttpRequest.BodyPublishers.ofString(Json.ecrire(elements), StandardCharsets.UTF_8))
+                .build();
+    }
+
+    private static String encoder(String s) {
+        return URLEncoder.encode(s, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Classe représentant le résultat d'une campagne de charge
+     */
+    public static class RapportCharge {
+        private int nbClients;
+        private int tailleLot;
+        private long[] latencesNs;   // triées
+        private long nbErreurs;
+        private long dureeNs;
+
+        public RapportCharge(int nbClients, int tailleLot, long[] latencesNs, long nbErreurs, long dureeNs) {
+            this.nbClients = nbClients;
+            this.tailleLot = tailleLot;
+            this.latencesNs = latencesNs;
+            this.nbErreurs = nbErreurs;
+            this.dureeNs = dureeNs;
+        }
+
+        public long getNbRequetes() {
+            return latencesNs.length;
+        }
+
+        public long getNbErreurs() {
+            return nbErreurs;
+        }
+
+        public double getRequetesParSeconde() {
+            return latencesNs.length / (dureeNs / 1e9);
+        }
+
+        /**
+         * @param p Centile entre 0 et 100
+         * @return La latence du centile en millisecondes
+         */
+        public double getCentileMs(double p) {
+            if (latencesNs.length == 0) {
+                return 0;
+            }
+            int rang = (int) Math.ceil(p / 100.0 * latencesNs.length) - 1;
+            return latencesNs[Math.max(0, Math.min(rang, latencesNs.length - 1))] / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d clients, lot=%d: %,d requêtes (%d erreurs), %,.0f req/s%s, " +
+                            "p50=%.2f ms, p99=%.2f ms, max=%.2f ms",
+                    nbClients, tailleLot, getNbRequetes(), nbErreurs, getRequetesParSeconde(),
+                    tailleLot > 1 ? String.format(" (%,.0f éléments/s)", getRequetesParSeconde() * tailleLot) : "",
+                    getCentileMs(50), getCentileMs(99), getCentileMs(100));
+        }
+    }
+}
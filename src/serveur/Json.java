@@ -0,0 +1,262 @@
+package serveur;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JSON minimal pour le service HTTP (aucune dépendance externe).
+ *
+ * Lecture : objets → Map, tableaux → List, chaînes → String, nombres → Double,
+ * true/false → Boolean, null → null. L'imbrication est bornée à PROFONDEUR_MAX niveaux :
+ * un document plus profond est refusé au lieu d'épuiser la pile de la lecture récursive.
+ * Écriture : Map, List/tableaux, String, Number, Boolean et null.
+ */
+public final class Json {
+
+    /** Nombre maximal d'objets et tableaux imbriqués dans un document lu */
+    public static final int PROFONDEUR_MAX = 64;
+
+    private final String texte;
+    private int position;
+    private int profondeur;
+
+    private Json(String texte) {
+        this.texte = texte;
+    }
+
+    /**
+     * Analyse un document JSON
+     * @throws IllegalArgumentException si le document est mal formé ou trop imbriqué
+     */
+    public static Object lire(String texte) {
+        Json lecteur = new Json(texte);
+        lecteur.espaces();
+        Object valeur = lecteur.valeur();
+        lecteur.espaces();
+        if (lecteur.position != texte.length()) {
+            throw lecteur.erreur("Contenu inattendu après la valeur");
+        }
+        return valeur;
+    }
+
+    private Object valeur() {
+        if (position >= texte.length()) {
+            throw erreur("Fin du document inattendue");
+        }
+        char c = texte.charAt(position);
+        switch (c) {
+            case '{':
+                return objet();
+            case '[':
+                return tableau();
+            case '"':
+                return chaine();
+            case 't':
+                return mot("true", Boolean.TRUE);
+            case 'f':
+                return mot("false", Boolean.FALSE);
+            case 'n':
+                return mot("null", null);
+            default:
+                return nombre();
+        }
+    }
+
+    private Map<String, Object> objet() {
+        Map<String, Object> objet = new LinkedHashMap<>();
+        entrer();
+        position++;   // {
+        espaces();
+        if (suivant('}')) {
+            profondeur--;
+            return objet;
+        }
+        do {
+            espaces();
+            if (position >= texte.length() || texte.charAt(position) != '"') {
+                throw erreur("Clé attendue");
+            }
+            String cle = chaine();
+            espaces();
+            if (!suivant(':')) {
+                throw erreur("':' attendu");
+            }
+            espaces();
+            objet.put(cle, valeur());
+            espaces();
+        } while (suivant(','));
+        if (!suivant('}')) {
+            throw erreur("'}' attendu");
+        }
+        profondeur--;
+        return objet;
+    }
+
+    private List<Object> tableau() {
+        List<Object> tableau = new ArrayList<>();
+        entrer();
+        position++;   // [
+        espaces();
+        if (suivant(']')) {
+            profondeur--;
+            return tableau;
+        }
+        do {
+            espaces();
+            tableau.add(valeur());
+            espaces();
+        } while (suivant(','));
+        if (!suivant(']')) {
+            throw erreur("']' attendu");
+        }
+        profondeur--;
+        return tableau;
+    }
+
+    private void entrer() {
+        if (++profondeur > PROFONDEUR_MAX) {
+            throw erreur("Imbrication trop profonde (> " + PROFONDEUR_MAX + " niveaux)");
+        }
+    }
+
+    private String chaine() {
+        StringBuilder sb = new StringBuilder();
+        position++;   // "
+        while (position < texte.length()) {
+            char c = texte.charAt(position++);
+            if (c == '"') {
+                return sb.toString();
+            }
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            if (position >= texte.length()) {
+                break;
+            }
+            char e = texte.charAt(position++);
+            switch (e) {
+                case 'n': sb.append('\n'); break;
+                case 't': sb.append('\t'); break;
+                case 'r': sb.append('\r'); break;
+                case 'b': sb.append('\b'); break;
+                case 'f': sb.append('\f'); break;
+                case 'u':
+                    if (position + 4 > texte.length()) {
+                        throw erreur("Échappement \\u incomplet");
+                    }
+                    sb.append((char) Integer.parseInt(texte.substring(position, position + 4), 16));
+                    position += 4;
+                    break;
+                default:
+                    sb.append(e);   // \" \\ \/
+            }
+        }
+        throw erreur("Chaîne non terminée");
+    }
+
+    private Object mot(String attendu, Object valeur) {
+        if (!texte.startsWith(attendu, position)) {
+            throw erreur("Valeur inconnue");
+        }
+        position += attendu.length();
+        return valeur;
+    }
+
+    private Double nombre() {
+        int debut = position;
+        while (position < texte.length() && "+-0123456789.eE".indexOf(texte.charAt(position)) >= 0) {
+            position++;
+        }
+        if (debut == position) {
+            throw erreur("Valeur attendue");
+        }
+        return Double.valueOf(texte.substring(debut, position));
+    }
+
+    private boolean suivant(char c) {
+        if (position < texte.length() && texte.charAt(position) == c) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void espaces() {
+        while (position < texte.length() && Character.isWhitespace(texte.charAt(position))) {
+            position++;
+        }
+    }
+
+    private IllegalArgumentException erreur(String message) {
+        return new IllegalArgumentException("JSON invalide (position " + position + "): " + message);
+    }
+
+    /**
+     * Sérialise une valeur en JSON
+     */
+    public static String ecrire(Object valeur) {
+        StringBuilder sb = new StringBuilder();
+        ecrire(valeur, sb);
+        return sb.toString();
+    }
+
+    private static void ecrire(Object valeur, StringBuilder sb) {
+        if (valeur == null) {
+            sb.append("null");
+        } else if (valeur instanceof String) {
+            ecrireChaine((String) valeur, sb);
+        } else if (valeur instanceof Number || valeur instanceof Boolean) {
+            sb.append(valeur);
+        } else if (valeur instanceof Map) {
+            sb.append('{');
+            boolean premier = true;
+            for (Map.Entry<?, ?> e : ((Map<?, ?>) valeur).entrySet()) {
+                if (!premier) {
+                    sb.append(',');
+                }
+                premier = false;
+                ecrireChaine(String.valueOf(e.getKey()), sb);
+                sb.append(':');
+                ecrire(e.getValue(), sb);
+            }
+            sb.append('}');
+        } else if (valeur instanceof Iterable) {
+            sb.append('[');
+            boolean premier = true;
+            for (Object element : (Iterable<?>) valeur) {
+                if (!premier) {
+                    sb.append(',');
+                }
+                premier = false;
+                ecrire(element, sb);
+            }
+            sb.append(']');
+        } else {
+            ecrireChaine(valeur.toString(), sb);
+        }
+    }
+
+    private static void ecrireChaine(String s, StringBuilder sb) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+}
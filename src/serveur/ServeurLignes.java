@@ -0,0 +1,615 @@
+package serveur;
+
+import utils.MoteurMorphologique.ResultatDecomposition;
+import utils.MoteurMorphologique.ResultatValidation;
+import utils.OrdonnanceurMoteur.Priorite;
+import utils.SystemeMorphologique;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Serveur TCP non bloquant (NIO, Selector) à protocole ligne par ligne, pour les
+ * traitements en masse où l'enveloppe HTTP/JSON coûte plus que l'analyse elle-même.
+ *
+ * Protocole (UTF-8, une requête par ligne terminée par \n, champs séparés par un espace) :
+ *   D <mot>             → OK <racine> <schème>     | NON
+ *   G <racine> <schème> → OK <mot>                 | NON
+ *   V <mot> <racine>    → OK <schème>              | NON
+ *   autre               → ERR <raison>
+ * Une erreur du moteur sur une requête est répondue par ERR ; les requêtes suivantes
+ * de la connexion sont traitées normalement.
+ *
+ * Pipelining : un client peut envoyer autant de lignes qu'il veut sans attendre, et les
+ * réponses sont écrites dans le même ordre. Quand le client ne lit plus (tampon
+ * d'écriture plein), ou qu'il a déjà EN_VOL_MAX requêtes en cours de calcul, la
+ * connexion cesse d'être lue (contre-pression).
+ *
+ * Un thread accepte les connexions et les répartit entre nbBoucles boucles d'événements,
+ * chacune avec son propre Selector ; une connexion reste sur la même boucle. La boucle
+ * ne fait que lire, découper et décoder les lignes : l'appel au moteur part sur
+ * l'exécuteur du moteur (par défaut, la file de lot de l'ordonnanceur du système : ce
+ * protocole sert les traitements en masse), pour qu'une requête lente ne bloque pas les
+ * autres connexions de la boucle. Une file pleine répond ERR serveur surchargé. Chaque requête réserve sa place dans la file de réponses de sa
+ * connexion ; le thread qui l'a calculée y dépose la réponse et réveille la boucle,
+ * qui écrit les réponses terminées en tête de file, donc dans l'ordre des requêtes.
+ */
+public class ServeurLignes implements AutoCloseable {
+
+    /** Longueur maximale d'une requête, en octets */
+    public static final int LIGNE_MAX = 1024;
+
+    /** Nombre maximal de requêtes en cours de calcul par connexion */
+    public static final int EN_VOL_MAX = 1024;
+
+    private static final int TAILLE_LECTURE = 64 * 1024;
+    private static final int TAILLE_ECRITURE = 64 * 1024;
+    private static final int TAILLE_REPONSE_MAX = LIGNE_MAX * 4;
+    private static final byte[] OK = "OK ".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] NON = "NON\n".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] ERR = "ERR ".getBytes(StandardCharsets.UTF_8);
+
+    /** Tampon d'encodage des réponses, un par thread */
+    private static final ThreadLocal<ByteBuffer> TAMPONS_REPONSE =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocate(TAILLE_REPONSE_MAX));
+
+    private final SystemeMorphologique systeme;
+    private final Executor executeurMoteur;
+    private final ServerSocketChannel ecoute;
+    private final Boucle[] boucles;
+    private final Thread accepteur;
+    private volatile boolean actif = true;
+    private final LongAdder nbRequetes = new LongAdder();
+    private final LongAdder nbConnexions = new LongAdder();
+
+    /**
+     * Ouvre le port d'écoute sur l'interface locale (non démarré) ; les appels au moteur
+     * passent par la file de lot de l'ordonnanceur du système
+     * @param port Port d'écoute (0 = port libre)
+     * @param nbBoucles Nombre de boucles d'événements (0 = nombre de processeurs)
+     */
+    public ServeurLignes(SystemeMorphologique systeme, int port, int nbBoucles) throws IOException {
+        this(systeme, port, nbBoucles, systeme.getOrdonnanceur().executeur(Priorite.LOT));
+    }
+
+    /**
+     * Ouvre le port d'écoute sur l'interface locale (non démarré)
+     * @param port Port d'écoute (0 = port libre)
+     * @param nbBoucles Nombre de boucles d'événements (0 = nombre de processeurs)
+     * @param executeurMoteur Exécuteur des appels au moteur ; il n'est pas arrêté par close()
+     */
+    public ServeurLignes(SystemeMorphologique systeme, int port, int nbBoucles, Executor executeurMoteur)
+            throws IOException {
+        this.systeme = systeme;
+        this.executeurMoteur = executeurMoteur;
+        this.ecoute = ServerSocketChannel.open();
+        ecoute.bind(new InetSocketAddress("127.0.0.1", port));
+
+        int n = nbBoucles > 0 ? nbBoucles : Runtime.getRuntime().availableProcessors();
+        this.boucles = new Boucle[n];
+        for (int i = 0; i < n; i++) {
+            boucles[i] = new Boucle(i);
+        }
+        this.accepteur = new Thread(this::accepter, "morpho-nio-accepteur");
+        accepteur.setDaemon(true);
+    }
+
+    public void demarrer() {
+        for (Boucle b : boucles) {
+            b.thread.start();
+        }
+        accepteur.start();
+    }
+
+    /**
+     * Ferme le port d'écoute et toutes les connexions
+     */
+    @Override
+    public void close() {
+        actif = false;
+        try {
+            ecoute.close();   // débloque accept()
+        } catch (IOException e) {
+            // Déjà fermé
+        }
+        for (Boucle b : boucles) {
+            b.selecteur.wakeup();
+        }
+        try {
+            accepteur.join(1000);
+            for (Boucle b : boucles) {
+                b.thread.join(1000);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getPort() {
+        return ecoute.socket().getLocalPort();
+    }
+
+    public long getNbRequetes() {
+        return nbRequetes.sum();
+    }
+
+    public long getNbConnexions() {
+        return nbConnexions.sum();
+    }
+
+    private void accepter() {
+        int suivante = 0;
+        while (actif) {
+            try {
+                SocketChannel client = ecoute.accept();
+                client.configureBlocking(false);
+                client.socket().setTcpNoDelay(true);
+                nbConnexions.increment();
+                boucles[suivante].confier(client);
+                suivante = (suivante + 1) % boucles.length;
+            } catch (IOException e) {
+                if (actif) {
+                    System.err.println("❌ Serveur NIO: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Réponse d'une requête : null tant que le moteur ne l'a pas calculée
+     */
+    private static final class Reponse {
+        volatile byte[] octets;
+    }
+
+    /**
+     * État d'une connexion : tampons directs de lecture et d'écriture, et file des
+     * réponses dans l'ordre des requêtes (manipulée par la seule boucle de la connexion)
+     */
+    private static final class Connexion {
+        final SocketChannel canal;
+        final Boucle boucle;
+        final ByteBuffer lecture = ByteBuffer.allocateDirect(TAILLE_LECTURE);    // mode écriture (on y reçoit)
+        final ByteBuffer ecriture = ByteBuffer.allocateDirect(TAILLE_ECRITURE);  // mode écriture (on y copie)
+        final byte[] ligne = new byte[LIGNE_MAX];
+        final char[] caracteres = new char[LIGNE_MAX];
+        final ArrayDeque<Reponse> enVol = new ArrayDeque<>();
+        final AtomicBoolean signalee = new AtomicBoolean();   // déjà dans la file prets de la boucle
+        SelectionKey cle;
+        boolean fermerApresEcriture;
+
+        Connexion(SocketChannel canal, Boucle boucle) {
+            this.canal = canal;
+            this.boucle = boucle;
+        }
+
+        /**
+         * Appelée par le thread qui a déposé une réponse : réveille la boucle
+         */
+        void signaler() {
+            if (signalee.compareAndSet(false, true)) {
+                boucle.prets.add(this);
+                boucle.selecteur.wakeup();
+            }
+        }
+    }
+
+    /**
+     * Boucle d'événements : un Selector, un thread
+     */
+    private final class Boucle implements Runnable {
+        final Selector selecteur;
+        final Thread thread;
+        final Queue<SocketChannel> nouvelles = new ConcurrentLinkedQueue<>();
+        final Queue<Connexion> prets = new ConcurrentLinkedQueue<>();
+
+        Boucle(int numero) throws IOException {
+            this.selecteur = Selector.open();
+            this.thread = new Thread(this, "morpho-nio-" + numero);
+            thread.setDaemon(true);
+        }
+
+        void confier(SocketChannel client) {
+            nouvelles.add(client);
+            selecteur.wakeup();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (actif) {
+                    selecteur.select();
+                    SocketChannel client;
+                    while ((client = nouvelles.poll()) != null) {
+                        try {
+                            Connexion c = new Connexion(client, this);
+                            c.cle = client.register(selecteur, SelectionKey.OP_READ, c);
+                        } catch (IOException e) {
+                            client.close();   // Fermée par le client avant d'être enregistrée
+                        }
+                    }
+                    Connexion pret;
+                    while ((pret = prets.poll()) != null) {
+                        pret.signalee.set(false);   // Avant de lire les réponses : aucun signal perdu
+                        proteger(pret.cle, false);
+                    }
+                    Iterator<SelectionKey> cles = selecteur.selectedKeys().iterator();
+                    while (cles.hasNext()) {
+                        SelectionKey cle = cles.next();
+                        cles.remove();
+                        proteger(cle, true);
+                    }
+                }
+            } catch (IOException | ClosedSelectorException e) {
+                if (actif) {
+                    System.err.println("❌ Boucle NIO arrêtée: " + e.getMessage());
+                }
+            } finally {
+                for (SelectionKey cle : selecteur.keys()) {
+                    fermer(cle);
+                }
+                try {
+                    selecteur.close();
+                } catch (IOException e) {
+                    // Rien à faire
+                }
+            }
+        }
+
+        /**
+         * @param selectionnee false si la connexion est seulement réveillée par une réponse
+         *                     calculée (ses opérations prêtes datent alors d'une autre sélection)
+         */
+        private void proteger(SelectionKey cle, boolean selectionnee) {
+            if (!cle.isValid()) {
+                return;   // Fermée plus tôt dans ce tour
+            }
+            try {
+                if (selectionnee) {
+                    traiter(cle);
+                } else {
+                    pomper((Connexion) cle.attachment(), cle);
+                }
+            } catch (IOException e) {
+                fermer(cle);
+            } catch (RuntimeException e) {
+                // Seule cette connexion est perdue : la boucle sert les autres
+                System.err.println("❌ Connexion NIO fermée: " + e);
+                fermer(cle);
+            }
+        }
+
+        private void traiter(SelectionKey cle) throws IOException {
+            Connexion c = (Connexion) cle.attachment();
+            if (cle.isWritable() && !vider(c)) {
+                return;   // Le client ne lit toujours pas
+            }
+            if (cle.isReadable() && c.canal.read(c.lecture) < 0) {
+                c.fermerApresEcriture = true;
+                if (c.lecture.position() > 0 && c.lecture.hasRemaining()) {
+                    c.lecture.put((byte) '\n');   // Dernière requête sans fin de ligne
+                }
+            }
+            pomper(c, cle);
+        }
+
+        /**
+         * Lance les lignes reçues et envoie les réponses terminées, tant que c'est
+         * possible. Si le client ne lit plus, on attend OP_WRITE sans lire ; si trop de
+         * requêtes sont en cours de calcul, on cesse de lire jusqu'à ce qu'une réponse
+         * arrive (signaler). En fin de flux, la connexion est fermée une fois la
+         * dernière réponse envoyée.
+         */
+        private void pomper(Connexion c, SelectionKey cle) throws IOException {
+            boolean lignesEnAttente;
+            boolean reponsesEnAttente;
+            do {
+                lignesEnAttente = traiterLignes(c);
+                reponsesEnAttente = transferer(c);
+                if (!vider(c)) {
+                    cle.interestOps(SelectionKey.OP_WRITE);
+                    return;
+                }
+            } while (reponsesEnAttente || (lignesEnAttente && c.enVol.size() < EN_VOL_MAX));
+
+            if (c.fermerApresEcriture) {
+                if (c.enVol.isEmpty() && !lignesEnAttente) {
+                    fermer(cle);
+                } else {
+                    cle.interestOps(0);   // Attendre les dernières réponses
+                }
+            } else {
+                cle.interestOps(lignesEnAttente ? 0 : SelectionKey.OP_READ);
+            }
+        }
+
+        /**
+         * Lance les lignes complètes du tampon de lecture, tant que la connexion a moins
+         * de EN_VOL_MAX requêtes en cours
+         * @return true si des lignes complètes attendent encore
+         */
+        private boolean traiterLignes(Connexion c) {
+            ByteBuffer l = c.lecture;
+            l.flip();
+            int debut = l.position();
+            boolean reste = false;
+            for (int i = debut; i < l.limit(); i++) {
+                if (l.get(i) != '\n') {
+                    continue;
+                }
+                if (c.enVol.size() >= EN_VOL_MAX) {
+                    reste = true;
+                    break;
+                }
+                int longueur = i - debut;
+                if (longueur > 0 && l.get(i - 1) == '\r') {
+                    longueur--;
+                }
+                if (longueur > LIGNE_MAX) {
+                    repondreTout(c, erreur("ligne trop longue"));
+                } else {
+                    l.position(debut);
+                    l.get(c.ligne, 0, longueur);
+                    lancer(c, longueur);
+                }
+                debut = i + 1;
+            }
+            l.position(debut);
+            l.compact();
+
+            if (!reste && l.position() == l.capacity()) {
+                // Aucune fin de ligne dans un tampon plein : requête démesurée
+                repondreTout(c, erreur("ligne trop longue"));
+                c.fermerApresEcriture = true;
+                l.clear();
+            }
+            return reste;
+        }
+
+        /**
+         * Copie les réponses terminées en tête de file dans le tampon d'écriture
+         * @return true si une réponse terminée n'a pas trouvé de place
+         */
+        private boolean transferer(Connexion c) {
+            Reponse tete;
+            while ((tete = c.enVol.peek()) != null) {
+                byte[] octets = tete.octets;
+                if (octets == null) {
+                    return false;   // Pas encore calculée : les suivantes attendent leur tour
+                }
+                if (c.ecriture.remaining() < octets.length) {
+                    return true;
+                }
+                c.ecriture.put(octets);
+                c.enVol.poll();
+            }
+            return false;
+        }
+
+        /**
+         * @return true si le tampon d'écriture a été entièrement envoyé
+         */
+        private boolean vider(Connexion c) throws IOException {
+            ByteBuffer e = c.ecriture;
+            if (e.position() == 0) {
+                return true;
+            }
+            e.flip();
+            c.canal.write(e);
+            boolean vide = !e.hasRemaining();
+            e.compact();
+            return vide;
+        }
+
+        private void fermer(SelectionKey cle) {
+            cle.cancel();
+            try {
+                cle.channel().close();
+            } catch (IOException e) {
+                // Déjà fermé
+            }
+        }
+    }
+
+    /**
+     * Réserve une place déjà remplie dans la file de réponses
+     */
+    private static void repondreTout(Connexion c, byte[] octets) {
+        Reponse r = new Reponse();
+        r.octets = octets;
+        c.enVol.add(r);
+    }
+
+    /**
+     * Décode une requête sur la boucle, puis confie l'appel au moteur à l'exécuteur ;
+     * les requêtes mal formées sont répondues tout de suite. Si le moteur échoue, la
+     * ligne reçoit ERR, sans interrompre la connexion ni la boucle.
+     */
+    private void lancer(Connexion c, int longueur) {
+        nbRequetes.increment();
+        int n = decoderUtf8(c.ligne, longueur, c.caracteres);
+        if (n < 3 || c.caracteres[1] != ' ') {
+            repondreTout(c, erreur("requête invalide"));
+            return;
+        }
+        char commande = c.caracteres[0];
+        int espace = indexEspace(c.caracteres, 2, n);
+        String premier;
+        String second = null;
+        switch (commande) {
+            case 'D':
+                premier = new String(c.caracteres, 2, n - 2);
+                break;
+            case 'G':
+            case 'V':
+                if (espace < 0) {
+                    repondreTout(c, erreur(commande == 'G' ? "G <racine> <schème>" : "V <mot> <racine>"));
+                    return;
+                }
+                premier = new String(c.caracteres, 2, espace - 2);
+                second = new String(c.caracteres, espace + 1, n - espace - 1);
+                break;
+            default:
+                repondreTout(c, erreur("commande inconnue"));
+                return;
+        }
+
+        Reponse reponse = new Reponse();
+        c.enVol.add(reponse);
+        String a = premier;
+        String b = second;
+        try {
+            executeurMoteur.execute(() -> {
+                byte[] octets;
+                try {
+                    octets = interpreter(commande, a, b);
+                } catch (RuntimeException e) {
+                    octets = erreur("erreur interne (" + e.getClass().getSimpleName() + ")");
+                }
+                reponse.octets = octets;
+                c.signaler();
+            });
+        } catch (RejectedExecutionException e) {
+            reponse.octets = erreur("serveur surchargé");
+        }
+    }
+
+    /**
+     * Interroge le moteur et encode la réponse (thread de l'exécuteur)
+     */
+    private byte[] interpreter(char commande, String premier, String second) {
+        ByteBuffer sortie = TAMPONS_REPONSE.get();
+        sortie.clear();
+        switch (commande) {
+            case 'D': {
+                ResultatDecomposition r = systeme.decomposer(premier);
+                if (!r.estSucces()) {
+                    return NON;
+                }
+                sortie.put(OK);
+                encoderUtf8(r.getRacine(), sortie);
+                sortie.put((byte) ' ');
+                encoderUtf8(r.getScheme(), sortie);
+                break;
+            }
+            case 'G': {
+                String mot = systeme.generer(premier, second);
+                if (mot == null) {
+                    return NON;
+                }
+                sortie.put(OK);
+                encoderUtf8(mot, sortie);
+                break;
+            }
+            default: {
+                ResultatValidation r = systeme.valider(premier, second);
+                if (!r.estValide()) {
+                    return NON;
+                }
+                sortie.put(OK);
+                encoderUtf8(r.getScheme(), sortie);
+            }
+        }
+        sortie.put((byte) '\n');
+        return Arrays.copyOf(sortie.array(), sortie.position());
+    }
+
+    private static int indexEspace(char[] caracteres, int de, int a) {
+        for (int i = de; i < a; i++) {
+            if (caracteres[i] == ' ') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static byte[] erreur(String raison) {
+        ByteBuffer sortie = TAMPONS_REPONSE.get();
+        sortie.clear();
+        sortie.put(ERR);
+        encoderUtf8(raison, sortie);
+        sortie.put((byte) '\n');
+        return Arrays.copyOf(sortie.array(), sortie.position());
+    }
+
+    /**
+     * Encode une chaîne en UTF-8 directement dans le tampon (les ruptures de paires
+     * de substitution deviennent '?')
+     */
+    static void encoderUtf8(String s, ByteBuffer sortie) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                sortie.put((byte) c);
+            } else if (c < 0x800) {
+                sortie.put((byte) (0xC0 | (c >> 6)));
+                sortie.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int p = Character.toCodePoint(c, s.charAt(++i));
+                sortie.put((byte) (0xF0 | (p >> 18)));
+                sortie.put((byte) (0x80 | ((p >> 12) & 0x3F)));
+                sortie.put((byte) (0x80 | ((p >> 6) & 0x3F)));
+                sortie.put((byte) (0x80 | (p & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                sortie.put((byte) '?');
+            } else {
+                sortie.put((byte) (0xE0 | (c >> 12)));
+                sortie.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                sortie.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+
+    /**
+     * Décode une ligne UTF-8 (séquences invalides → U+FFFD) ; les caractères hors du
+     * plan multilingue de base (séquences de 4 octets) deviennent une paire de substitution
+     * @return Le nombre de caractères écrits
+     */
+    static int decoderUtf8(byte[] octets, int longueur, char[] sortie) {
+        int n = 0;
+        int i = 0;
+        while (i < longueur && n < sortie.length) {
+            int b = octets[i] & 0xFF;
+            if (b < 0x80) {
+                sortie[n++] = (char) b;
+                i++;
+            } else if ((b & 0xE0) == 0xC0 && i + 1 < longueur) {
+                sortie[n++] = (char) (((b & 0x1F) << 6) | (octets[i + 1] & 0x3F));
+                i += 2;
+            } else if ((b & 0xF0) == 0xE0 && i + 2 < longueur) {
+                sortie[n++] = (char) (((b & 0x0F) << 12) | ((octets[i + 1] & 0x3F) << 6) | (octets[i + 2] & 0x3F));
+                i += 3;
+            } else if ((b & 0xF8) == 0xF0 && i + 3 < longueur && n + 1 < sortie.length) {
+                int p = ((b & 0x07) << 18) | ((octets[i + 1] & 0x3F) << 12)
+                        | ((octets[i + 2] & 0x3F) << 6) | (octets[i + 3] & 0x3F);
+                if (p >= Character.MIN_SUPPLEMENTARY_CODE_POINT && p <= Character.MAX_CODE_POINT) {
+                    sortie[n++] = Character.highSurrogate(p);
+                    sortie[n++] = Character.lowSurrogate(p);
+                } else {
+                    sortie[n++] = '\uFFFD';
+                }
+                i += 4;
+            } else {
+                sortie[n++] = '\uFFFD';
+                i++;
+            }
+        }
+        return n;
+    }
+}
@@ -0,0 +1,375 @@
+package serveur;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import utils.MoteurMorphologique.Budget;
+import utils.MoteurMorphologique.ResultatDecomposition;
+import utils.MoteurMorphologique.ResultatValidation;
+import utils.OrdonnanceurMoteur.Priorite;
+import utils.SystemeMorphologique;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Service HTTP/JSON local exposant le moteur morphologique (com.sun.net.httpserver, sans dépendance).
+ *
+ * Points d'accès (réponses JSON, UTF-8) :
+ *   GET  /generer?racine=كتب&scheme=فاعل   → {"racine","scheme","mot"}
+ *   GET  /valider?mot=كاتب&racine=كتب      → {"mot","racine","valide","scheme","message"}
+ *   GET  /decomposer?mot=والكاتبون          → {"mot","succes","racine","scheme","segmentation","message","tronque",
+ *                                              "tigesEcartees"}
+ *        paramètre facultatif budgetMs : au-delà, réponse marquée "tronque": true au lieu d'attendre,
+ *        avec ce qui était établi : "succes": true pour le meilleur candidat trouvé parmi les
+ *        tiges restantes (une tige mieux classée n'a pas été examinée jusqu'au bout), et dans
+ *        tous les cas "tigesEcartees", les tiges déjà examinées sans succès
+ *   GET  /sante                             → {"statut","requetes","decompositionsEconomisees"}
+ *   POST /lot/generer, /lot/valider, /lot/decomposer : un tableau JSON d'objets portant les
+ *        mêmes champs que les paramètres ci-dessus ; la réponse est le tableau des résultats,
+ *        dans le même ordre. Une erreur sur un élément n'interrompt pas le lot. Un corps de plus
+ *        de TAILLE_CORPS_MAX octets ou trop imbriqué est refusé (400) sans être analysé.
+ *
+ * Chaque requête s'exécute dans son propre thread virtuel quand la JVM en dispose (Java 21+) ;
+ * sinon, dans un pool de threads plateforme créés à la demande. Les calculs passent par
+ * l'ordonnanceur du système (SystemeMorphologique.executer) : requêtes unitaires dans la
+ * file interactive, lots dans la file de lot par tranches de ELEMENTS_PAR_TACHE éléments.
+ * Une file pleine donne 503 (des éléments en erreur pour un lot).
+ */
+public class ServeurMorphologique {
+
+    /** Nombre maximal d'éléments dans une requête de lot */
+    public static final int TAILLE_LOT_MAX = 10_000;
+
+    /** Taille maximale (octets) du corps d'une requête de lot, vérifiée avant l'analyse JSON */
+    public static final int TAILLE_CORPS_MAX = 4 << 20;
+
+    /**
+     * Éléments de lot traités par tâche de l'ordonnanceur : une requête interactive attend
+     * au plus une tranche, et le passage de main n'est pas payé à chaque élément
+     */
+    public static final int ELEMENTS_PAR_TACHE = 32;
+
+    private final SystemeMorphologique systeme;
+    private final HttpServer serveur;
+    private final ExecutorService executeur;
+    private final LongAdder nbRequetes = new LongAdder();
+    private final LongAdder nbErreurs = new LongAdder();
+
+    /**
+     * Crée le serveur (non démarré)
+     * @param port Le port d'écoute sur l'interface locale (0 = port libre choisi par le système)
+     */
+    public ServeurMorphologique(SystemeMorphologique systeme, int port) throws IOException {
+        // En-têtes et corps partent en deux écritures : sans TCP_NODELAY, Nagle et l'ACK
+        // retardé ajoutent ~40 ms à chaque réponse. Lu une fois, au premier serveur créé.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        this.systeme = systeme;
+        this.serveur = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        this.executeur = creerExecuteurParTache();
+        serveur.setExecutor(executeur);
+
+        serveur.createContext("/generer", e -> repondre(e, false, ordonnee(Priorite.INTERACTIVE, this::generer)));
+        serveur.createContext("/valider", e -> repondre(e, false, ordonnee(Priorite.INTERACTIVE, this::valider)));
+        serveur.createContext("/decomposer", e -> repondre(e, false, ordonnee(Priorite.INTERACTIVE, this::decomposer)));
+        serveur.createContext("/lot/generer", e -> repondre(e, true, this::generer));
+        serveur.createContext("/lot/valider", e -> repondre(e, true, this::valider));
+        serveur.createContext("/lot/decomposer", e -> repondre(e, true, this::decomposer));
+        serveur.createContext("/sante", e -> repondre(e, false, p -> sante()));
+    }
+
+    /**
+     * Un thread virtuel par tâche si disponible (Executors.newVirtualThreadPerTaskExecutor,
+     * Java 21+), sinon un pool de threads créés à la demande
+     */
+    public static ExecutorService creerExecuteurParTache() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "morpho-http");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    public void demarrer() {
+        serveur.start();
+    }
+
+    /**
+     * Arrête le serveur en laissant au plus delaiSecondes aux requêtes en cours
+     */
+    public void arreter(int delaiSecondes) {
+        serveur.stop(delaiSecondes);
+        executeur.shutdown();
+        try {
+            executeur.awaitTermination(delaiSecondes, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Port effectif (utile quand le serveur a été créé avec le port 0)
+     */
+    public int getPort() {
+        return serveur.getAddress().getPort();
+    }
+
+    public long getNbRequetes() {
+        return nbRequetes.sum();
+    }
+
+    public long getNbErreurs() {
+        return nbErreurs.sum();
+    }
+
+    /**
+     * @return true si les threads de requête sont virtuels
+     */
+    public boolean utiliseThreadsVirtuels() {
+        return !(executeur instanceof java.util.concurrent.ThreadPoolExecutor);
+    }
+
+    // ───────────────────────── Opérations ─────────────────────────
+
+    /**
+     * L'opération passe par l'ordonnanceur du système, dans la classe donnée (les lots sont
+     * ordonnancés par tranches, voir traiterLot)
+     */
+    private Function<Map<String, String>, Map<String, Object>> ordonnee(
+            Priorite priorite, Function<Map<String, String>, Map<String, Object>> operation) {
+        return p -> systeme.executer(priorite, () -> operation.apply(p));
+    }
+
+    private Map<String, Object> generer(Map<String, String> p) {
+        String racine = exiger(p, "racine");
+        String scheme = exiger(p, "scheme");
+        String mot = systeme.generer(racine, scheme);
+        if (mot == null) {
+            String raison = systeme.expliquerEchecGeneration(racine, scheme);
+            throw new IllegalArgumentException("Génération impossible: "
+                    + (raison != null ? raison : "racine ou schème modifié pendant la requête"));
+        }
+        Map<String, Object> r = new LinkedHashMap<>();
+        r.put("racine", racine);
+        r.put("scheme", scheme);
+        r.put("mot", mot);
+        return r;
+    }
+
+    private Map<String, Object> valider(Map<String, String> p) {
+        String mot = exiger(p, "mot");
+        String racine = exiger(p, "racine");
+        ResultatValidation resultat = systeme.valider(mot, racine);
+        Map<String, Object> r = new LinkedHashMap<>();
+        r.put("mot", mot);
+        r.put("racine", racine);
+        r.put("valide", resultat.estValide());
+        r.put("scheme", resultat.getScheme());
+        r.put("message", resultat.getMessage());
+        return r;
+    }
+
+    private Map<String, Object> decomposer(Map<String, String> p) {
+        String mot = exiger(p, "mot");
+        String budgetMs = p.get("budgetMs");
+        ResultatDecomposition resultat = budgetMs == null ? systeme.decomposer(mot)
+                : systeme.decomposer(mot, Budget.duree(lireBudgetNs(budgetMs)));
+        Map<String, Object> r = new LinkedHashMap<>();
+        r.put("mot", mot);
+        r.put("succes", resultat.estSucces());
+        r.put("racine", resultat.getRacine());
+        r.put("scheme", resultat.getScheme());
+        r.put("segmentation", resultat.getSegmentation() == null ? null : resultat.getSegmentation().toString());
+        r.put("message", resultat.getMessage());
+        r.put("tronque", resultat.estTronque());
+        r.put("tigesEcartees", resultat.getTigesEcartees());
+        return r;
+    }
+
+    /**
+     * @return Le budget en nanosecondes
+     * @throws IllegalArgumentException si budgetMs n'est pas un entier positif convertible
+     *         en nanosecondes sans dépasser un long
+     */
+    private static long lireBudgetNs(String valeur) {
+        try {
+            long ms = Long.parseLong(valeur.trim());
+            if (ms > 0) {
+                return Math.multiplyExact(ms, 1_000_000L);
+            }
+        } catch (NumberFormatException | ArithmeticException e) {
+            // Signalé ci-dessous
+        }
+        throw new IllegalArgumentException("budgetMs doit être un entier entre 1 et "
+                + Long.MAX_VALUE / 1_000_000L + ": " + valeur);
+    }
+
+    private Map<String, Object> sante() {
+        Map<String, Object> r = new LinkedHashMap<>();
+        r.put("statut", "ok");
+        r.put("requetes", nbRequetes.sum());
+        r.put("decompositionsEconomisees", systeme.getNbDecompositionsEconomisees());
+        return r;
+    }
+
+    private static String exiger(Map<String, String> parametres, String nom) {
+        String valeur = parametres.get(nom);
+        if (valeur == null || valeur.trim().isEmpty()) {
+            throw new IllegalArgumentException("Paramètre manquant: " + nom);
+        }
+        return valeur.trim();
+    }
+
+    // ───────────────────────── Protocole ─────────────────────────
+
+    /**
+     * Traite une requête simple (GET, paramètres dans l'URL) ou de lot (POST, tableau JSON)
+     */
+    private void repondre(HttpExchange echange, boolean lot,
+                          Function<Map<String, String>, Map<String, Object>> operation) throws IOException {
+        nbRequetes.increment();
+        int statut = 200;
+        Object corps;
+        try {
+            if (lot) {
+                if (!"POST".equals(echange.getRequestMethod())) {
+                    statut = 405;
+                    corps = erreur("Méthode non autorisée (POST attendu)");
+                } else {
+                    corps = traiterLot(lireCorps(echange.getRequestBody()), operation);
+                }
+            } else if (!"GET".equals(echange.getRequestMethod())) {
+                statut = 405;
+                corps = erreur("Méthode non autorisée (GET attendu)");
+            } else {
+                corps = operation.apply(lireParametres(echange.getRequestURI().getRawQuery()));
+            }
+        } catch (IllegalArgumentException e) {
+            statut = 400;
+            corps = erreur(e.getMessage());
+        } catch (RejectedExecutionException e) {
+            statut = 503;
+            corps = erreur("Serveur surchargé: " + e.getMessage());
+        } catch (RuntimeException e) {
+            statut = 500;
+            corps = erreur("Erreur interne: " + e);
+        }
+        if (statut != 200) {
+            nbErreurs.increment();
+        }
+
+        byte[] octets = Json.ecrire(corps).getBytes(StandardCharsets.UTF_8);
+        echange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        echange.sendResponseHeaders(statut, octets.length);
+        try (OutputStream sortie = echange.getResponseBody()) {
+            sortie.write(octets);
+        }
+    }
+
+    private List<Object> traiterLot(String corps,
+                                    Function<Map<String, String>, Map<String, Object>> operation) {
+        Object document = Json.lire(corps);
+        if (!(document instanceof List)) {
+            throw new IllegalArgumentException("Tableau JSON attendu");
+        }
+        List<?> elements = (List<?>) document;
+        if (elements.size() > TAILLE_LOT_MAX) {
+            throw new IllegalArgumentException("Lot trop grand (" + elements.size() + " > " + TAILLE_LOT_MAX + ")");
+        }
+
+        List<Object> resultats = new ArrayList<>(elements.size());
+        for (int debut = 0; debut < elements.size(); debut += ELEMENTS_PAR_TACHE) {
+            List<?> tranche = elements.subList(debut, Math.min(elements.size(), debut + ELEMENTS_PAR_TACHE));
+            try {
+                resultats.addAll(systeme.executer(Priorite.LOT, () -> traiterTranche(tranche, operation)));
+            } catch (RejectedExecutionException e) {
+                for (int i = 0; i < tranche.size(); i++) {
+                    nbErreurs.increment();
+                    resultats.add(erreur("Serveur surchargé: " + e.getMessage()));
+                }
+            }
+        }
+        return resultats;
+    }
+
+    private List<Object> traiterTranche(List<?> tranche,
+                                        Function<Map<String, String>, Map<String, Object>> operation) {
+        List<Object> resultats = new ArrayList<>(tranche.size());
+        for (Object element : tranche) {
+            try {
+                if (!(element instanceof Map)) {
+                    throw new IllegalArgumentException("Objet JSON attendu");
+                }
+                Map<String, String> parametres = new HashMap<>();
+                for (Map.Entry<?, ?> e : ((Map<?, ?>) element).entrySet()) {
+                    if (e.getValue() != null) {
+                        parametres.put(String.valueOf(e.getKey()), String.valueOf(e.getValue()));
+                    }
+                }
+                resultats.add(operation.apply(parametres));
+            } catch (IllegalArgumentException e) {
+                resultats.add(erreur(e.getMessage()));
+            } catch (RuntimeException e) {
+                // Une panne sur un élément n'interrompt pas le lot : l'erreur prend sa place
+                nbErreurs.increment();
+                resultats.add(erreur("Erreur interne: " + e));
+            }
+        }
+        return resultats;
+    }
+
+    private static Map<String, Object> erreur(String message) {
+        Map<String, Object> r = new LinkedHashMap<>();
+        r.put("erreur", message);
+        return r;
+    }
+
+    private static Map<String, String> lireParametres(String requete) {
+        Map<String, String> parametres = new HashMap<>();
+        if (requete == null) {
+            return parametres;
+        }
+        for (String paire : requete.split("&")) {
+            int egal = paire.indexOf('=');
+            if (egal > 0) {
+                parametres.put(URLDecoder.decode(paire.substring(0, egal), StandardCharsets.UTF_8),
+                        URLDecoder.decode(paire.substring(egal + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return parametres;
+    }
+
+    /**
+     * Lit le corps d'une requête, au plus TAILLE_CORPS_MAX octets
+     * @throws IllegalArgumentException si le corps dépasse la limite
+     */
+    private static String lireCorps(InputStream entree) throws IOException {
+        try (InputStream e = entree) {
+            byte[] octets = e.readNBytes(TAILLE_CORPS_MAX + 1);
+            if (octets.length > TAILLE_CORPS_MAX) {
+                throw new IllegalArgumentException("Corps trop grand (> " + TAILLE_CORPS_MAX + " octets)");
+            }
+            return new String(octets, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -1,25 +1,61 @@
 package structures;
 
+import models.AlphabetArabe;
+import models.Normaliseur;
 import models.RacineNode;
+import models.RacineNode.Frequence;
 import models.RacineNode.MotDerive;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Implémentation d'un arbre AVL pour stocker et gérer les racines arabes.
  * L'arbre AVL garantit un équilibrage automatique pour maintenir une complexité O(log n).
  * nfasrou choix b exemple mretbin fard line w still ABR search n vs AVL search log(n)
+ *
+ * Accès concurrents : les lectures (recherche, parcours) prennent le verrou de lecture,
+ * les modifications de structure (insertion, suppression) le verrou d'écriture, le temps
+ * d'une seule opération. Un rechargement peut ainsi appliquer ses modifications une par
+ * une pendant que les lecteurs continuent d'être servis entre deux opérations.
+ * L'observateur est notifié sous le verrou de la modification : verrou d'écriture pour
+ * inserer et supprimer, verrou de lecture pour ajouterMotDerive et incrementerFrequence
+ * (qui ne touchent qu'un nœud). Qui tient le verrou d'écriture (getVerrouModifications)
+ * voit donc un arbre dont toutes les modifications ont déjà été notifiées. Une fois le
+ * verrou relâché, l'observateur notifié reçoit modificationTerminee (attente éventuelle
+ * de la durabilité hors verrou).
  */
-public class ABR {
-    private RacineNode rootAVL;
-    private int taille;
+public class ABR implements DictionnaireRacines {
+    private volatile RacineNode rootAVL;
+    private volatile int taille;
+    private final RegistreIdentifiants<RacineNode> identifiants;  // id dense → nœud
+    private ObservateurDictionnaire observateur;                   // null si aucun (ex: pas de journal)
+    private final ReentrantReadWriteLock verrou = new ReentrantReadWriteLock();
+    private final Normaliseur normaliseur;                         // appliqué à l'insertion et à la recherche
 
     /**
-     * Constructeur d'un arbre vide
+     * Constructeur d'un arbre vide. La normalisation est celle de tout le système
+     * (Normaliseur.getDefaut(), réglée par la propriété morpho.normalisation) : les schèmes,
+     * le moteur et les chargeurs l'appliquent aussi, une normalisation propre à l'arbre
+     * rendrait ses racines introuvables pour eux.
      */
     public ABR() {
+        this(Normaliseur.getDefaut(), new RegistreIdentifiants<>());
+    }
+
+    /**
+     * Constructeur d'un arbre vide partageant son registre d'ids avec d'autres arbres
+     * (fragments de DictionnaireFragmente : les ids restent uniques et denses)
+     */
+    ABR(Normaliseur normaliseur, RegistreIdentifiants<RacineNode> identifiants) {
         this.rootAVL = null;
         this.taille = 0;
+        this.identifiants = identifiants;
+        this.normaliseur = normaliseur;
     }
 
     /**
@@ -121,32 +157,87 @@ public class ABR {
     
     
     /**
-     * Insère une racine dans l'arbre AVL
+     * Insère une racine dans l'arbre AVL (si elle existe déjà, sa fréquence est incrémentée)
      * Complexité: O(log n)
+     * @return true si le nœud a été créé, décidé sous le verrou d'écriture
      */
-    public void inserer(String racine) {
+    public boolean inserer(String racine) {
         if (racine == null || racine.trim().isEmpty()) {
             throw new IllegalArgumentException("La racine ne peut pas être vide");
         }
-        this.rootAVL = insererRecursif(this.rootAVL, racine.trim());
+        String r = normaliseur.normaliser(racine.trim());
+        if (r.isEmpty()) {
+            throw new IllegalArgumentException("La racine ne peut pas être vide");
+        }
+        ObservateurDictionnaire notifie = null;
+        verrou.writeLock().lock();
+        try {
+            int avant = taille;
+            this.rootAVL = insererRecursif(this.rootAVL, AlphabetArabe.coder(r), r);
+            if (observateur != null) {
+                notifie = observateur;
+                notifie.racineInseree(r);
+            }
+            return taille > avant;
+        } finally {
+            verrou.writeLock().unlock();
+            terminer(notifie);
+        }
+    }
+
+    /**
+     * Appelé verrou relâché, après une modification notifiée à cet observateur
+     */
+    private static void terminer(ObservateurDictionnaire notifie) {
+        if (notifie != null) {
+            notifie.modificationTerminee();
+        }
+    }
+
+    /**
+     * Installe (ou retire, avec null) l'observateur des modifications. Pour qu'aucune
+     * modification en cours ne le notifie encore après le retrait, appeler sous
+     * getVerrouModifications (voir Journal.close).
+     */
+    public void setObservateur(ObservateurDictionnaire observateur) {
+        this.observateur = observateur;
+    }
+
+    public ObservateurDictionnaire getObservateur() {
+        return observateur;
+    }
+
+    /**
+     * Verrou d'écriture de l'arbre : tant qu'il est tenu, aucune modification n'est en cours
+     * ni en attente de notification (ex: compaction du journal). Ne pas le prendre depuis
+     * l'observateur.
+     */
+    public Lock getVerrouModifications() {
+        return verrou.writeLock();
+    }
+
+    public Normaliseur getNormaliseur() {
+        return normaliseur;
     }
 
     /**
      * Méthode récursive d'insertion
      */
-    private RacineNode insererRecursif(RacineNode noeud, String racine) {
+    private RacineNode insererRecursif(RacineNode noeud, long code, String racine) {
         // Insertion standard dans un ABR
         if (noeud == null) {
             taille++;
-            return new RacineNode(racine);
+            RacineNode nouveau = new RacineNode(racine);
+            nouveau.setId(identifiants.attribuer(nouveau));
+            return nouveau;
         }
 
-        int comparaison = racine.compareTo(noeud.getRacine());
+        int comparaison = noeud.comparer(code, racine);
 
         if (comparaison < 0) {
-            noeud.setGauche(insererRecursif(noeud.getGauche(), racine));
+            noeud.setGauche(insererRecursif(noeud.getGauche(), code, racine));
         } else if (comparaison > 0) {
-            noeud.setDroit(insererRecursif(noeud.getDroit(), racine));
+            noeud.setDroit(insererRecursif(noeud.getDroit(), code, racine));
         } else {
             // La racine existe déjà, on incrémente sa fréquence
             noeud.incrementerFrequence();
@@ -157,6 +248,141 @@ public class ABR {
         return equilibrer(noeud);
     }
 
+    /**
+     * Insère un lot de racines en une fois.
+     * Si l'arbre est vide, le lot est trié puis l'arbre est construit directement
+     * équilibré (O(n log n) pour le tri, O(n) pour la construction, aucune rotation) ;
+     * les doublons du lot deviennent la fréquence de la racine, comme avec inserer.
+     * Sinon, les racines sont insérées une par une.
+     * @param racines Racines déjà nettoyées (sans espaces)
+     */
+    public void insererEnMasse(List<String> racines) {
+        Map<String, int[]> occurrences = new HashMap<>();
+        for (String racine : racines) {
+            String r = (racine == null) ? null : normaliseur.normaliser(racine);
+            if (r != null && !r.isEmpty()) {
+                occurrences.computeIfAbsent(r, k -> new int[1])[0]++;
+            }
+        }
+        insererEnMasse(occurrences);
+    }
+
+    /**
+     * Insère un lot de racines déjà comptées (racine → nombre d'occurrences)
+     * @see #insererEnMasse(List)
+     */
+    public void insererEnMasse(Map<String, int[]> occurrences) {
+        occurrences = normaliserCles(occurrences);
+        List<RacineNode> noeuds = null;
+        ObservateurDictionnaire notifie = null;
+        verrou.writeLock().lock();
+        try {
+            if (estVide()) {
+                List<String> uniques = new ArrayList<>(occurrences.keySet());
+                Collections.sort(uniques);
+                noeuds = new ArrayList<>(uniques.size());
+                for (String racine : uniques) {
+                    RacineNode noeud = new RacineNode(racine);
+                    noeud.setFrequence(occurrences.get(racine)[0]);
+                    noeuds.add(noeud);
+                }
+                int premier = identifiants.attribuerTous(noeuds);
+                for (int i = 0; i < noeuds.size(); i++) {
+                    noeuds.get(i).setId(premier + i);
+                }
+
+                this.rootAVL = construireEquilibre(noeuds, 0, noeuds.size() - 1);
+                this.taille = noeuds.size();
+
+                if (observateur != null) {
+                    notifie = observateur;
+                    for (RacineNode noeud : noeuds) {
+                        for (long i = 0; i < noeud.getFrequence(); i++) {
+                            notifie.racineInseree(noeud.getRacine());
+                        }
+                    }
+                }
+            }
+        } finally {
+            verrou.writeLock().unlock();
+            terminer(notifie);
+        }
+
+        if (noeuds == null) {
+            for (Map.Entry<String, int[]> e : occurrences.entrySet()) {
+                for (int i = 0; i < e.getValue()[0]; i++) {
+                    inserer(e.getKey());
+                }
+            }
+        }
+    }
+
+    /**
+     * Normalise les clés d'un lot compté ; le lot est retourné tel quel s'il l'est déjà
+     */
+    private Map<String, int[]> normaliserCles(Map<String, int[]> occurrences) {
+        boolean dejaNormalise = true;
+        for (String racine : occurrences.keySet()) {
+            if (normaliseur.normaliser(racine) != racine) {
+                dejaNormalise = false;
+                break;
+            }
+        }
+        if (dejaNormalise) {
+            return occurrences;
+        }
+
+        Map<String, int[]> normalisees = new HashMap<>();
+        for (Map.Entry<String, int[]> e : occurrences.entrySet()) {
+            String r = normaliseur.normaliser(e.getKey());
+            if (!r.isEmpty()) {
+                normalisees.computeIfAbsent(r, k -> new int[1])[0] += e.getValue()[0];
+            }
+        }
+        return normalisees;
+    }
+
+    /**
+     * Restaure un arbre vide à partir de nœuds complets (fréquence, dérivés, id),
+     * fournis dans l'ordre alphabétique. Les ids des nœuds sont conservés.
+     * Utilisé par le chargement d'un instantané binaire.
+     */
+    public void restaurer(List<RacineNode> noeudsTries) {
+        verrou.writeLock().lock();
+        try {
+            if (!estVide()) {
+                throw new IllegalStateException("La restauration exige un arbre vide");
+            }
+            for (RacineNode noeud : noeudsTries) {
+                if (noeud.getId() >= 0) {
+                    identifiants.reserver(noeud.getId(), noeud);
+                } else {
+                    noeud.setId(identifiants.attribuer(noeud));
+                }
+            }
+            this.rootAVL = construireEquilibre(noeudsTries, 0, noeudsTries.size() - 1);
+            this.taille = noeudsTries.size();
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Construit un sous-arbre équilibré à partir de la tranche triée [debut, fin]
+     */
+    private RacineNode construireEquilibre(List<RacineNode> noeuds, int debut, int fin) {
+        if (debut > fin) {
+            return null;
+        }
+        int milieu = (debut + fin) >>> 1;
+
+        RacineNode noeud = noeuds.get(milieu);
+        noeud.setGauche(construireEquilibre(noeuds, debut, milieu - 1));
+        noeud.setDroit(construireEquilibre(noeuds, milieu + 1, fin));
+        mettreAJourHauteur(noeud);
+        return noeud;
+    }
+
     /**
      * Recherche une racine dans l'arbre
      * Complexité: O(log n)
@@ -166,24 +392,132 @@ public class ABR {
         if (racine == null || racine.trim().isEmpty()) {
             return null;
         }
-        return rechercherRecursif(this.rootAVL, racine.trim());
+        verrou.readLock().lock();
+        try {
+            return rechercherSansVerrou(racine);
+        } finally {
+            verrou.readLock().unlock();
+        }
     }
 
     /**
-     * Méthode récursive de recherche
+     * Recherche sous un verrou déjà tenu par l'appelant
      */
-    private RacineNode rechercherRecursif(RacineNode noeud, String racine) {
-        // Cas de base: nœud null ou racine trouvée
-        if (noeud == null || noeud.getRacine().equals(racine)) {
-            return noeud;
+    private RacineNode rechercherSansVerrou(String racine) {
+        if (racine == null || racine.trim().isEmpty()) {
+            return null;
+        }
+        String r = normaliseur.normaliser(racine.trim());
+        return rechercherRecursif(this.rootAVL, AlphabetArabe.coder(r), r);
+    }
+
+    /**
+     * Supprime une racine (et ses dérivés) de l'arbre AVL ; son id est libéré
+     * Complexité: O(log n)
+     * @return false si la racine n'existe pas
+     */
+    public boolean supprimer(String racine) {
+        return supprimerEtIdentifier(racine) >= 0;
+    }
+
+    /**
+     * Supprime une racine comme supprimer, en retournant l'id qu'elle portait : lu sous le
+     * même verrou que la suppression, il désigne bien la racine supprimée même si un autre
+     * thread la réinsère aussitôt (avec un autre id)
+     * @return L'id de la racine supprimée, ou -1 si elle n'existe pas
+     */
+    public int supprimerEtIdentifier(String racine) {
+        if (racine == null || racine.trim().isEmpty()) {
+            return -1;
+        }
+        String r = normaliseur.normaliser(racine.trim());
+        ObservateurDictionnaire notifie = null;
+        verrou.writeLock().lock();
+        try {
+            long code = AlphabetArabe.coder(r);
+            RacineNode noeud = rechercherRecursif(this.rootAVL, code, r);
+            if (noeud == null) {
+                return -1;
+            }
+            this.rootAVL = supprimerRecursif(this.rootAVL, code, r);
+            taille--;
+            identifiants.liberer(noeud.getId());
+            if (observateur != null) {
+                notifie = observateur;
+                notifie.racineSupprimee(r);
+            }
+            return noeud.getId();
+        } finally {
+            verrou.writeLock().unlock();
+            terminer(notifie);
+        }
+    }
+
+    /**
+     * Méthode récursive de suppression
+     */
+    private RacineNode supprimerRecursif(RacineNode noeud, long code, String racine) {
+        if (noeud == null) {
+            return null;
         }
 
-        // Recherche dans le sous-arbre approprié
-        int comparaison = racine.compareTo(noeud.getRacine());
+        int comparaison = noeud.comparer(code, racine);
         if (comparaison < 0) {
-            return rechercherRecursif(noeud.getGauche(), racine);
+            noeud.setGauche(supprimerRecursif(noeud.getGauche(), code, racine));
+        } else if (comparaison > 0) {
+            noeud.setDroit(supprimerRecursif(noeud.getDroit(), code, racine));
         } else {
-            return rechercherRecursif(noeud.getDroit(), racine);
+            if (noeud.getGauche() == null) {
+                return noeud.getDroit();
+            }
+            if (noeud.getDroit() == null) {
+                return noeud.getGauche();
+            }
+            // Deux fils : le successeur prend la place du nœud. On déplace le nœud
+            // lui-même (et non sa racine) pour qu'il garde son id, ses dérivés et sa fréquence.
+            RacineNode successeur = minimum(noeud.getDroit());
+            successeur.setDroit(supprimerMinimum(noeud.getDroit()));
+            successeur.setGauche(noeud.getGauche());
+            noeud = successeur;
+        }
+
+        // Rééquilibrer en remontant
+        return equilibrer(noeud);
+    }
+
+    private RacineNode minimum(RacineNode noeud) {
+        while (noeud.getGauche() != null) {
+            noeud = noeud.getGauche();
+        }
+        return noeud;
+    }
+
+    private RacineNode supprimerMinimum(RacineNode noeud) {
+        if (noeud.getGauche() == null) {
+            return noeud.getDroit();
+        }
+        noeud.setGauche(supprimerMinimum(noeud.getGauche()));
+        return equilibrer(noeud);
+    }
+
+    /**
+     * Méthode récursive de recherche
+     */
+    private RacineNode rechercherRecursif(RacineNode noeud, long code, String racine) {
+        // Cas de base: nœud null
+        if (noeud == null) {
+            return null;
+        }
+
+        // Racine trouvée, ou recherche dans le sous-arbre approprié
+        // (comparaison des formes codées, sans décoder la racine du nœud)
+        int comparaison = noeud.comparer(code, racine);
+        if (comparaison == 0) {
+            return noeud;
+        } else if (comparaison < 0) {
+            return rechercherRecursif(noeud.getGauche(), code, racine);
+        } else {
+            return rechercherRecursif(noeud.getDroit(), code, racine);
         }
     }
 
@@ -191,25 +525,118 @@ public class ABR {
      * Vérifie si une racine existe dans l'arbre
      * @return true si la racine existe
      */
+    @Override
     public boolean existe(String racine) {
         return rechercher(racine) != null;
     }
 
+    /**
+     * Retourne l'id dense d'une racine
+     * Complexité: O(log n)
+     * @return L'id, ou -1 si la racine n'existe pas
+     */
+    @Override
+    public int getIdRacine(String racine) {
+        RacineNode noeud = rechercher(racine);
+        return (noeud == null) ? -1 : noeud.getId();
+    }
+
+    /**
+     * Résout un id dense en nœud
+     * Complexité: O(1)
+     * @return Le nœud, ou null si l'id est inconnu
+     */
+    public RacineNode getRacineParId(int id) {
+        return identifiants.obtenir(id);
+    }
+
+    @Override
+    public String getRacine(int id) {
+        RacineNode noeud = identifiants.obtenir(id);
+        return (noeud == null) ? null : noeud.getRacine();
+    }
+
+    /**
+     * Racine d'id donné sous forme codée, sans décodage
+     */
+    @Override
+    public long getCodeRacine(int id) {
+        RacineNode noeud = identifiants.obtenir(id);
+        return (noeud == null) ? AlphabetArabe.NON_CODABLE : noeud.getCode();
+    }
+
+    /**
+     * Borne supérieure (exclue) des ids de racines, pour dimensionner les tableaux annexes
+     */
+    @Override
+    public int getNombreIds() {
+        return identifiants.getNombreIds();
+    }
+
     /**
      * Ajoute un mot dérivé à une racine existante
      */
+    @Override
     public boolean ajouterMotDerive(String racine, String mot, String scheme) {
-        RacineNode noeud = rechercher(racine);
-        if (noeud == null) {
-            return false;
+        ObservateurDictionnaire notifie = null;
+        verrou.readLock().lock();
+        try {
+            RacineNode noeud = rechercherSansVerrou(racine);
+            if (noeud == null) {
+                return false;
+            }
+            noeud.ajouterMotDerive(new MotDerive(mot, scheme));
+            if (observateur != null) {
+                notifie = observateur;
+                notifie.motDeriveAjoute(noeud.getRacine(), mot, scheme);
+            }
+            return true;
+        } finally {
+            verrou.readLock().unlock();
+            terminer(notifie);
+        }
+    }
+
+    /**
+     * Fusionne un lot de dérivés dans le nœud d'id donné (sans notifier l'observateur :
+     * les formes précalculées se régénèrent)
+     */
+    @Override
+    public void fusionnerMotsDerives(int id, List<MotDerive> mots) {
+        RacineNode noeud = identifiants.obtenir(id);
+        if (noeud != null) {
+            noeud.fusionnerMotsDerives(mots);
+        }
+    }
+
+    /**
+     * Incrémente la fréquence d'utilisation d'une racine existante
+     * @return false si la racine n'existe pas
+     */
+    public boolean incrementerFrequence(String racine) {
+        ObservateurDictionnaire notifie = null;
+        verrou.readLock().lock();
+        try {
+            RacineNode noeud = rechercherSansVerrou(racine);
+            if (noeud == null) {
+                return false;
+            }
+            noeud.incrementerFrequence();
+            if (observateur != null) {
+                notifie = observateur;
+                notifie.frequenceIncrementee(noeud.getRacine());
+            }
+            return true;
+        } finally {
+            verrou.readLock().unlock();
+            terminer(notifie);
         }
-        noeud.ajouterMotDerive(new MotDerive(mot, scheme));
-        return true;
     }
 
     /**
      * Récupère tous les mots dérivés d'une racine
      */
+    @Override
     public List<MotDerive> getMotsDerivesDeRacine(String racine) {
         RacineNode noeud = rechercher(racine);
         if (noeud == null) {
@@ -223,7 +650,12 @@ public class ABR {
      */
     public void afficherInfixe() {
         System.out.println("\n=== Liste des racines (ordre alphabétique) ===");
-        afficherInfixeRecursif(rootAVL);
+        verrou.readLock().lock();
+        try {
+            afficherInfixeRecursif(rootAVL);
+        } finally {
+            verrou.readLock().unlock();
+        }
         System.out.println("Total: " + taille + " racines");
     }
 
@@ -235,13 +667,69 @@ public class ABR {
         }
     }
 
+    /**
+     * Collecte tous les nœuds dans l'ordre alphabétique
+     */
+    public List<RacineNode> getTousLesNoeuds() {
+        verrou.readLock().lock();
+        try {
+            List<RacineNode> noeuds = new ArrayList<>(taille);
+            collecterNoeuds(this.rootAVL, noeuds);
+            return noeuds;
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    private void collecterNoeuds(RacineNode noeud, List<RacineNode> liste) {
+        if (noeud != null) {
+            collecterNoeuds(noeud.getGauche(), liste);
+            liste.add(noeud);
+            collecterNoeuds(noeud.getDroit(), liste);
+        }
+    }
+
+    /**
+     * Les k racines les plus fréquentes, de la plus fréquente à la moins fréquente.
+     * Les fréquences sont relevées sous le verrou de lecture (chacune lue une fois),
+     * puis classées hors verrou par Frequence.meilleures, comme les dérivés.
+     * Complexité: O(n log k)
+     */
+    public List<Frequence> getRacinesLesPlusFrequentes(int k) {
+        if (k <= 0) {
+            return new ArrayList<>();
+        }
+        List<Frequence> candidats;
+        verrou.readLock().lock();
+        try {
+            candidats = new ArrayList<>(taille);
+            collecterFrequences(rootAVL, candidats);
+        } finally {
+            verrou.readLock().unlock();
+        }
+        return Frequence.meilleures(candidats, k);
+    }
+
+    private void collecterFrequences(RacineNode noeud, List<Frequence> candidats) {
+        if (noeud != null) {
+            collecterFrequences(noeud.getGauche(), candidats);
+            candidats.add(new Frequence(noeud.getRacine(), noeud.getFrequence()));
+            collecterFrequences(noeud.getDroit(), candidats);
+        }
+    }
+
     /**
      * Collecte toutes les racines dans une liste
      */
     public List<String> getToutesLesRacines() {
-        List<String> racines = new ArrayList<>();
-        collecterRacines(this.rootAVL, racines);
-        return racines;
+        verrou.readLock().lock();
+        try {
+            List<String> racines = new ArrayList<>(taille);
+            collecterRacines(this.rootAVL, racines);
+            return racines;
+        } finally {
+            verrou.readLock().unlock();
+        }
     }
 
     private void collecterRacines(RacineNode noeud, List<String> liste) {
@@ -255,6 +743,7 @@ public class ABR {
     /**
      * Retourne la taille de l'arbre
      */
+    @Override
     public int getTaille() {
         return taille;
     }
@@ -272,8 +761,14 @@ public class ABR {
     public void afficherStatistiques() {
         System.out.println("\n=== Statistiques de l'arbre AVL ===");
         System.out.println("Nombre de racines: " + taille);
-        System.out.println("Hauteur de l'arbre: " + hauteur(rootAVL));
-        System.out.println("Arbre équilibré: " + estEquilibre(rootAVL));
+        verrou.readLock().lock();
+        try {
+            System.out.println("Hauteur de l'arbre: " + hauteur(rootAVL));
+            System.out.println("Arbre équilibré: " + estEquilibre(rootAVL));
+        } finally {
+            verrou.readLock().unlock();
+        }
+        System.out.println("Racines les plus fréquentes: " + getRacinesLesPlusFrequentes(5));
     }
 
     /**
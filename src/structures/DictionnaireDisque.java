@@ -0,0 +1,267 @@
+package structures;
+
+import models.AlphabetArabe;
+import models.Normaliseur;
+import models.RacineNode.MotDerive;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Dictionnaire de racines en lecture seule, résidant sur disque.
+ *
+ * Le fichier contient les racines triées, chacune sur une largeur fixe de caractères
+ * UTF-16 (gros-boutiste, complétée par des \u0000). Il est projeté en mémoire
+ * (MappedByteBuffer) et interrogé par recherche dichotomique directement sur les
+ * octets projetés : aucune racine n'est matérialisée en objet pour une recherche,
+ * et le tas ne contient que cet objet. L'id d'une racine est sa position dans le fichier.
+ *
+ * L'ordre des caractères UTF-16 est celui de String.compareTo, et \u0000 est inférieur
+ * à toute lettre : les racines sont donc dans le même ordre que dans l'ABR.
+ * Comme dans l'ABR, les racines sont normalisées (Normaliseur) à l'écriture et à la recherche.
+ *
+ * Format (gros-boutiste) :
+ *   en-tête : magic "AMDR" (int), version (short), largeur en caractères (short), nombre (int)
+ *   racines : nombre × largeur caractères
+ */
+public class DictionnaireDisque implements DictionnaireRacines {
+
+    private static final int MAGIC = 0x414D4452;   // "AMDR"
+    private static final short VERSION_FORMAT = 1;
+    private static final int TAILLE_ENTETE = 12;
+
+    private final MappedByteBuffer donnees;
+    private final int largeur;       // caractères par racine
+    private final int nombre;
+
+    private DictionnaireDisque(MappedByteBuffer donnees, int largeur, int nombre) {
+        this.donnees = donnees;
+        this.largeur = largeur;
+        this.nombre = nombre;
+    }
+
+    /**
+     * Écrit un fichier de racines triées à largeur fixe (doublons et lignes vides ignorés)
+     * @return La taille du fichier en octets
+     */
+    public static long ecrire(String nomFichier, Collection<String> racines) throws IOException {
+        TreeSet<String> triees = new TreeSet<>();
+        int largeur = 1;
+        for (String racine : racines) {
+            if (racine == null || racine.trim().isEmpty()) {
+                continue;
+            }
+            String r = Normaliseur.getDefaut().normaliser(racine.trim());
+            if (r.isEmpty()) {
+                continue;
+            }
+            triees.add(r);
+            largeur = Math.max(largeur, r.length());
+        }
+        if (largeur > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Racine trop longue pour le format à largeur fixe");
+        }
+
+        long taille = TAILLE_ENTETE + (long) triees.size() * largeur * 2;
+        if (taille > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Dictionnaire trop grand pour une seule projection: " + taille);
+        }
+
+        ByteBuffer tampon = ByteBuffer.allocate((int) taille);
+        tampon.putInt(MAGIC).putShort(VERSION_FORMAT).putShort((short) largeur).putInt(triees.size());
+        for (String r : triees) {
+            for (int i = 0; i < largeur; i++) {
+                tampon.putChar(i < r.length() ? r.charAt(i) : '\u0000');
+            }
+        }
+        tampon.flip();
+
+        Path cible = Paths.get(nomFichier);
+        Path temporaire = Paths.get(nomFichier + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporaire, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (tampon.hasRemaining()) {
+                canal.write(tampon);
+            }
+            canal.force(true);
+        }
+        Files.move(temporaire, cible, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return taille;
+    }
+
+    /**
+     * Projette un fichier écrit par ecrire()
+     * @throws IOException si le fichier n'est pas un dictionnaire valide
+     */
+    public static DictionnaireDisque ouvrir(String nomFichier) throws IOException {
+        try (FileChannel canal = FileChannel.open(Paths.get(nomFichier), StandardOpenOption.READ)) {
+            long taille = canal.size();
+            if (taille < TAILLE_ENTETE || taille > Integer.MAX_VALUE) {
+                throw new IOException("Taille de dictionnaire invalide: " + taille);
+            }
+            // La projection reste valide après la fermeture du canal
+            MappedByteBuffer donnees = canal.map(FileChannel.MapMode.READ_ONLY, 0, taille);
+
+            if (donnees.getInt(0) != MAGIC) {
+                throw new IOException("Ce fichier n'est pas un dictionnaire de racines: " + nomFichier);
+            }
+            if (donnees.getShort(4) != VERSION_FORMAT) {
+                throw new IOException("Version de dictionnaire non supportée: " + donnees.getShort(4));
+            }
+            int largeur = donnees.getShort(6);
+            int nombre = donnees.getInt(8);
+            if (largeur <= 0 || nombre < 0 || TAILLE_ENTETE + (long) nombre * largeur * 2 != taille) {
+                throw new IOException("Dictionnaire tronqué ou corrompu: " + nomFichier);
+            }
+            return new DictionnaireDisque(donnees, largeur, nombre);
+        }
+    }
+
+    /**
+     * Compare une clé à la racine d'indice donné, caractère par caractère dans la projection
+     * @return < 0 si la clé est avant, 0 si égale, > 0 si après
+     */
+    private int comparer(String cle, int indice) {
+        int position = TAILLE_ENTETE + indice * largeur * 2;
+        for (int i = 0; i < largeur; i++) {
+            char c = donnees.getChar(position + 2 * i);
+            char k = i < cle.length() ? cle.charAt(i) : '\u0000';
+            if (k != c) {
+                return k - c;
+            }
+        }
+        return cle.length() > largeur ? 1 : 0;
+    }
+
+    /**
+     * Recherche dichotomique d'une racine
+     * Complexité: O(log n) comparaisons sur les octets projetés
+     * @return L'id (indice dans le fichier), ou -1 si absente
+     */
+    @Override
+    public int getIdRacine(String racine) {
+        if (racine == null) {
+            return -1;
+        }
+        String cle = Normaliseur.getDefaut().normaliser(racine.trim());
+        if (cle.isEmpty() || cle.length() > largeur) {
+            return -1;
+        }
+
+        int bas = 0;
+        int haut = nombre - 1;
+        while (bas <= haut) {
+            int milieu = (bas + haut) >>> 1;
+            int comparaison = comparer(cle, milieu);
+            if (comparaison == 0) {
+                return milieu;
+            } else if (comparaison < 0) {
+                haut = milieu - 1;
+            } else {
+                bas = milieu + 1;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean existe(String racine) {
+        return getIdRacine(racine) >= 0;
+    }
+
+    /**
+     * Décode la racine d'indice donné
+     * Complexité: O(1)
+     */
+    @Override
+    public String getRacine(int id) {
+        if (id < 0 || id >= nombre) {
+            return null;
+        }
+        int position = TAILLE_ENTETE + id * largeur * 2;
+        char[] caracteres = new char[largeur];
+        int longueur = 0;
+        while (longueur < largeur) {
+            char c = donnees.getChar(position + 2 * longueur);
+            if (c == '\u0000') {
+                break;
+            }
+            caracteres[longueur++] = c;
+        }
+        return new String(caracteres, 0, longueur);
+    }
+
+    /**
+     * Code la racine d'indice donné directement depuis la projection, sans créer de String
+     */
+    @Override
+    public long getCodeRacine(int id) {
+        if (id < 0 || id >= nombre || largeur > AlphabetArabe.LONGUEUR_MAX) {
+            return id < 0 || id >= nombre ? AlphabetArabe.NON_CODABLE : AlphabetArabe.coder(getRacine(id));
+        }
+        int position = TAILLE_ENTETE + id * largeur * 2;
+        long code = 0;
+        for (int i = 0; i < largeur; i++) {
+            char c = donnees.getChar(position + 2 * i);
+            if (c == '\u0000') {
+                break;
+            }
+            int lettre = AlphabetArabe.code(c);
+            if (lettre == 0) {
+                return AlphabetArabe.NON_CODABLE;
+            }
+            code = AlphabetArabe.avecLettre(code, i, lettre);
+        }
+        return code;
+    }
+
+    @Override
+    public int getNombreIds() {
+        return nombre;
+    }
+
+    @Override
+    public int getTaille() {
+        return nombre;
+    }
+
+    /**
+     * Lecture seule : les dérivés ne sont pas enregistrés
+     */
+    @Override
+    public boolean ajouterMotDerive(String racine, String mot, String scheme) {
+        return false;
+    }
+
+    @Override
+    public void fusionnerMotsDerives(int id, List<MotDerive> mots) {
+        // Lecture seule : rien à conserver
+    }
+
+    @Override
+    public List<MotDerive> getMotsDerivesDeRacine(String racine) {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Taille du fichier projeté en octets
+     */
+    public long getTailleOctets() {
+        return TAILLE_ENTETE + (long) nombre * largeur * 2;
+    }
+
+    public int getLargeur() {
+        return largeur;
+    }
+}
@@ -0,0 +1,289 @@
+package structures;
+
+import models.AlphabetArabe;
+import models.Normaliseur;
+import models.RacineNode;
+import models.RacineNode.Frequence;
+import models.RacineNode.MotDerive;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Dictionnaire de racines fragmenté : les racines sont réparties entre des arbres AVL
+ * indépendants, chacun avec son verrou et sa taille. Deux insertions dans des fragments
+ * différents ne se gênent pas, et un chargement en masse construit les fragments en parallèle.
+ *
+ * Répartition :
+ *  - par première lettre (constructeur sans argument) : un fragment par code de lettre
+ *    (AlphabetArabe), les racines d'un fragment partagent leur initiale ;
+ *  - par hachage de la racine codée (constructeur avec un nombre de fragments) : fragments
+ *    de tailles voisines, quelle que soit la distribution des initiales.
+ * L'aiguillage vers le fragment est en O(1) (un code de lettre ou un hachage).
+ *
+ * Les fragments partagent un seul registre d'ids : les ids restent uniques et denses, et
+ * MoteurMorphologique peut indexer ses caches par id comme avec un ABR unique.
+ * Aucun observateur (journal) n'est pris en charge.
+ */
+public class DictionnaireFragmente implements DictionnaireRacines {
+
+    /** Nombre de fragments de la répartition par première lettre (un par code de lettre, 0 = hors alphabet) */
+    private static final int NB_CODES_LETTRE = 64;
+
+    private final ABR[] fragments;
+    private final boolean parPremiereLettre;
+    private final RegistreIdentifiants<RacineNode> identifiants = new RegistreIdentifiants<>();
+    private final Normaliseur normaliseur;
+
+    /**
+     * Dictionnaire réparti par première lettre
+     */
+    public DictionnaireFragmente() {
+        this(NB_CODES_LETTRE, true);
+    }
+
+    /**
+     * Dictionnaire réparti par hachage de la racine codée
+     * @param nbFragments Nombre de fragments (au moins 1)
+     */
+    public DictionnaireFragmente(int nbFragments) {
+        this(nbFragments, false);
+    }
+
+    private DictionnaireFragmente(int nbFragments, boolean parPremiereLettre) {
+        if (nbFragments < 1) {
+            throw new IllegalArgumentException("Il faut au moins un fragment");
+        }
+        this.normaliseur = Normaliseur.getDefaut();
+        this.parPremiereLettre = parPremiereLettre;
+        this.fragments = new ABR[nbFragments];
+        for (int i = 0; i < nbFragments; i++) {
+            fragments[i] = new ABR(normaliseur, identifiants);
+        }
+    }
+
+    /**
+     * Numéro du fragment d'une racine déjà normalisée
+     * Complexité: O(1)
+     */
+    private int indiceFragment(String racine) {
+        if (parPremiereLettre) {
+            return AlphabetArabe.code(racine.charAt(0));
+        }
+        long code = AlphabetArabe.coder(racine);
+        int h = (code == AlphabetArabe.NON_CODABLE) ? racine.hashCode() : AlphabetArabe.hacher(code);
+        // Les racines courtes laissent à zéro les bits de poids faible du code, et hacher()
+        // conserve des bits faibles nuls : on y replie les bits de poids fort avant le modulo
+        return Math.floorMod(h ^ (h >>> 16), fragments.length);
+    }
+
+    /**
+     * Fragment d'une racine brute (normalisée ici), ou null si elle est vide
+     */
+    private ABR fragment(String racine) {
+        if (racine == null) {
+            return null;
+        }
+        String r = normaliseur.normaliser(racine.trim());
+        return r.isEmpty() ? null : fragments[indiceFragment(r)];
+    }
+
+    // ───────────────────────── Modifications ─────────────────────────
+
+    /**
+     * Insère une racine (ou incrémente sa fréquence), sous le seul verrou de son fragment
+     * @return true si la racine est nouvelle
+     */
+    public boolean inserer(String racine) {
+        ABR f = fragment(racine);
+        if (f == null) {
+            throw new IllegalArgumentException("La racine ne peut pas être vide");
+        }
+        return f.inserer(racine);
+    }
+
+    /**
+     * Insère un lot de racines : le lot est réparti entre les fragments, puis chaque
+     * fragment est chargé par son propre thread (construction équilibrée si le fragment
+     * est vide, voir ABR.insererEnMasse)
+     * @param nbThreads Nombre de fragments chargés simultanément (0 = nombre de processeurs)
+     */
+    public void insererEnMasse(List<String> racines, int nbThreads) {
+        if (nbThreads <= 0) {
+            nbThreads = Runtime.getRuntime().availableProcessors();
+        }
+        List<List<String>> parFragment = new ArrayList<>(fragments.length);
+        for (int i = 0; i < fragments.length; i++) {
+            parFragment.add(new ArrayList<>());
+        }
+        for (String racine : racines) {
+            String r = (racine == null) ? "" : normaliseur.normaliser(racine.trim());
+            if (!r.isEmpty()) {
+                parFragment.get(indiceFragment(r)).add(r);
+            }
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(nbThreads);
+        try {
+            List<Future<?>> taches = new ArrayList<>();
+            for (int i = 0; i < fragments.length; i++) {
+                List<String> lot = parFragment.get(i);
+                if (!lot.isEmpty()) {
+                    ABR f = fragments[i];
+                    taches.add(pool.submit(() -> f.insererEnMasse(lot)));
+                }
+            }
+            for (Future<?> tache : taches) {
+                tache.get();
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Échec du chargement en masse", e);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Supprime une racine ; son id est libéré (jamais réattribué)
+     * @return false si la racine n'existe pas
+     */
+    public boolean supprimer(String racine) {
+        ABR f = fragment(racine);
+        return f != null && f.supprimer(racine);
+    }
+
+    @Override
+    public boolean ajouterMotDerive(String racine, String mot, String scheme) {
+        ABR f = fragment(racine);
+        return f != null && f.ajouterMotDerive(racine, mot, scheme);
+    }
+
+    @Override
+    public void fusionnerMotsDerives(int id, List<MotDerive> mots) {
+        RacineNode noeud = identifiants.obtenir(id);
+        if (noeud != null) {
+            noeud.fusionnerMotsDerives(mots);
+        }
+    }
+
+    // ───────────────────────── Consultation ─────────────────────────
+
+    /**
+     * Recherche une racine dans son fragment
+     * Complexité: O(1) pour l'aiguillage + O(log taille du fragment)
+     */
+    public RacineNode rechercher(String racine) {
+        ABR f = fragment(racine);
+        return (f == null) ? null : f.rechercher(racine);
+    }
+
+    @Override
+    public boolean existe(String racine) {
+        return rechercher(racine) != null;
+    }
+
+    @Override
+    public int getIdRacine(String racine) {
+        RacineNode noeud = rechercher(racine);
+        return (noeud == null) ? -1 : noeud.getId();
+    }
+
+    public RacineNode getRacineParId(int id) {
+        return identifiants.obtenir(id);
+    }
+
+    @Override
+    public String getRacine(int id) {
+        RacineNode noeud = identifiants.obtenir(id);
+        return (noeud == null) ? null : noeud.getRacine();
+    }
+
+    @Override
+    public long getCodeRacine(int id) {
+        RacineNode noeud = identifiants.obtenir(id);
+        return (noeud == null) ? AlphabetArabe.NON_CODABLE : noeud.getCode();
+    }
+
+    @Override
+    public int getNombreIds() {
+        return identifiants.getNombreIds();
+    }
+
+    @Override
+    public int getTaille() {
+        int taille = 0;
+        for (ABR f : fragments) {
+            taille += f.getTaille();
+        }
+        return taille;
+    }
+
+    @Override
+    public List<MotDerive> getMotsDerivesDeRacine(String racine) {
+        ABR f = fragment(racine);
+        return (f == null) ? new ArrayList<>() : f.getMotsDerivesDeRacine(racine);
+    }
+
+    /**
+     * Toutes les racines, dans l'ordre alphabétique
+     */
+    public List<String> getToutesLesRacines() {
+        List<String> racines = new ArrayList<>(getTaille());
+        for (ABR f : fragments) {
+            racines.addAll(f.getToutesLesRacines());
+        }
+        // Par première lettre, les fragments sont déjà presque dans l'ordre : tri quasi linéaire
+        Collections.sort(racines);
+        return racines;
+    }
+
+    /**
+     * Les k racines les plus fréquentes : classement de chaque fragment, puis fusion
+     */
+    public List<Frequence> getRacinesLesPlusFrequentes(int k) {
+        List<Frequence> candidates = new ArrayList<>();
+        for (ABR f : fragments) {
+            candidates.addAll(f.getRacinesLesPlusFrequentes(k));
+        }
+        return Frequence.meilleures(candidates, k);
+    }
+
+    public int getNombreFragments() {
+        return fragments.length;
+    }
+
+    /**
+     * Nombre de racines de chaque fragment
+     */
+    public int[] getTaillesFragments() {
+        int[] tailles = new int[fragments.length];
+        for (int i = 0; i < fragments.length; i++) {
+            tailles[i] = fragments[i].getTaille();
+        }
+        return tailles;
+    }
+
+    /**
+     * Affiche la répartition des racines entre les fragments
+     */
+    public void afficherStatistiques() {
+        int[] tailles = getTaillesFragments();
+        int nonVides = 0;
+        int max = 0;
+        for (int t : tailles) {
+            if (t > 0) {
+                nonVides++;
+            }
+            max = Math.max(max, t);
+        }
+        System.out.println("\n=== Statistiques du dictionnaire fragmenté ===");
+        System.out.println("Répartition: " + (parPremiereLettre ? "par première lettre" : "par hachage"));
+        System.out.println("Nombre de racines: " + getTaille());
+        System.out.println("Fragments non vides: " + nonVides + "/" + fragments.length);
+        System.out.println("Plus gros fragment: " + max + " racines");
+    }
+}
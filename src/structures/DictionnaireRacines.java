@@ -0,0 +1,65 @@
+package structures;
+
+import models.AlphabetArabe;
+import models.RacineNode.MotDerive;
+
+import java.util.List;
+
+/**
+ * Contrat de consultation du dictionnaire de racines utilisé par MoteurMorphologique.
+ * Les racines sont identifiées par un id dense (0 .. getNombreIds()-1) qui sert
+ * d'index dans les caches du moteur.
+ *
+ * Implémentations : ABR (en mémoire, modifiable) et DictionnaireDisque
+ * (fichier trié projeté en mémoire, lecture seule).
+ */
+public interface DictionnaireRacines {
+
+    /**
+     * @return true si la racine existe
+     */
+    boolean existe(String racine);
+
+    /**
+     * @return L'id dense de la racine, ou -1 si elle n'existe pas
+     */
+    int getIdRacine(String racine);
+
+    /**
+     * @return La racine d'id donné, ou null si l'id est inconnu
+     */
+    String getRacine(int id);
+
+    /**
+     * @return La racine d'id donné sous forme codée (AlphabetArabe), ou NON_CODABLE
+     */
+    default long getCodeRacine(int id) {
+        return AlphabetArabe.coder(getRacine(id));
+    }
+
+    /**
+     * Borne supérieure (exclue) des ids de racines
+     */
+    int getNombreIds();
+
+    /**
+     * Nombre de racines
+     */
+    int getTaille();
+
+    /**
+     * Enregistre un mot dérivé validé pour une racine
+     * @return false si la racine n'existe pas ou si le dictionnaire est en lecture seule
+     */
+    boolean ajouterMotDerive(String racine, String mot, String scheme);
+
+    /**
+     * Fusionne un lot de dérivés dans la racine d'id donné (précalcul du lexique)
+     */
+    void fusionnerMotsDerives(int id, List<MotDerive> mots);
+
+    /**
+     * @return Les dérivés validés de la racine (liste vide si aucun ou racine inconnue)
+     */
+    List<MotDerive> getMotsDerivesDeRacine(String racine);
+}
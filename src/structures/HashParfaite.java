@@ -0,0 +1,153 @@
+package structures;
+
+import models.Scheme;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Table de hachage parfaite minimale (méthode "hash and displace") construite à partir
+ * d'une HashTable figée. n schèmes occupent exactement n cases : pas de collision,
+ * pas de chaîne, une seule case consultée par recherche.
+ *
+ * La table est en lecture seule. Elle mémorise la version de la HashTable source
+ * pour que l'appelant sache quand revenir à la table modifiable.
+ */
+public class HashParfaite {
+
+    private final String[] cles;          // cles[i] = nom du schème rangé dans la case i
+    private final Scheme[] valeurs;       // tableau dense des schèmes
+    private final int[] deplacements;     // graine choisie pour chaque seau
+    private final int versionSource;
+
+    private HashParfaite(String[] cles, Scheme[] valeurs, int[] deplacements, int versionSource) {
+        this.cles = cles;
+        this.valeurs = valeurs;
+        this.deplacements = deplacements;
+        this.versionSource = versionSource;
+    }
+
+    /**
+     * Construit la table parfaite à partir du contenu actuel d'une HashTable
+     * Complexité attendue: O(n)
+     */
+    public static HashParfaite construire(HashTable source) {
+        int version = source.getVersion();
+        List<String> noms = source.getTousLesNoms();
+        int n = noms.size();
+        int nbSeaux = Math.max(1, (n + 1) / 2);
+
+        // Répartir les clés dans les seaux
+        List<List<String>> seaux = new ArrayList<>();
+        for (int i = 0; i < nbSeaux; i++) {
+            seaux.add(new ArrayList<>());
+        }
+        for (String nom : noms) {
+            seaux.get(indice(hacher(nom, 0), nbSeaux)).add(nom);
+        }
+
+        // Placer d'abord les seaux les plus remplis
+        Integer[] ordre = new Integer[nbSeaux];
+        for (int i = 0; i < nbSeaux; i++) {
+            ordre[i] = i;
+        }
+        Arrays.sort(ordre, (a, b) -> seaux.get(b).size() - seaux.get(a).size());
+
+        String[] cles = new String[n];
+        Scheme[] valeurs = new Scheme[n];
+        int[] deplacements = new int[nbSeaux];
+        int[] cases = new int[n];
+
+        for (int s : ordre) {
+            List<String> seau = seaux.get(s);
+            if (seau.isEmpty()) {
+                continue;
+            }
+
+            int graine = 1;
+            while (!placer(seau, graine, cles, cases)) {
+                graine++;
+            }
+
+            deplacements[s] = graine;
+            for (int i = 0; i < seau.size(); i++) {
+                cles[cases[i]] = seau.get(i);
+                valeurs[cases[i]] = source.rechercher(seau.get(i));
+            }
+        }
+
+        return new HashParfaite(cles, valeurs, deplacements, version);
+    }
+
+    /**
+     * Essaie de placer toutes les clés d'un seau avec une graine donnée.
+     * Les cases retenues sont écrites dans cases[0..seau.size()-1].
+     */
+    private static boolean placer(List<String> seau, int graine, String[] cles, int[] cases) {
+        for (int i = 0; i < seau.size(); i++) {
+            int c = indice(hacher(seau.get(i), graine), cles.length);
+            if (cles[c] != null) {
+                return false;
+            }
+            for (int j = 0; j < i; j++) {
+                if (cases[j] == c) {
+                    return false;
+                }
+            }
+            cases[i] = c;
+        }
+        return true;
+    }
+
+    /**
+     * Hachage FNV-1a paramétré par une graine, suivi d'un brassage final
+     */
+    private static int hacher(String cle, int graine) {
+        int h = 0x811C9DC5 ^ (graine * 0x9E3779B9);
+        for (int i = 0; i < cle.length(); i++) {
+            h = (h ^ cle.charAt(i)) * 0x01000193;
+        }
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        return h;
+    }
+
+    private static int indice(int hash, int taille) {
+        return (hash & 0x7FFFFFFF) % taille;
+    }
+
+    /**
+     * Recherche un schème par son nom : un seau, une case
+     * Complexité: O(1) garanti
+     */
+    public Scheme rechercher(String nom) {
+        if (nom == null || cles.length == 0) return null;
+
+        int graine = deplacements[indice(hacher(nom, 0), deplacements.length)];
+        int c = indice(hacher(nom, graine), cles.length);
+        return nom.equals(cles[c]) ? valeurs[c] : null;
+    }
+
+    /**
+     * Indique si la HashTable source n'a pas été modifiée depuis la construction
+     */
+    public boolean estAJour(HashTable source) {
+        return source.getVersion() == versionSource;
+    }
+
+    /**
+     * Retourne le nombre de schèmes
+     */
+    public int getTaille() {
+        return cles.length;
+    }
+
+    /**
+     * Retourne le tableau dense des schèmes (copie)
+     */
+    public Scheme[] getSchemes() {
+        return valeurs.clone();
+    }
+}
@@ -1,6 +1,7 @@
 
 package structures;
 
+import models.AlphabetArabe;
 import models.Scheme;
 import java.util.ArrayList;
 import java.util.List;
@@ -16,11 +17,13 @@ public class HashTable {
      */
     private static class EntreeTable {
         String cle;
+        long code;              // Clé codée (AlphabetArabe), ou NON_CODABLE
         Scheme valeur;
         EntreeTable suivant;
 
-        EntreeTable(String cle, Scheme valeur) {
+        EntreeTable(String cle, long code, Scheme valeur) {
             this.cle = cle;
+            this.code = code;
             this.valeur = valeur;
             this.suivant = null;
         }
@@ -29,6 +32,9 @@ public class HashTable {
     private EntreeTable[] table; //root
     private int capacite;
     private int taille;
+    private int version;                 // Incrémentée à chaque modification (voir HashParfaite)
+    private final StatistiquesHachage statistiques = new StatistiquesHachage();
+    private final RegistreIdentifiants<Scheme> identifiants = new RegistreIdentifiants<>();  // id dense → schème
     private static final double FACTEUR_CHARGE_MAX = 0.75;
 
     /**
@@ -48,9 +54,13 @@ public class HashTable {
     }
 
     /**
-     * Fonction de hachage simple mais efficace
+     * Fonction de hachage simple mais efficace.
+     * Une clé codable est hachée par sa forme codée (un long), sans relire la chaîne.
      */
-    private int hash(String cle) {
+    private static int indice(long code, String cle, int capacite) {
+        if (code != AlphabetArabe.NON_CODABLE) {
+            return Math.floorMod(AlphabetArabe.hacher(code), capacite);
+        }
         if (cle == null) return 0;
 
         int hash = 0;
@@ -60,10 +70,18 @@ public class HashTable {
         return Math.abs(hash % capacite);
     }
 
+    /**
+     * Deux clés sont égales si leurs codes le sont (clés codables) ou si les chaînes le sont
+     */
+    private static boolean memeCle(EntreeTable entree, long code, String cle) {
+        return entree.code == code && (code != AlphabetArabe.NON_CODABLE || entree.cle.equals(cle));
+    }
+
     /**
      * Redimensionne la table lorsque le facteur de charge est dépassé
      */
     private void redimensionner() {
+        long debut = System.nanoTime();
         int nouvelleCapacite = capacite * 2;
         EntreeTable[] nouvelleTable = new EntreeTable[nouvelleCapacite];
 
@@ -74,11 +92,7 @@ public class HashTable {
                 EntreeTable suivant = entree.suivant;
 
                 // Recalculer l'index avec la nouvelle capacité
-                int hash = 0;
-                for (int j = 0; j < entree.cle.length(); j++) {
-                    hash = 31 * hash + entree.cle.charAt(j);
-                }
-                int nouvelIndex = Math.abs(hash % nouvelleCapacite);
+                int nouvelIndex = indice(entree.code, entree.cle, nouvelleCapacite);
 
                 // Insérer au début de la chaîne
                 entree.suivant = nouvelleTable[nouvelIndex];
@@ -90,6 +104,7 @@ public class HashTable {
 
         table = nouvelleTable;
         capacite = nouvelleCapacite;
+        statistiques.enregistrerRedimensionnement(System.nanoTime() - debut);
     }
 
 /*
@@ -99,6 +114,14 @@ public class HashTable {
      */
 
     public void ajouter(String nom, Scheme scheme) {
+        ajouter(nom, scheme, -1);
+    }
+
+    /**
+     * Ajoute ou met à jour un schème
+     * @param idImpose Id à donner au schème (restauration), ou -1 pour le prochain id libre
+     */
+    protected void ajouter(String nom, Scheme scheme, int idImpose) {
         if (nom == null || scheme == null) {
             throw new IllegalArgumentException("La clé et le schème ne peuvent pas être null");
         }
@@ -108,24 +131,31 @@ public class HashTable {
             redimensionner();
         }
 
-        int index = hash(nom);
+        long code = AlphabetArabe.coder(nom);
+        int index = indice(code, nom, capacite);
         EntreeTable entree = table[index];
 
         // Chercher si la clé existe déjà
         while (entree != null) {
-            if (entree.cle.equals(nom)) {
-                // Mettre à jour la valeur
+            if (memeCle(entree, code, nom)) {
+                // Mettre à jour la valeur (le nouveau schème reprend l'id de l'ancien)
+                verifierNonEnregistre(scheme, entree.valeur);
+                remplacerIdentifiant(entree.valeur, scheme, idImpose);
                 entree.valeur = scheme;
+                version++;
                 return;
             }
             entree = entree.suivant;
         }
 
         // Ajouter un nouveau nœud au début de la chaîne
-        EntreeTable nouvelleEntree = new EntreeTable(nom, scheme);
+        verifierNonEnregistre(scheme, null);
+        EntreeTable nouvelleEntree = new EntreeTable(nom, code, scheme);
+        scheme.setId(attribuerIdentifiant(scheme, idImpose));
         nouvelleEntree.suivant = table[index];
         table[index] = nouvelleEntree;
         taille++;
+        version++;
     }
 
 
@@ -136,16 +166,48 @@ public class HashTable {
     public Scheme rechercher(String nom) {
         if (nom == null) return null;
 
-        int index = hash(nom);
+        long code = AlphabetArabe.coder(nom);
+        if (code != AlphabetArabe.NON_CODABLE) {
+            return rechercher(code);
+        }
+
+        int index = indice(code, nom, capacite);
         EntreeTable entree = table[index];
+        int sondes = 0;
 
         while (entree != null) {
-            if (entree.cle.equals(nom)) {
+            sondes++;
+            if (memeCle(entree, code, nom)) {
+                statistiques.enregistrerRecherche(sondes, true);
                 return entree.valeur;
             }
             entree = entree.suivant;
         }
 
+        statistiques.enregistrerRecherche(sondes, false);
+        return null;
+    }
+
+    /**
+     * Recherche un schème par son nom déjà codé (AlphabetArabe), sans chaîne
+     * Complexité moyenne: O(1)
+     */
+    public Scheme rechercher(long code) {
+        if (code == AlphabetArabe.NON_CODABLE) return null;
+
+        EntreeTable entree = table[indice(code, null, capacite)];
+        int sondes = 0;
+
+        while (entree != null) {
+            sondes++;
+            if (entree.code == code) {
+                statistiques.enregistrerRecherche(sondes, true);
+                return entree.valeur;
+            }
+            entree = entree.suivant;
+        }
+
+        statistiques.enregistrerRecherche(sondes, false);
         return null;
     }
 
@@ -162,19 +224,22 @@ public class HashTable {
     public boolean supprimer(String nom) {
         if (nom == null) return false;
 
-        int index = hash(nom);
+        long code = AlphabetArabe.coder(nom);
+        int index = indice(code, nom, capacite);
         EntreeTable entree = table[index];
         EntreeTable precedent = null;
 
         while (entree != null) {
-            if (entree.cle.equals(nom)) {
+            if (memeCle(entree, code, nom)) {
                 if (precedent == null) {
                     // Supprimer le premier élément de la chaîne
                     table[index] = entree.suivant;
                 } else {
                     precedent.suivant = entree.suivant;
                 }
+                identifiants.liberer(entree.valeur.getId());
                 taille--;
+                version++;
                 return true;
             }
             precedent = entree;
@@ -255,8 +320,107 @@ public class HashTable {
      * Vide complètement la table
      */
     public void vider() {
+        for (Scheme scheme : getTousLesSchemes()) {
+            identifiants.liberer(scheme.getId());
+        }
         table = new EntreeTable[capacite];
         taille = 0;
+        version++;
+    }
+
+    /**
+     * Ajoute un schème en conservant son id (restauration d'un instantané) : l'id est
+     * réservé tel quel, sans en consommer un autre. Si le schème n'a pas encore d'id,
+     * c'est un simple ajouter sous son nom.
+     */
+    public void restaurer(Scheme scheme) {
+        ajouter(scheme.getNom(), scheme, scheme.getId());
+    }
+
+    /**
+     * Id d'un schème qui entre sous un nouveau nom
+     * @param idImpose Id à réserver (restauration), ou -1 pour le prochain id libre
+     */
+    protected int attribuerIdentifiant(Scheme scheme, int idImpose) {
+        return idImpose >= 0 ? identifiants.reserver(idImpose, scheme) : identifiants.attribuer(scheme);
+    }
+
+    /**
+     * Un schème porte son id : une même instance ne peut donc être enregistrée que sous un
+     * seul nom, sinon le second enregistrement écraserait l'id du premier
+     * @param remplace Schème actuellement sous ce nom (null pour un nouveau nom)
+     * @throws IllegalArgumentException si le schème est déjà enregistré sous un autre nom
+     */
+    protected void verifierNonEnregistre(Scheme scheme, Scheme remplace) {
+        if (scheme != remplace && scheme.getId() >= 0 && identifiants.obtenir(scheme.getId()) == scheme) {
+            throw new IllegalArgumentException("Le schème " + scheme.getNom() + " est déjà enregistré sous un autre nom");
+        }
+    }
+
+    /**
+     * Transfère l'id d'un schème remplacé vers son remplaçant ; avec un id imposé différent
+     * (restauration), l'id de l'ancien est libéré et l'id imposé réservé
+     */
+    protected void remplacerIdentifiant(Scheme ancien, Scheme nouveau, int idImpose) {
+        if (idImpose >= 0 && idImpose != ancien.getId()) {
+            identifiants.liberer(ancien.getId());
+            nouveau.setId(identifiants.reserver(idImpose, nouveau));
+        } else if (ancien != nouveau) {
+            nouveau.setId(ancien.getId());
+            identifiants.placer(ancien.getId(), nouveau);
+        }
+    }
+
+    /**
+     * Registre des ids denses de schèmes (partagé avec les sous-classes)
+     */
+    protected RegistreIdentifiants<Scheme> getRegistreIdentifiants() {
+        return identifiants;
+    }
+
+    /**
+     * Résout un id dense en schème
+     * Complexité: O(1)
+     * @return Le schème, ou null si l'id est inconnu ou supprimé
+     */
+    public Scheme getSchemeParId(int id) {
+        return identifiants.obtenir(id);
+    }
+
+    /**
+     * Borne supérieure (exclue) des ids de schèmes, pour dimensionner les tableaux annexes
+     */
+    public int getNombreIds() {
+        return identifiants.getNombreIds();
+    }
+
+    /**
+     * Retourne le compteur de modifications de la table
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Retourne un instantané des compteurs de santé (recherches, sondes, redimensionnements)
+     */
+    public StatistiquesHachage.Instantane getStatistiques() {
+        int longueurMax = 0;
+        for (int i = 0; i < capacite; i++) {
+            int longueur = 0;
+            for (EntreeTable e = table[i]; e != null; e = e.suivant) {
+                longueur++;
+            }
+            longueurMax = Math.max(longueurMax, longueur);
+        }
+        return statistiques.instantane(taille, capacite, longueurMax);
+    }
+
+    /**
+     * Remet les compteurs de santé à zéro
+     */
+    public void reinitialiserStatistiques() {
+        statistiques.reinitialiser();
     }
 
     /**
@@ -291,5 +455,6 @@ public class HashTable {
             System.out.println("Longueur moyenne: " +
                     String.format("%.2f", (double) taille / chainesNonVides));
         }
+        System.out.println(getStatistiques());
     }
 }
\ No newline at end of file
@@ -0,0 +1,391 @@
+package structures;
+
+import models.AlphabetArabe;
+import models.Scheme;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Version concurrente de la table de hachage des schèmes.
+ *
+ * Lectures (rechercher, existe, getTousLesSchemes) : sans verrou. Le tableau des
+ * alvéoles est publié via une référence volatile et les maillons des chaînes sont
+ * immuables (cle et suivant final), une lecture voit donc toujours une chaîne cohérente.
+ *
+ * Écritures (ajouter, supprimer) : verrouillent une seule bande d'alvéoles.
+ * L'alvéole i appartient à la bande i % NB_BANDES ; comme la capacité reste une
+ * puissance de 2 >= NB_BANDES, un redimensionnement ne change jamais la bande d'une clé.
+ * Le redimensionnement prend toutes les bandes dans l'ordre.
+ */
+public class HashTableConcurrente extends HashTable {
+
+    /**
+     * Maillon de chaîne : seule la valeur est modifiable (mise à jour d'un schème existant)
+     */
+    private static final class Entree {
+        final String cle;
+        final long code;        // Clé codée (AlphabetArabe), ou NON_CODABLE
+        final int hash;
+        volatile Scheme valeur;
+        final Entree suivant;
+
+        Entree(String cle, long code, int hash, Scheme valeur, Entree suivant) {
+            this.cle = cle;
+            this.code = code;
+            this.hash = hash;
+            this.valeur = valeur;
+            this.suivant = suivant;
+        }
+    }
+
+    private static final int NB_BANDES = 16;
+    private static final double FACTEUR_CHARGE_MAX = 0.75;
+
+    private volatile AtomicReferenceArray<Entree> table;
+    private final Object[] verrous;
+    private final AtomicInteger taille;
+    private final AtomicInteger version;
+    private final StatistiquesHachage statistiques = new StatistiquesHachage();
+
+    /**
+     * Constructeur avec capacité par défaut
+     */
+    public HashTableConcurrente() {
+        this(16);
+    }
+
+    /**
+     * Constructeur avec capacité spécifiée (arrondie à la puissance de 2 supérieure, minimum NB_BANDES)
+     */
+    public HashTableConcurrente(int capaciteInitiale) {
+        super(1);
+        int capacite = NB_BANDES;
+        while (capacite < capaciteInitiale) {
+            capacite <<= 1;
+        }
+        this.table = new AtomicReferenceArray<>(capacite);
+        this.verrous = new Object[NB_BANDES];
+        for (int i = 0; i < NB_BANDES; i++) {
+            verrous[i] = new Object();
+        }
+        this.taille = new AtomicInteger(0);
+        this.version = new AtomicInteger(0);
+    }
+
+    /**
+     * Même fonction de hachage que HashTable, avec brassage des bits hauts
+     */
+    private static int hash(long code, String cle) {
+        if (code != AlphabetArabe.NON_CODABLE) {
+            return AlphabetArabe.hacher(code);
+        }
+        int h = 0;
+        for (int i = 0; i < cle.length(); i++) {
+            h = 31 * h + cle.charAt(i);
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static int bande(int hash) {
+        return hash & (NB_BANDES - 1);
+    }
+
+    @Override
+    protected void ajouter(String nom, Scheme scheme, int idImpose) {
+        if (nom == null || scheme == null) {
+            throw new IllegalArgumentException("La clé et le schème ne peuvent pas être null");
+        }
+
+        long code = AlphabetArabe.coder(nom);
+        int h = hash(code, nom);
+        boolean ajoute = false;
+
+        synchronized (verrous[bande(h)]) {
+            AtomicReferenceArray<Entree> t = table;
+            int index = h & (t.length() - 1);
+            Entree tete = t.get(index);
+
+            Entree entree = tete;
+            while (entree != null) {
+                if (entree.hash == h && entree.cle.equals(nom)) {
+                    verifierNonEnregistre(scheme, entree.valeur);
+                    remplacerIdentifiant(entree.valeur, scheme, idImpose);
+                    entree.valeur = scheme;
+                    version.incrementAndGet();
+                    return;
+                }
+                entree = entree.suivant;
+            }
+
+            verifierNonEnregistre(scheme, null);
+            scheme.setId(attribuerIdentifiant(scheme, idImpose));
+            t.set(index, new Entree(nom, code, h, scheme, tete));
+            version.incrementAndGet();
+            ajoute = true;
+        }
+
+        if (ajoute && (double) taille.incrementAndGet() / table.length() >= FACTEUR_CHARGE_MAX) {
+            redimensionner();
+        }
+    }
+
+    /**
+     * Double la capacité. Les chaînes sont recopiées (jamais modifiées en place)
+     * pour que les lecteurs qui parcourent encore l'ancien tableau restent cohérents.
+     */
+    private void redimensionner() {
+        verrouillerTout(0);
+    }
+
+    /**
+     * Acquiert récursivement les bandes 0..NB_BANDES-1 puis effectue le redimensionnement
+     */
+    private void verrouillerTout(int i) {
+        if (i < NB_BANDES) {
+            synchronized (verrous[i]) {
+                verrouillerTout(i + 1);
+            }
+            return;
+        }
+
+        AtomicReferenceArray<Entree> ancienne = table;
+        if ((double) taille.get() / ancienne.length() < FACTEUR_CHARGE_MAX) {
+            return; // Un autre thread a déjà redimensionné
+        }
+
+        long debut = System.nanoTime();
+        int nouvelleCapacite = ancienne.length() * 2;
+        AtomicReferenceArray<Entree> nouvelle = new AtomicReferenceArray<>(nouvelleCapacite);
+
+        for (int j = 0; j < ancienne.length(); j++) {
+            for (Entree e = ancienne.get(j); e != null; e = e.suivant) {
+                int index = e.hash & (nouvelleCapacite - 1);
+                nouvelle.set(index, new Entree(e.cle, e.code, e.hash, e.valeur, nouvelle.get(index)));
+            }
+        }
+
+        table = nouvelle;
+        statistiques.enregistrerRedimensionnement(System.nanoTime() - debut);
+    }
+
+    @Override
+    public Scheme rechercher(String nom) {
+        if (nom == null) return null;
+
+        long code = AlphabetArabe.coder(nom);
+        if (code != AlphabetArabe.NON_CODABLE) {
+            return rechercher(code);
+        }
+        int h = hash(code, nom);
+        AtomicReferenceArray<Entree> t = table;
+        Entree entree = t.get(h & (t.length() - 1));
+        int sondes = 0;
+
+        while (entree != null) {
+            sondes++;
+            if (entree.hash == h && entree.cle.equals(nom)) {
+                statistiques.enregistrerRecherche(sondes, true);
+                return entree.valeur;
+            }
+            entree = entree.suivant;
+        }
+
+        statistiques.enregistrerRecherche(sondes, false);
+        return null;
+    }
+
+    @Override
+    public Scheme rechercher(long code) {
+        if (code == AlphabetArabe.NON_CODABLE) return null;
+
+        int h = hash(code, null);
+        AtomicReferenceArray<Entree> t = table;
+        Entree entree = t.get(h & (t.length() - 1));
+        int sondes = 0;
+
+        while (entree != null) {
+            sondes++;
+            if (entree.code == code) {
+                statistiques.enregistrerRecherche(sondes, true);
+                return entree.valeur;
+            }
+            entree = entree.suivant;
+        }
+
+        statistiques.enregistrerRecherche(sondes, false);
+        return null;
+    }
+
+    @Override
+    public boolean existe(String nom) {
+        return rechercher(nom) != null;
+    }
+
+    @Override
+    public boolean supprimer(String nom) {
+        if (nom == null) return false;
+
+        long code = AlphabetArabe.coder(nom);
+        int h = hash(code, nom);
+
+        synchronized (verrous[bande(h)]) {
+            AtomicReferenceArray<Entree> t = table;
+            int index = h & (t.length() - 1);
+            Entree tete = t.get(index);
+
+            Entree cible = tete;
+            while (cible != null && !(cible.hash == h && cible.cle.equals(nom))) {
+                cible = cible.suivant;
+            }
+            if (cible == null) {
+                return false;
+            }
+
+            // Recopier les maillons qui précèdent la cible, puis raccrocher la suite
+            Entree nouvelleTete = cible.suivant;
+            List<Entree> precedents = new ArrayList<>();
+            for (Entree e = tete; e != cible; e = e.suivant) {
+                precedents.add(e);
+            }
+            for (int i = precedents.size() - 1; i >= 0; i--) {
+                Entree e = precedents.get(i);
+                nouvelleTete = new Entree(e.cle, e.code, e.hash, e.valeur, nouvelleTete);
+            }
+
+            t.set(index, nouvelleTete);
+            getRegistreIdentifiants().liberer(cible.valeur.getId());
+            taille.decrementAndGet();
+            version.incrementAndGet();
+            return true;
+        }
+    }
+
+    @Override
+    public List<Scheme> getTousLesSchemes() {
+        List<Scheme> schemes = new ArrayList<>();
+        AtomicReferenceArray<Entree> t = table;
+
+        for (int i = 0; i < t.length(); i++) {
+            for (Entree e = t.get(i); e != null; e = e.suivant) {
+                schemes.add(e.valeur);
+            }
+        }
+
+        return schemes;
+    }
+
+    @Override
+    public List<String> getTousLesNoms() {
+        List<String> noms = new ArrayList<>();
+        AtomicReferenceArray<Entree> t = table;
+
+        for (int i = 0; i < t.length(); i++) {
+            for (Entree e = t.get(i); e != null; e = e.suivant) {
+                noms.add(e.cle);
+            }
+        }
+
+        return noms;
+    }
+
+    @Override
+    public void afficher() {
+        System.out.println("\n=== Schèmes morphologiques disponibles ===");
+        int compteur = 1;
+
+        for (Scheme scheme : getTousLesSchemes()) {
+            System.out.println(compteur + ". " + scheme);
+            compteur++;
+        }
+
+        System.out.println("Total: " + taille.get() + " schèmes");
+    }
+
+    @Override
+    public int getTaille() {
+        return taille.get();
+    }
+
+    @Override
+    public boolean estVide() {
+        return taille.get() == 0;
+    }
+
+    @Override
+    public void vider() {
+        for (int b = 0; b < NB_BANDES; b++) {
+            synchronized (verrous[b]) {
+                AtomicReferenceArray<Entree> t = table;
+                for (int i = b; i < t.length(); i += NB_BANDES) {
+                    for (Entree e = t.get(i); e != null; e = e.suivant) {
+                        getRegistreIdentifiants().liberer(e.valeur.getId());
+                        taille.decrementAndGet();
+                    }
+                    t.set(i, null);
+                }
+            }
+        }
+        version.incrementAndGet();
+    }
+
+    @Override
+    public int getVersion() {
+        return version.get();
+    }
+
+    @Override
+    public StatistiquesHachage.Instantane getStatistiques() {
+        AtomicReferenceArray<Entree> t = table;
+        int longueurMax = 0;
+        for (int i = 0; i < t.length(); i++) {
+            int longueur = 0;
+            for (Entree e = t.get(i); e != null; e = e.suivant) {
+                longueur++;
+            }
+            longueurMax = Math.max(longueurMax, longueur);
+        }
+        return statistiques.instantane(taille.get(), t.length(), longueurMax);
+    }
+
+    @Override
+    public void reinitialiserStatistiques() {
+        statistiques.reinitialiser();
+    }
+
+    @Override
+    public void afficherStatistiques() {
+        AtomicReferenceArray<Entree> t = table;
+        int n = taille.get();
+
+        System.out.println("\n=== Statistiques de la table de hachage (concurrente) ===");
+        System.out.println("Capacité: " + t.length());
+        System.out.println("Bandes de verrous: " + NB_BANDES);
+        System.out.println("Nombre d'éléments: " + n);
+        System.out.println("Facteur de charge: " + String.format("%.2f", (double) n / t.length()));
+
+        int chainesNonVides = 0;
+        int longueurMax = 0;
+
+        for (int i = 0; i < t.length(); i++) {
+            int longueur = 0;
+            for (Entree e = t.get(i); e != null; e = e.suivant) {
+                longueur++;
+            }
+            if (longueur > 0) {
+                chainesNonVides++;
+                longueurMax = Math.max(longueurMax, longueur);
+            }
+        }
+
+        System.out.println("Chaînes non vides: " + chainesNonVides);
+        System.out.println("Longueur max de chaîne: " + longueurMax);
+        if (chainesNonVides > 0) {
+            System.out.println("Longueur moyenne: " +
+                    String.format("%.2f", (double) n / chainesNonVides));
+        }
+        System.out.println(getStatistiques());
+    }
+}
@@ -0,0 +1,250 @@
+package structures;
+
+import models.Scheme;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache paresseux des mots générés, indexé par (id racine, id schème).
+ * Le résultat de appliquerScheme pour un couple donné ne change pas tant que
+ * le pattern du schème ne change pas.
+ *
+ * Chaque case mémorise le mot avec l'objet schème et la version de pattern qui l'ont
+ * produit : une case remplie par un autre schème (ancien catalogue encore lu par des
+ * requêtes en cours) ou par un ancien pattern n'est jamais servie. Chaque colonne a en
+ * outre un schème courant (adopterSchemes, ou le premier schème qui la remplit) : seul
+ * lui écrit dans la colonne, et la colonne est vidée quand il change ou change de pattern.
+ *
+ * Les cases sont immuables : deux threads qui calculent la même case en même temps
+ * écrivent des valeurs équivalentes, sans incohérence possible. Une case publie d'un
+ * seul coup le mot et son étiquette (schème, version) ; deux tableaux primitifs séparés
+ * exigeraient un protocole de lecture en deux temps pour ne jamais les voir désaccordés.
+ *
+ * Une ligne est agrandie par copie. Écriture et agrandissement d'une ligne se font sous
+ * le moniteur de cette ligne : l'écrivain vérifie qu'elle est toujours la ligne publiée,
+ * sinon il recommence sur la nouvelle (ou abandonne si la ligne a été vidée). Aucune
+ * écriture ne se perd dans une copie périmée. Les lectures restent sans verrou.
+ */
+public class MatriceGeneration {
+
+    /**
+     * Case du cache : le mot et ce qui l'a produit
+     */
+    private static final class Case {
+        final String mot;
+        final Scheme scheme;
+        final int versionPattern;
+
+        Case(String mot, Scheme scheme, int versionPattern) {
+            this.mot = mot;
+            this.scheme = scheme;
+            this.versionPattern = versionPattern;
+        }
+    }
+
+    private volatile Case[][] lignes;            // lignes[idRacine][idScheme]
+    private volatile Scheme[] schemesColonnes;   // schème courant de chaque colonne (modifié sous le verrou)
+    private volatile int[] versionsColonnes;     // version de pattern correspondante
+    private final LongAdder succes = new LongAdder();
+    private final LongAdder calculs = new LongAdder();
+
+    public MatriceGeneration() {
+        this.lignes = new Case[64][];
+        this.schemesColonnes = new Scheme[16];
+        this.versionsColonnes = new int[16];
+    }
+
+    /**
+     * Retourne le mot généré pour (racine, schème), en le calculant au premier appel
+     * @param idRacine L'id dense de la racine (voir ABR.getIdRacine)
+     * @param racine La racine elle-même (utilisée seulement en cas de calcul)
+     * @param scheme Le schème enregistré (id >= 0)
+     */
+    public String obtenir(int idRacine, String racine, Scheme scheme) {
+        int idScheme = scheme.getId();
+        if (idRacine < 0 || idScheme < 0) {
+            calculs.increment();
+            return scheme.appliquerScheme(racine);
+        }
+
+        // Version lue avant le calcul : un mot calculé pendant un setPattern porte
+        // l'ancienne version et ne sera pas servi aux lecteurs du nouveau pattern
+        int version = scheme.getVersionPattern();
+        Case[] ligne = ligne(idRacine, idScheme);
+        Case c = ligne[idScheme];
+        if (c != null && c.scheme == scheme && c.versionPattern == version) {
+            succes.increment();
+            return c.mot;
+        }
+
+        calculs.increment();
+        String mot = scheme.appliquerScheme(racine);
+        if (estCourant(idScheme, scheme, version)) {
+            ecrire(idRacine, idScheme, ligne, new Case(mot, scheme, version));
+        }
+        return mot;
+    }
+
+    /**
+     * Écrit une case dans la ligne publiée de la racine, en recommençant si la ligne a été
+     * remplacée par une copie agrandie entre-temps
+     */
+    private void ecrire(int idRacine, int idScheme, Case[] ligne, Case c) {
+        while (true) {
+            synchronized (ligne) {
+                if (lignePubliee(idRacine) == ligne) {
+                    ligne[idScheme] = c;
+                    return;
+                }
+            }
+            ligne = lignePubliee(idRacine);
+            if (ligne == null || idScheme >= ligne.length) {
+                return;   // Ligne vidée (racine supprimée, cache vidé) : rien à mémoriser
+            }
+        }
+    }
+
+    private Case[] lignePubliee(int idRacine) {
+        Case[][] courant = lignes;
+        return idRacine < courant.length ? courant[idRacine] : null;
+    }
+
+    /**
+     * Le schème est-il le schème courant de sa colonne, avec ce pattern ? Une colonne sans
+     * schème est attribuée au premier qui la remplit ; un nouveau pattern du schème courant
+     * vide la colonne. Un schème remplacé (ou une version de pattern dépassée) n'écrit pas.
+     */
+    private boolean estCourant(int idScheme, Scheme scheme, int version) {
+        Scheme[] schemes = schemesColonnes;
+        if (idScheme < schemes.length && schemes[idScheme] == scheme && versionsColonnes[idScheme] == version) {
+            return true;
+        }
+        synchronized (this) {
+            agrandirColonnes(idScheme);
+            Scheme courant = schemesColonnes[idScheme];
+            if (courant == null) {
+                schemesColonnes[idScheme] = scheme;
+                versionsColonnes[idScheme] = version;
+                return true;
+            }
+            if (courant != scheme || version < versionsColonnes[idScheme]) {
+                return false;
+            }
+            if (version != versionsColonnes[idScheme]) {
+                invaliderColonne(idScheme);
+                versionsColonnes[idScheme] = version;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Désigne les schèmes courants (catalogue qui vient d'être publié) : la colonne d'un
+     * schème remplacé est vidée, et l'ancien objet n'y écrit plus
+     */
+    public synchronized void adopterSchemes(Iterable<Scheme> schemes) {
+        for (Scheme scheme : schemes) {
+            int idScheme = scheme.getId();
+            if (idScheme < 0) {
+                continue;
+            }
+            agrandirColonnes(idScheme);
+            if (schemesColonnes[idScheme] != scheme || versionsColonnes[idScheme] != scheme.getVersionPattern()) {
+                if (schemesColonnes[idScheme] != null) {
+                    invaliderColonne(idScheme);
+                }
+                schemesColonnes[idScheme] = scheme;
+                versionsColonnes[idScheme] = scheme.getVersionPattern();
+            }
+        }
+    }
+
+    /**
+     * Appelé sous le verrou
+     */
+    private void agrandirColonnes(int idScheme) {
+        if (idScheme >= schemesColonnes.length) {
+            int nouvelleTaille = Math.max(idScheme + 1, schemesColonnes.length * 2);
+            versionsColonnes = Arrays.copyOf(versionsColonnes, nouvelleTaille);
+            schemesColonnes = Arrays.copyOf(schemesColonnes, nouvelleTaille);
+        }
+    }
+
+    /**
+     * Retourne la ligne d'une racine, en l'allouant ou l'agrandissant si nécessaire
+     */
+    private Case[] ligne(int idRacine, int idScheme) {
+        Case[][] courant = lignes;
+        if (idRacine < courant.length) {
+            Case[] ligne = courant[idRacine];
+            if (ligne != null && idScheme < ligne.length) {
+                return ligne;
+            }
+        }
+
+        synchronized (this) {
+            courant = lignes;
+            if (idRacine >= courant.length) {
+                courant = Arrays.copyOf(courant, Math.max(idRacine + 1, courant.length * 2));
+            }
+            Case[] ligne = courant[idRacine];
+            if (ligne == null) {
+                ligne = new Case[Math.max(idScheme + 1, schemesColonnes.length)];
+            } else if (idScheme >= ligne.length) {
+                // Copie et republication sous le moniteur de l'ancienne ligne : un écrivain
+                // qui y écrit encore le fait avant la copie, ou constate la nouvelle ligne
+                synchronized (ligne) {
+                    Case[] agrandie = Arrays.copyOf(ligne, Math.max(idScheme + 1, schemesColonnes.length));
+                    courant[idRacine] = agrandie;
+                    lignes = courant;
+                    return agrandie;
+                }
+            }
+            courant[idRacine] = ligne;
+            lignes = courant;
+            return ligne;
+        }
+    }
+
+    /**
+     * Vide la colonne d'un schème (pattern modifié)
+     */
+    public synchronized void invaliderColonne(int idScheme) {
+        for (Case[] ligne : lignes) {
+            if (ligne != null && idScheme < ligne.length) {
+                ligne[idScheme] = null;
+            }
+        }
+    }
+
+    /**
+     * Vide la ligne d'une racine (racine supprimée)
+     */
+    public synchronized void invaliderLigne(int idRacine) {
+        if (idRacine >= 0 && idRacine < lignes.length) {
+            lignes[idRacine] = null;
+        }
+    }
+
+    /**
+     * Vide entièrement le cache
+     */
+    public synchronized void vider() {
+        lignes = new Case[64][];
+    }
+
+    /**
+     * Nombre de réponses servies depuis le cache
+     */
+    public long getSucces() {
+        return succes.sum();
+    }
+
+    /**
+     * Nombre d'appels effectifs à appliquerScheme
+     */
+    public long getCalculs() {
+        return calculs.sum();
+    }
+}
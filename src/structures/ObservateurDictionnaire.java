@@ -0,0 +1,38 @@
+package structures;
+
+/**
+ * Reçoit chaque modification de l'arbre des racines, après qu'elle a été appliquée.
+ * Sert à la persistance incrémentale (voir utils.Journal).
+ *
+ * Les notifications arrivent sous le verrou de l'arbre et ne doivent pas bloquer ;
+ * modificationTerminee est appelée ensuite, verrou relâché, dans le même thread :
+ * c'est là qu'un observateur peut attendre (ex: écriture sur disque).
+ */
+public interface ObservateurDictionnaire {
+
+    /**
+     * Une racine a été insérée (nouvelle racine, ou fréquence incrémentée si elle existait)
+     */
+    void racineInseree(String racine);
+
+    /**
+     * Un mot dérivé a été ajouté à une racine (ou sa fréquence incrémentée)
+     */
+    void motDeriveAjoute(String racine, String mot, String scheme);
+
+    /**
+     * La fréquence d'une racine a été incrémentée sans insertion
+     */
+    void frequenceIncrementee(String racine);
+
+    /**
+     * Une racine a été supprimée (avec ses dérivés)
+     */
+    void racineSupprimee(String racine);
+
+    /**
+     * La modification notifiée par ce thread est terminée et le verrou de l'arbre relâché
+     */
+    default void modificationTerminee() {
+    }
+}
@@ -0,0 +1,126 @@
+package structures;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Registre d'identifiants entiers denses : 0, 1, 2, ... dans l'ordre d'enregistrement.
+ * Permet de résoudre id → objet en O(1) et de remplacer les références par chaîne
+ * par des tableaux primitifs indexés par id (compteurs, caches, bitsets).
+ *
+ * Un id n'est jamais réutilisé : un objet supprimé laisse une case vide.
+ * L'attribution est synchronisée ; la lecture passe par un tableau volatile sans verrou.
+ * Toute écriture de case (attribution, placement, libération) passe par placerSansVerrou :
+ * écriture en mode release puis republication du tableau, lue en mode acquire.
+ */
+public class RegistreIdentifiants<T> {
+
+    private static final VarHandle CASES = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    private volatile Object[] objets;
+    private volatile int prochainId;
+
+    public RegistreIdentifiants() {
+        this.objets = new Object[16];
+        this.prochainId = 0;
+    }
+
+    /**
+     * Attribue le prochain id libre à un objet
+     * @return L'id attribué
+     */
+    public synchronized int attribuer(T objet) {
+        int id = prochainId++;
+        placerSansVerrou(id, objet);
+        return id;
+    }
+
+    /**
+     * Attribue des ids consécutifs à un lot d'objets, en une seule prise du verrou
+     * (chargements en masse concurrents sur un registre partagé)
+     * @return L'id du premier objet ; le i-ème reçoit premier + i
+     */
+    public synchronized int attribuerTous(List<? extends T> lot) {
+        int premier = prochainId;
+        int fin = premier + lot.size();
+        Object[] courant = objets;
+        if (fin > courant.length) {
+            courant = Arrays.copyOf(courant, Math.max(fin, courant.length * 2));
+        }
+        for (int i = 0; i < lot.size(); i++) {
+            CASES.setRelease(courant, premier + i, lot.get(i));
+        }
+        objets = courant;
+        prochainId = fin;   // Après la publication des cases : un lecteur ne voit jamais d'id vide du lot
+        return premier;
+    }
+
+    /**
+     * Associe explicitement un id à un objet (restauration, remplacement)
+     */
+    public synchronized void placer(int id, T objet) {
+        if (id < 0) {
+            throw new IllegalArgumentException("L'id doit être positif");
+        }
+        placerSansVerrou(id, objet);
+        prochainId = Math.max(prochainId, id + 1);
+    }
+
+    /**
+     * Réserve un id précis pour un objet (restauration d'un instantané) : contrairement à
+     * attribuer, aucun autre id n'est consommé ; contrairement à placer, une case déjà
+     * occupée par un autre objet n'est pas écrasée
+     * @return L'id réservé
+     * @throws IllegalStateException si l'id est déjà attribué à un autre objet
+     */
+    public synchronized int reserver(int id, T objet) {
+        if (id < 0) {
+            throw new IllegalArgumentException("L'id doit être positif");
+        }
+        Object occupant = obtenir(id);
+        if (occupant != null && occupant != objet) {
+            throw new IllegalStateException("L'id " + id + " est déjà attribué");
+        }
+        placerSansVerrou(id, objet);
+        prochainId = Math.max(prochainId, id + 1);
+        return id;
+    }
+
+    private void placerSansVerrou(int id, T objet) {
+        Object[] courant = objets;
+        if (id >= courant.length) {
+            courant = Arrays.copyOf(courant, Math.max(id + 1, courant.length * 2));
+        }
+        CASES.setRelease(courant, id, objet);
+        objets = courant;   // Écriture volatile : publie la case (et un tableau agrandi) aux lecteurs
+    }
+
+    /**
+     * Libère un id (la case devient vide, l'id n'est pas réutilisé)
+     */
+    public synchronized void liberer(int id) {
+        if (id >= 0 && id < prochainId) {
+            placerSansVerrou(id, null);
+        }
+    }
+
+    /**
+     * Résout un id en objet
+     * Complexité: O(1)
+     * @return L'objet, ou null si l'id est inconnu ou libéré
+     */
+    @SuppressWarnings("unchecked")
+    public T obtenir(int id) {
+        Object[] courant = objets;
+        return (id >= 0 && id < courant.length) ? (T) CASES.getAcquire(courant, id) : null;
+    }
+
+    /**
+     * Borne supérieure (exclue) des ids attribués : taille à donner aux tableaux annexes
+     */
+    public int getNombreIds() {
+        return prochainId;
+    }
+}
@@ -0,0 +1,200 @@
+package structures;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compteurs de santé d'une table de hachage, toujours actifs.
+ * Les compteurs sont des LongAdder : une recherche ne coûte que quelques additions
+ * sans contention, même quand la table est partagée entre threads.
+ * La lecture se fait par instantane(), qui retourne un objet immuable interrogeable.
+ */
+public class StatistiquesHachage {
+
+    /** Nombre de classes de l'histogramme : 0, 1, ..., 8 sondes, puis "9 et plus" */
+    public static final int NB_CLASSES = 10;
+
+    private final LongAdder recherches = new LongAdder();
+    private final LongAdder succes = new LongAdder();
+    private final LongAdder sondesTotales = new LongAdder();
+    private final LongAdder[] histogrammeSondes = new LongAdder[NB_CLASSES];
+    private final LongAdder redimensionnements = new LongAdder();
+    private final LongAdder dureeRedimensionnementNs = new LongAdder();
+    private final LongAccumulator dureeRedimensionnementMaxNs = new LongAccumulator(Math::max, 0);
+
+    public StatistiquesHachage() {
+        for (int i = 0; i < NB_CLASSES; i++) {
+            histogrammeSondes[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Enregistre une recherche
+     * @param sondes Nombre d'entrées comparées dans la chaîne
+     * @param trouve true si la clé a été trouvée
+     */
+    public void enregistrerRecherche(int sondes, boolean trouve) {
+        recherches.increment();
+        if (trouve) {
+            succes.increment();
+        }
+        sondesTotales.add(sondes);
+        histogrammeSondes[Math.min(sondes, NB_CLASSES - 1)].increment();
+    }
+
+    /**
+     * Enregistre un redimensionnement et sa durée
+     */
+    public void enregistrerRedimensionnement(long dureeNs) {
+        redimensionnements.increment();
+        dureeRedimensionnementNs.add(dureeNs);
+        dureeRedimensionnementMaxNs.accumulate(dureeNs);
+    }
+
+    /**
+     * Remet tous les compteurs à zéro
+     */
+    public void reinitialiser() {
+        recherches.reset();
+        succes.reset();
+        sondesTotales.reset();
+        for (LongAdder classe : histogrammeSondes) {
+            classe.reset();
+        }
+        redimensionnements.reset();
+        dureeRedimensionnementNs.reset();
+        dureeRedimensionnementMaxNs.reset();
+    }
+
+    /**
+     * Capture l'état courant des compteurs
+     * @param taille Nombre d'éléments de la table
+     * @param capacite Nombre d'alvéoles
+     * @param longueurChaineMax Plus longue chaîne actuelle
+     */
+    public Instantane instantane(int taille, int capacite, int longueurChaineMax) {
+        long[] histogramme = new long[NB_CLASSES];
+        for (int i = 0; i < NB_CLASSES; i++) {
+            histogramme[i] = histogrammeSondes[i].sum();
+        }
+        return new Instantane(recherches.sum(), succes.sum(), sondesTotales.sum(), histogramme,
+                redimensionnements.sum(), dureeRedimensionnementNs.sum(), dureeRedimensionnementMaxNs.get(),
+                taille, capacite, longueurChaineMax);
+    }
+
+    /**
+     * Vue immuable des statistiques à un instant donné
+     */
+    public static class Instantane {
+        private final long recherches;
+        private final long succes;
+        private final long sondesTotales;
+        private final long[] histogrammeSondes;
+        private final long redimensionnements;
+        private final long dureeRedimensionnementNs;
+        private final long dureeRedimensionnementMaxNs;
+        private final int taille;
+        private final int capacite;
+        private final int longueurChaineMax;
+
+        private Instantane(long recherches, long succes, long sondesTotales, long[] histogrammeSondes,
+                           long redimensionnements, long dureeRedimensionnementNs, long dureeRedimensionnementMaxNs,
+                           int taille, int capacite, int longueurChaineMax) {
+            this.recherches = recherches;
+            this.succes = succes;
+            this.sondesTotales = sondesTotales;
+            this.histogrammeSondes = histogrammeSondes;
+            this.redimensionnements = redimensionnements;
+            this.dureeRedimensionnementNs = dureeRedimensionnementNs;
+            this.dureeRedimensionnementMaxNs = dureeRedimensionnementMaxNs;
+            this.taille = taille;
+            this.capacite = capacite;
+            this.longueurChaineMax = longueurChaineMax;
+        }
+
+        public long getRecherches() {
+            return recherches;
+        }
+
+        public long getSucces() {
+            return succes;
+        }
+
+        public long getEchecs() {
+            return recherches - succes;
+        }
+
+        /**
+         * Nombre de recherches ayant comparé exactement i entrées (la dernière classe cumule le reste)
+         */
+        public long[] getHistogrammeSondes() {
+            return histogrammeSondes.clone();
+        }
+
+        public double getSondesMoyennes() {
+            return recherches == 0 ? 0.0 : (double) sondesTotales / recherches;
+        }
+
+        /**
+         * Plus petit nombre de sondes couvrant la fraction p des recherches (ex: 0.99)
+         */
+        public int getPercentileSondes(double p) {
+            long seuil = (long) Math.ceil(p * recherches);
+            long cumul = 0;
+            for (int i = 0; i < histogrammeSondes.length; i++) {
+                cumul += histogrammeSondes[i];
+                if (cumul >= seuil) {
+                    return i;
+                }
+            }
+            return histogrammeSondes.length - 1;
+        }
+
+        public long getRedimensionnements() {
+            return redimensionnements;
+        }
+
+        public double getDureeRedimensionnementTotaleMs() {
+            return dureeRedimensionnementNs / 1_000_000.0;
+        }
+
+        public double getDureeRedimensionnementMaxMs() {
+            return dureeRedimensionnementMaxNs / 1_000_000.0;
+        }
+
+        public int getTaille() {
+            return taille;
+        }
+
+        public int getCapacite() {
+            return capacite;
+        }
+
+        public double getFacteurCharge() {
+            return capacite == 0 ? 0.0 : (double) taille / capacite;
+        }
+
+        public int getLongueurChaineMax() {
+            return longueurChaineMax;
+        }
+
+        /**
+         * Signale un hachage dégénéré : en moyenne, une recherche compare plus de
+         * "facteur" fois les entrées qu'attendu pour le facteur de charge actuel.
+         */
+        public boolean estDegenere(double facteur) {
+            double attendu = 1.0 + getFacteurCharge() / 2.0;
+            return recherches > 0 && getSondesMoyennes() > facteur * attendu;
+        }
+
+        @Override
+        public String toString() {
+            return "Recherches: " + recherches + " (succès " + succes + ", échecs " + getEchecs() + ")" +
+                    " | Sondes moy.: " + String.format("%.2f", getSondesMoyennes()) +
+                    " | p99: " + getPercentileSondes(0.99) +
+                    " | Redimensionnements: " + redimensionnements +
+                    " (" + String.format("%.3f", getDureeRedimensionnementTotaleMs()) + " ms)" +
+                    " | Charge: " + String.format("%.2f", getFacteurCharge());
+        }
+    }
+}
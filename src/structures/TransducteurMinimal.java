@@ -0,0 +1,375 @@
+package structures;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Transducteur acyclique minimal : mot de surface → (id racine, id schème).
+ *
+ * Construction : algorithme incrémental de Daciuk et al. sur les mots triés, qui
+ * fusionne au fur et à mesure les suffixes identiques (automate minimal).
+ * Chaque état connaît le nombre de mots acceptés sous lui, ce qui donne le rang
+ * d'un mot dans l'ordre trié pendant le parcours ; ce rang indexe un tableau dense
+ * des sorties (un mot peut avoir plusieurs analyses).
+ *
+ * Recherche : O(longueur du mot), sans arbre ni table de hachage.
+ * Stockage : tableaux primitifs uniquement (sérialisables tels quels).
+ */
+public class TransducteurMinimal {
+
+    private static final int MAGIC = 0x41465354;   // "AFST"
+    private static final int VERSION_FORMAT = 1;
+
+    // États aplatis : les transitions de l'état e sont [debutTransitions[e], debutTransitions[e+1][
+    private final int[] debutTransitions;
+    private final char[] etiquettes;       // triées par état
+    private final int[] cibles;
+    private final boolean[] finals;
+    private final int[] nbMots;            // mots acceptés depuis chaque état
+
+    // Sorties : les analyses du mot de rang r sont valeurs[debutValeurs[r] .. debutValeurs[r+1][
+    private final int[] debutValeurs;
+    private final long[] valeurs;          // (idRacine << 32) | idScheme
+
+    private TransducteurMinimal(int[] debutTransitions, char[] etiquettes, int[] cibles, boolean[] finals,
+                                int[] nbMots, int[] debutValeurs, long[] valeurs) {
+        this.debutTransitions = debutTransitions;
+        this.etiquettes = etiquettes;
+        this.cibles = cibles;
+        this.finals = finals;
+        this.nbMots = nbMots;
+        this.debutValeurs = debutValeurs;
+        this.valeurs = valeurs;
+    }
+
+    /**
+     * Entrée de construction : un mot et une analyse
+     */
+    public static class Entree {
+        final String mot;
+        final long valeur;
+
+        public Entree(String mot, int idRacine, int idScheme) {
+            this.mot = mot;
+            this.valeur = emballer(idRacine, idScheme);
+        }
+    }
+
+    /**
+     * État mutable utilisé pendant la construction
+     */
+    private static class EtatConstruction {
+        final List<Character> etiquettes = new ArrayList<>(2);
+        final List<EtatConstruction> enfants = new ArrayList<>(2);
+        boolean estFinal;
+        int numero = -1;                   // attribué à l'enregistrement (état figé)
+
+        EtatConstruction dernierEnfant() {
+            return enfants.isEmpty() ? null : enfants.get(enfants.size() - 1);
+        }
+
+        String signature() {
+            StringBuilder sb = new StringBuilder(1 + etiquettes.size() * 3);
+            sb.append(estFinal ? '1' : '0');
+            for (int i = 0; i < etiquettes.size(); i++) {
+                int n = enfants.get(i).numero;
+                sb.append(etiquettes.get(i)).append((char) (n >>> 16)).append((char) n);
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Construit le transducteur à partir d'une liste d'entrées (dans n'importe quel ordre)
+     */
+    public static TransducteurMinimal construire(List<Entree> entrees) {
+        List<Entree> triees = new ArrayList<>(entrees);
+        triees.sort(Comparator.comparing((Entree e) -> e.mot).thenComparingLong(e -> e.valeur));
+
+        // Regrouper les analyses par mot distinct
+        List<String> mots = new ArrayList<>();
+        int[] debutValeurs = new int[triees.size() + 1];
+        long[] valeurs = new long[triees.size()];
+        int nbValeurs = 0;
+        for (Entree e : triees) {
+            if (mots.isEmpty() || !mots.get(mots.size() - 1).equals(e.mot)) {
+                debutValeurs[mots.size()] = nbValeurs;
+                mots.add(e.mot);
+                valeurs[nbValeurs++] = e.valeur;
+            } else if (valeurs[nbValeurs - 1] != e.valeur) {
+                valeurs[nbValeurs++] = e.valeur;
+            }
+        }
+        debutValeurs[mots.size()] = nbValeurs;
+
+        // Construction incrémentale de l'automate minimal
+        EtatConstruction racine = new EtatConstruction();
+        Map<String, EtatConstruction> registre = new HashMap<>();
+        int[] compteurEtats = {0};
+
+        for (String mot : mots) {
+            EtatConstruction etat = racine;
+            int i = 0;
+            while (i < mot.length()) {
+                EtatConstruction dernier = etat.dernierEnfant();
+                if (dernier == null || etat.etiquettes.get(etat.etiquettes.size() - 1) != mot.charAt(i)) {
+                    break;
+                }
+                etat = dernier;
+                i++;
+            }
+
+            if (etat.dernierEnfant() != null) {
+                remplacerOuEnregistrer(etat, registre, compteurEtats);
+            }
+
+            for (; i < mot.length(); i++) {
+                EtatConstruction suivant = new EtatConstruction();
+                etat.etiquettes.add(mot.charAt(i));
+                etat.enfants.add(suivant);
+                etat = suivant;
+            }
+            etat.estFinal = true;
+        }
+        if (racine.dernierEnfant() != null) {
+            remplacerOuEnregistrer(racine, registre, compteurEtats);
+        }
+        racine.numero = compteurEtats[0]++;
+
+        return aplatir(racine, compteurEtats[0], Arrays.copyOf(debutValeurs, mots.size() + 1),
+                Arrays.copyOf(valeurs, nbValeurs));
+    }
+
+    private static void remplacerOuEnregistrer(EtatConstruction etat, Map<String, EtatConstruction> registre,
+                                               int[] compteurEtats) {
+        EtatConstruction enfant = etat.dernierEnfant();
+        if (enfant.dernierEnfant() != null && enfant.numero < 0) {
+            remplacerOuEnregistrer(enfant, registre, compteurEtats);
+        }
+        if (enfant.numero >= 0) {
+            return; // Déjà figé
+        }
+
+        String signature = enfant.signature();
+        EtatConstruction equivalent = registre.get(signature);
+        if (equivalent != null) {
+            etat.enfants.set(etat.enfants.size() - 1, equivalent);
+        } else {
+            enfant.numero = compteurEtats[0]++;
+            registre.put(signature, enfant);
+        }
+    }
+
+    /**
+     * Convertit les états de construction en tableaux compacts
+     */
+    private static TransducteurMinimal aplatir(EtatConstruction racine, int nbEtats,
+                                               int[] debutValeurs, long[] valeurs) {
+        EtatConstruction[] parNumero = new EtatConstruction[nbEtats];
+        List<EtatConstruction> pile = new ArrayList<>();
+        pile.add(racine);
+        int nbTransitions = 0;
+        while (!pile.isEmpty()) {
+            EtatConstruction e = pile.remove(pile.size() - 1);
+            if (parNumero[e.numero] != null) {
+                continue;
+            }
+            parNumero[e.numero] = e;
+            nbTransitions += e.enfants.size();
+            pile.addAll(e.enfants);
+        }
+
+        int[] debutTransitions = new int[nbEtats + 1];
+        char[] etiquettes = new char[nbTransitions];
+        int[] cibles = new int[nbTransitions];
+        boolean[] finals = new boolean[nbEtats];
+        int t = 0;
+        for (int n = 0; n < nbEtats; n++) {
+            EtatConstruction e = parNumero[n];
+            debutTransitions[n] = t;
+            finals[n] = e.estFinal;
+            for (int i = 0; i < e.enfants.size(); i++) {
+                etiquettes[t] = e.etiquettes.get(i);
+                cibles[t] = e.enfants.get(i).numero;
+                t++;
+            }
+        }
+        debutTransitions[nbEtats] = t;
+
+        // Les enfants sont toujours numérotés avant leurs parents : un seul passage croissant suffit
+        int[] nbMots = new int[nbEtats];
+        for (int n = 0; n < nbEtats; n++) {
+            int total = finals[n] ? 1 : 0;
+            for (int i = debutTransitions[n]; i < debutTransitions[n + 1]; i++) {
+                total += nbMots[cibles[i]];
+            }
+            nbMots[n] = total;
+        }
+
+        return new TransducteurMinimal(debutTransitions, etiquettes, cibles, finals, nbMots, debutValeurs, valeurs);
+    }
+
+    /**
+     * Retourne le rang du mot dans l'ordre trié des mots acceptés
+     * Complexité: O(longueur du mot × log(alphabet))
+     * @return Le rang, ou -1 si le mot n'est pas reconnu
+     */
+    public int rang(String mot) {
+        if (mot == null || finals.length == 0) return -1;
+
+        int etat = finals.length - 1;   // L'état initial est numéroté en dernier
+        int rang = 0;
+
+        for (int i = 0; i < mot.length(); i++) {
+            if (finals[etat]) {
+                rang++;  // Le mot qui s'arrête ici précède les mots plus longs
+            }
+
+            int debut = debutTransitions[etat];
+            int fin = debutTransitions[etat + 1];
+            int pos = Arrays.binarySearch(etiquettes, debut, fin, mot.charAt(i));
+            if (pos < 0) {
+                return -1;
+            }
+            for (int k = debut; k < pos; k++) {
+                rang += nbMots[cibles[k]];
+            }
+            etat = cibles[pos];
+        }
+
+        return finals[etat] ? rang : -1;
+    }
+
+    /**
+     * Retourne les analyses d'un mot, emballées (voir idRacine / idScheme)
+     * @return Tableau vide si le mot n'est pas reconnu
+     */
+    public long[] rechercher(String mot) {
+        int r = rang(mot);
+        if (r < 0) {
+            return new long[0];
+        }
+        return Arrays.copyOfRange(valeurs, debutValeurs[r], debutValeurs[r + 1]);
+    }
+
+    public static long emballer(int idRacine, int idScheme) {
+        return ((long) idRacine << 32) | (idScheme & 0xFFFFFFFFL);
+    }
+
+    public static int idRacine(long valeur) {
+        return (int) (valeur >>> 32);
+    }
+
+    public static int idScheme(long valeur) {
+        return (int) valeur;
+    }
+
+    public int getNbEtats() {
+        return finals.length;
+    }
+
+    public int getNbTransitions() {
+        return cibles.length;
+    }
+
+    public int getNbMots() {
+        return debutValeurs.length - 1;
+    }
+
+    /**
+     * Taille approximative des tableaux en mémoire (octets)
+     */
+    public long getTailleOctets() {
+        return 4L * debutTransitions.length + 2L * etiquettes.length + 4L * cibles.length
+                + finals.length + 4L * nbMots.length + 4L * debutValeurs.length + 8L * valeurs.length;
+    }
+
+    /**
+     * Sauvegarde le transducteur dans un fichier binaire
+     */
+    public void sauvegarder(Path fichier) throws IOException {
+        int taille = 4 * 7 + (int) getTailleOctets();
+        ByteBuffer tampon = ByteBuffer.allocate(taille).order(ByteOrder.LITTLE_ENDIAN);
+
+        tampon.putInt(MAGIC).putInt(VERSION_FORMAT);
+        tampon.putInt(finals.length).putInt(cibles.length).putInt(debutValeurs.length).putInt(valeurs.length);
+        tampon.putInt(0); // réservé
+        tampon.asIntBuffer().put(debutTransitions);
+        tampon.position(tampon.position() + 4 * debutTransitions.length);
+        tampon.asCharBuffer().put(etiquettes);
+        tampon.position(tampon.position() + 2 * etiquettes.length);
+        tampon.asIntBuffer().put(cibles);
+        tampon.position(tampon.position() + 4 * cibles.length);
+        for (boolean f : finals) {
+            tampon.put((byte) (f ? 1 : 0));
+        }
+        tampon.asIntBuffer().put(nbMots);
+        tampon.position(tampon.position() + 4 * nbMots.length);
+        tampon.asIntBuffer().put(debutValeurs);
+        tampon.position(tampon.position() + 4 * debutValeurs.length);
+        tampon.asLongBuffer().put(valeurs);
+        tampon.position(tampon.position() + 8 * valeurs.length);
+        tampon.flip();
+
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (tampon.hasRemaining()) {
+                canal.write(tampon);
+            }
+        }
+    }
+
+    /**
+     * Charge un transducteur sauvegardé (lecture par projection mémoire et copies en bloc)
+     */
+    public static TransducteurMinimal charger(Path fichier) throws IOException {
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            MappedByteBuffer projection = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            ByteBuffer tampon = projection.order(ByteOrder.LITTLE_ENDIAN);
+
+            if (tampon.getInt() != MAGIC || tampon.getInt() != VERSION_FORMAT) {
+                throw new IOException("Format de transducteur non reconnu: " + fichier);
+            }
+            int nbEtats = tampon.getInt();
+            int nbTransitions = tampon.getInt();
+            int nbDebutsValeurs = tampon.getInt();
+            int nbValeurs = tampon.getInt();
+            tampon.getInt();
+
+            int[] debutTransitions = new int[nbEtats + 1];
+            tampon.asIntBuffer().get(debutTransitions);
+            tampon.position(tampon.position() + 4 * debutTransitions.length);
+            char[] etiquettes = new char[nbTransitions];
+            tampon.asCharBuffer().get(etiquettes);
+            tampon.position(tampon.position() + 2 * nbTransitions);
+            int[] cibles = new int[nbTransitions];
+            tampon.asIntBuffer().get(cibles);
+            tampon.position(tampon.position() + 4 * nbTransitions);
+            boolean[] finals = new boolean[nbEtats];
+            for (int i = 0; i < nbEtats; i++) {
+                finals[i] = tampon.get() != 0;
+            }
+            int[] nbMots = new int[nbEtats];
+            tampon.asIntBuffer().get(nbMots);
+            tampon.position(tampon.position() + 4 * nbEtats);
+            int[] debutValeurs = new int[nbDebutsValeurs];
+            tampon.asIntBuffer().get(debutValeurs);
+            tampon.position(tampon.position() + 4 * nbDebutsValeurs);
+            long[] valeurs = new long[nbValeurs];
+            tampon.asLongBuffer().get(valeurs);
+
+            return new TransducteurMinimal(debutTransitions, etiquettes, cibles, finals, nbMots, debutValeurs, valeurs);
+        }
+    }
+}
@@ -2,13 +2,26 @@ package utils;
 
 import structures.ABR;
 import structures.HashTable;
+import models.Normaliseur;
 import models.Scheme;
 import models.Scheme.TypeScheme;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Utilitaire pour charger les racines et initialiser les schèmes
@@ -33,7 +46,7 @@ public class ChargeurDonnees {
 
             while ((ligne = br.readLine()) != null) {
                 numeroLigne++;
-                ligne = ligne.trim();
+                ligne = Normaliseur.getDefaut().normaliser(ligne.trim());
 
                 // Ignorer les lignes vides et les commentaires
                 if (ligne.isEmpty() || ligne.startsWith("#")) {
@@ -68,6 +81,355 @@ public class ChargeurDonnees {
         return compteur;
     }
 
+    /**
+     * Lit l'ensemble trié des racines valides d'un fichier (mêmes règles que
+     * chargerRacinesDepuisFichier, doublons fusionnés). Utilisé par le rechargement à chaud.
+     */
+    public static TreeSet<String> lireRacinesTriees(String nomFichier) throws IOException {
+        TreeSet<String> racines = new TreeSet<>();
+        try (BufferedReader br = new BufferedReader(
+                new InputStreamReader(new FileInputStream(nomFichier), StandardCharsets.UTF_8))) {
+            String ligne;
+            while ((ligne = br.readLine()) != null) {
+                ligne = Normaliseur.getDefaut().normaliser(ligne.trim());
+                if (!ligne.isEmpty() && !ligne.startsWith("#") && ligne.length() == 3) {
+                    racines.add(ligne);
+                }
+            }
+        }
+        return racines;
+    }
+
+    /** Taille visée d'un morceau de fichier traité par un thread */
+    private static final long TAILLE_MORCEAU = 16L * 1024 * 1024;
+
+    /** Longueur maximale (en octets) d'une ligne candidate : racine + tashkeel */
+    private static final int TAILLE_LIGNE_MAX = 32;
+
+    /**
+     * Charge les racines par projection mémoire (NIO), pour les gros fichiers.
+     * Le fichier est découpé en morceaux alignés sur les fins de ligne ; chaque morceau
+     * est décodé (UTF-8) et validé par un thread, qui compte ses racines valides ;
+     * les comptes fusionnés alimentent une construction en masse de l'arbre (ABR.insererEnMasse).
+     * Les lignes invalides ne sont pas formatées : seules leurs positions sont gardées.
+     * @param nomFichier Le chemin du fichier
+     * @param arbre L'arbre AVL où stocker les racines
+     * @param nbThreads Nombre de threads (<= 0 : nombre de cœurs)
+     * @return Le rapport de chargement
+     */
+    public static RapportChargement chargerRacinesProjetees(String nomFichier, ABR arbre, int nbThreads)
+            throws IOException {
+        if (nbThreads <= 0) {
+            nbThreads = Runtime.getRuntime().availableProcessors();
+        }
+        long debut = System.nanoTime();
+
+        try (FileChannel canal = FileChannel.open(Paths.get(nomFichier), StandardOpenOption.READ)) {
+            long[] bornes = decouperEnMorceaux(canal, Math.max(nbThreads * 4L, canal.size() / TAILLE_MORCEAU + 1));
+
+            ExecutorService executeur = Executors.newFixedThreadPool(nbThreads);
+            List<Future<Morceau>> taches = new ArrayList<>();
+            try {
+                for (int i = 0; i + 1 < bornes.length; i++) {
+                    MappedByteBuffer projection = canal.map(FileChannel.MapMode.READ_ONLY,
+                            bornes[i], bornes[i + 1] - bornes[i]);
+                    final long origine = bornes[i];
+                    taches.add(executeur.submit(() -> analyserMorceau(projection, origine)));
+                }
+
+                // Assembler dans l'ordre du fichier pour des numéros de ligne globaux
+                Map<String, int[]> racines = new HashMap<>();
+                int nbValides = 0;
+                int nbLignes = 0;
+                int nbInvalides = 0;
+                long[] positions = new long[16];
+                int[] lignes = new int[16];
+                for (Future<Morceau> tache : taches) {
+                    Morceau m = tache.get();
+                    for (Map.Entry<String, int[]> e : m.racines.entrySet()) {
+                        racines.computeIfAbsent(e.getKey(), k -> new int[1])[0] += e.getValue()[0];
+                    }
+                    nbValides += m.nbValides;
+                    if (nbInvalides + m.nbInvalides > positions.length) {
+                        int capacite = Math.max(positions.length * 2, nbInvalides + m.nbInvalides);
+                        positions = Arrays.copyOf(positions, capacite);
+                        lignes = Arrays.copyOf(lignes, capacite);
+                    }
+                    for (int k = 0; k < m.nbInvalides; k++) {
+                        positions[nbInvalides] = m.positions[k];
+                        lignes[nbInvalides] = nbLignes + m.lignes[k];
+                        nbInvalides++;
+                    }
+                    nbLignes += m.nbLignes;
+                }
+
+                arbre.insererEnMasse(racines);
+
+                return new RapportChargement(nomFichier, nbLignes, nbValides, System.nanoTime() - debut,
+                        Arrays.copyOf(positions, nbInvalides), Arrays.copyOf(lignes, nbInvalides));
+            } catch (Exception e) {
+                throw new IOException("Échec du chargement parallèle de " + nomFichier, e);
+            } finally {
+                executeur.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Calcule les bornes des morceaux : chaque borne intérieure est placée juste après un '\n'
+     */
+    private static long[] decouperEnMorceaux(FileChannel canal, long nbMorceaux) throws IOException {
+        long taille = canal.size();
+        long pas = Math.max(1, taille / nbMorceaux);
+        List<Long> bornes = new ArrayList<>();
+        bornes.add(0L);
+        ByteBuffer tampon = ByteBuffer.allocate(4096);
+
+        long position = pas;
+        while (position < taille) {
+            // Avancer jusqu'au prochain saut de ligne
+            long borne = -1;
+            long lecture = position;
+            while (borne < 0 && lecture < taille) {
+                tampon.clear();
+                int lus = canal.read(tampon, lecture);
+                if (lus <= 0) break;
+                for (int i = 0; i < lus; i++) {
+                    if (tampon.get(i) == '\n') {
+                        borne = lecture + i + 1;
+                        break;
+                    }
+                }
+                lecture += lus;
+            }
+            if (borne < 0 || borne >= taille) {
+                break;
+            }
+            bornes.add(borne);
+            position = borne + pas;
+        }
+
+        bornes.add(taille);
+        long[] resultat = new long[bornes.size()];
+        for (int i = 0; i < resultat.length; i++) {
+            resultat[i] = bornes.get(i);
+        }
+        return resultat;
+    }
+
+    /**
+     * Résultat partiel d'un morceau de fichier
+     */
+    private static class Morceau {
+        Map<String, int[]> racines = new HashMap<>();   // racine → nombre d'occurrences
+        int nbValides;
+        int nbLignes;
+        int nbInvalides;
+        long[] positions = new long[8];   // position (octet) des lignes invalides
+        int[] lignes = new int[8];        // numéro de ligne local (à partir de 1)
+    }
+
+    /**
+     * Découpe un morceau en lignes, décode et valide chacune (trilitère, hors commentaires)
+     */
+    private static Morceau analyserMorceau(MappedByteBuffer projection, long origine) {
+        Morceau m = new Morceau();
+        Normaliseur normaliseur = Normaliseur.getDefaut();
+        char[] caracteres = new char[TAILLE_LIGNE_MAX];
+        int limite = projection.limit();
+        int debutLigne = 0;
+
+        while (debutLigne < limite) {
+            int finLigne = debutLigne;
+            while (finLigne < limite && projection.get(finLigne) != '\n') {
+                finLigne++;
+            }
+            m.nbLignes++;
+
+            // Équivalent de trim() sur les octets (les octets UTF-8 multi-octets sont >= 0x80)
+            int a = debutLigne;
+            int b = finLigne;
+            while (a < b && (projection.get(a) & 0xFF) <= ' ') a++;
+            while (b > a && (projection.get(b - 1) & 0xFF) <= ' ') b--;
+
+            if (a < b && projection.get(a) != '#') {
+                boolean valide = false;
+                // Une racine trilitère arabe fait 6 octets, un peu plus avec tashkeel :
+                // au-delà de TAILLE_LIGNE_MAX octets la ligne est invalide sans la décoder
+                if (b - a <= TAILLE_LIGNE_MAX) {
+                    int n = normaliserSurPlace(normaliseur, caracteres, decoderUtf8(projection, a, b, caracteres));
+                    if (n == 3) {
+                        m.racines.computeIfAbsent(new String(caracteres, 0, 3), k -> new int[1])[0]++;
+                        m.nbValides++;
+                        valide = true;
+                    }
+                }
+                if (!valide) {
+                    if (m.nbInvalides == m.positions.length) {
+                        m.positions = Arrays.copyOf(m.positions, m.nbInvalides * 2);
+                        m.lignes = Arrays.copyOf(m.lignes, m.nbInvalides * 2);
+                    }
+                    m.positions[m.nbInvalides] = origine + a;
+                    m.lignes[m.nbInvalides] = m.nbLignes;
+                    m.nbInvalides++;
+                }
+            }
+
+            debutLigne = finLigne + 1;
+        }
+
+        return m;
+    }
+
+    /**
+     * Normalise les n premiers caractères du tampon sur place
+     * @return La nouvelle longueur (les caractères supprimés sont retirés)
+     */
+    private static int normaliserSurPlace(Normaliseur normaliseur, char[] caracteres, int n) {
+        int longueur = 0;
+        for (int i = 0; i < n; i++) {
+            char c = normaliseur.normaliser(caracteres[i]);
+            if (c != '\uFFFF') {
+                caracteres[longueur++] = c;
+            }
+        }
+        return longueur;
+    }
+
+    /**
+     * Décode en UTF-8 les octets [a, b[ dans un tampon de caractères réutilisé
+     * @return Le nombre de caractères UTF-16 décodés, ou -1 si la séquence est invalide
+     */
+    private static int decoderUtf8(ByteBuffer octets, int a, int b, char[] sortie) {
+        int n = 0;
+        int i = a;
+        while (i < b) {
+            int o = octets.get(i) & 0xFF;
+            int point;
+            int longueur;
+            if (o < 0x80) {
+                point = o;
+                longueur = 1;
+            } else if ((o & 0xE0) == 0xC0) {
+                point = o & 0x1F;
+                longueur = 2;
+            } else if ((o & 0xF0) == 0xE0) {
+                point = o & 0x0F;
+                longueur = 3;
+            } else if ((o & 0xF8) == 0xF0) {
+                point = o & 0x07;
+                longueur = 4;
+            } else {
+                return -1;
+            }
+            if (i + longueur > b) {
+                return -1;
+            }
+            for (int k = 1; k < longueur; k++) {
+                int suite = octets.get(i + k) & 0xFF;
+                if ((suite & 0xC0) != 0x80) {
+                    return -1;
+                }
+                point = (point << 6) | (suite & 0x3F);
+            }
+            i += longueur;
+
+            if (n + 2 > sortie.length) {
+                return -1;
+            }
+            n += Character.toChars(point, sortie, n);
+        }
+        return n;
+    }
+
+    /**
+     * Rapport d'un chargement par projection mémoire
+     */
+    public static class RapportChargement {
+        private final String nomFichier;
+        private final int nbLignes;
+        private final int nbRacines;
+        private final long dureeNs;
+        private final long[] positionsInvalides;
+        private final int[] lignesInvalides;
+
+        public RapportChargement(String nomFichier, int nbLignes, int nbRacines, long dureeNs,
+                                 long[] positionsInvalides, int[] lignesInvalides) {
+            this.nomFichier = nomFichier;
+            this.nbLignes = nbLignes;
+            this.nbRacines = nbRacines;
+            this.dureeNs = dureeNs;
+            this.positionsInvalides = positionsInvalides;
+            this.lignesInvalides = lignesInvalides;
+        }
+
+        public int getNbLignes() {
+            return nbLignes;
+        }
+
+        public int getNbRacines() {
+            return nbRacines;
+        }
+
+        public int getNbInvalides() {
+            return lignesInvalides.length;
+        }
+
+        public double getDureeMs() {
+            return dureeNs / 1_000_000.0;
+        }
+
+        public double getLignesParSeconde() {
+            return dureeNs == 0 ? 0.0 : nbLignes / (dureeNs / 1_000_000_000.0);
+        }
+
+        /**
+         * Numéros des lignes invalides (à partir de 1)
+         */
+        public int[] getLignesInvalides() {
+            return lignesInvalides.clone();
+        }
+
+        /**
+         * Positions (octets) du début des lignes invalides
+         */
+        public long[] getPositionsInvalides() {
+            return positionsInvalides.clone();
+        }
+
+        /**
+         * Formate à la demande les premières lignes invalides, en relisant le fichier
+         * @param max Nombre maximal de lignes à décrire
+         */
+        public List<String> decrireLignesInvalides(int max) {
+            List<String> messages = new ArrayList<>();
+            try (FileChannel canal = FileChannel.open(Paths.get(nomFichier), StandardOpenOption.READ)) {
+                ByteBuffer tampon = ByteBuffer.allocate(256);
+                for (int i = 0; i < lignesInvalides.length && i < max; i++) {
+                    tampon.clear();
+                    canal.read(tampon, positionsInvalides[i]);
+                    tampon.flip();
+                    int fin = 0;
+                    while (fin < tampon.limit() && tampon.get(fin) != '\n') fin++;
+                    String ligne = new String(tampon.array(), 0, fin, StandardCharsets.UTF_8).trim();
+                    messages.add("Ligne " + lignesInvalides[i] + ": '" + ligne +
+                            "' (longueur " + ligne.length() + " au lieu de 3)");
+                }
+            } catch (IOException e) {
+                messages.add("❌ Relecture impossible: " + e.getMessage());
+            }
+            return messages;
+        }
+
+        @Override
+        public String toString() {
+            return "✓ Chargement terminé: " + nbRacines + " racines insérées sur " + nbLignes + " lignes en " +
+                    String.format("%.1f", getDureeMs()) + " ms (" +
+                    String.format("%,.0f", getLignesParSeconde()) + " lignes/s, " +
+                    lignesInvalides.length + " lignes ignorées)";
+        }
+    }
+
     /**
      * Initialise les schèmes morphologiques standards dans la table de hachage
      * @param table La table de hachage où stocker les schèmes
@@ -0,0 +1,251 @@
+package utils;
+
+import models.RacineNode;
+import models.RacineNode.MotDerive;
+import models.Scheme;
+import models.Scheme.TypeScheme;
+import structures.ABR;
+import structures.HashTable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Instantané binaire de l'état complet du dictionnaire : schèmes, racines,
+ * fréquences et mots dérivés validés (avec leurs ids).
+ *
+ * Format (version 3, gros-boutiste) :
+ *   en-tête   : magic "AMDS" (int), version (short), empreinte du fichier texte des
+ *               racines avec lequel l'état est synchronisé (long, voir empreinte)
+ *   schèmes   : nombre (int), puis pour chacun id (int), nom, pattern, description, type (byte)
+ *   racines   : nombre (int), dans l'ordre alphabétique, puis pour chacune
+ *               id (int), racine, fréquence (long), nombre de dérivés (int),
+ *               puis pour chaque dérivé mot, schème, fréquence (long)
+ *   fin       : CRC32 de tout ce qui précède (long)
+ * Les chaînes sont écrites en UTF-8 précédées de leur longueur en octets (short).
+ * Les versions précédentes restent lisibles : la version 2 a des fréquences sur 32 bits,
+ * et la version 1 n'a pas non plus d'empreinte (elle est alors inconnue).
+ *
+ * L'empreinte (taille et CRC32 du contenu) dit si le fichier texte a changé depuis
+ * l'instantané ; contrairement aux dates de modification, elle ne change pas quand
+ * l'application réécrit elle-même un fichier identique à son état.
+ */
+public class InstantaneDictionnaire {
+
+    private static final int MAGIC = 0x414D4453;   // "AMDS"
+    private static final short VERSION_FORMAT = 3;
+
+    /** Empreinte d'un fichier absent ou d'un instantané de version 1 */
+    public static final long EMPREINTE_INCONNUE = -1;
+
+    /**
+     * Empreinte d'un fichier : sa taille (32 bits de poids fort) et le CRC32 de son contenu
+     * @return EMPREINTE_INCONNUE si le fichier n'existe pas
+     */
+    public static long empreinte(String nomFichier) throws IOException {
+        Path chemin = Paths.get(nomFichier);
+        if (!Files.exists(chemin)) {
+            return EMPREINTE_INCONNUE;
+        }
+        CRC32 crc = new CRC32();
+        long taille = 0;
+        try (FileChannel canal = FileChannel.open(chemin, StandardOpenOption.READ)) {
+            ByteBuffer tampon = ByteBuffer.allocate(64 * 1024);
+            int lus;
+            while ((lus = canal.read(tampon)) >= 0) {
+                tampon.flip();
+                crc.update(tampon);
+                tampon.clear();
+                taille += lus;
+            }
+        }
+        return (taille << 32) | crc.getValue();
+    }
+
+    /**
+     * Écrit l'instantané via FileChannel. L'écriture passe par un fichier temporaire
+     * renommé à la fin : un ancien instantané n'est jamais laissé à moitié écrit.
+     * @param empreinteSource Empreinte du fichier texte des racines déjà intégré à l'arbre
+     * @return La taille du fichier en octets
+     */
+    public static long sauvegarder(String nomFichier, ABR arbre, HashTable table, long empreinteSource)
+            throws IOException {
+        Ecrivain e = new Ecrivain();
+        e.tampon.putInt(MAGIC).putShort(VERSION_FORMAT).putLong(empreinteSource);
+
+        List<Scheme> schemes = table.getTousLesSchemes();
+        e.entier(schemes.size());
+        for (Scheme s : schemes) {
+            e.entier(s.getId());
+            e.chaine(s.getNom());
+            e.chaine(s.getPattern());
+            e.chaine(s.getDescription());
+            e.octet((byte) s.getType().ordinal());
+        }
+
+        List<RacineNode> noeuds = arbre.getTousLesNoeuds();
+        e.entier(noeuds.size());
+        for (RacineNode n : noeuds) {
+            e.entier(n.getId());
+            e.chaine(n.getRacine());
+            e.entierLong(n.getFrequence());
+            List<MotDerive> derives = n.getMotsDerivesValides();
+            e.entier(derives.size());
+            for (MotDerive md : derives) {
+                e.chaine(md.getMot());
+                e.chaine(md.getScheme());
+                e.entierLong(md.getFrequence());
+            }
+        }
+
+        ByteBuffer contenu = e.tampon;
+        contenu.flip();
+        CRC32 crc = new CRC32();
+        crc.update(contenu.duplicate());
+        ByteBuffer fin = ByteBuffer.allocate(8).putLong(crc.getValue());
+        fin.flip();
+
+        Path cible = Paths.get(nomFichier);
+        Path temporaire = Paths.get(nomFichier + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporaire, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (contenu.hasRemaining()) {
+                canal.write(contenu);
+            }
+            while (fin.hasRemaining()) {
+                canal.write(fin);
+            }
+            canal.force(true);
+        }
+        Files.move(temporaire, cible, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return Files.size(cible);
+    }
+
+    /**
+     * Restaure l'instantané dans un arbre et une table vides.
+     * @return L'empreinte du fichier texte enregistrée avec l'instantané (EMPREINTE_INCONNUE en version 1)
+     * @throws IOException si le fichier est illisible, d'une autre version ou corrompu (CRC)
+     */
+    public static long charger(String nomFichier, ABR arbre, HashTable table) throws IOException {
+        ByteBuffer tampon;
+        try (FileChannel canal = FileChannel.open(Paths.get(nomFichier), StandardOpenOption.READ)) {
+            if (canal.size() < 14 || canal.size() > Integer.MAX_VALUE) {
+                throw new IOException("Taille d'instantané invalide: " + canal.size());
+            }
+            tampon = ByteBuffer.allocate((int) canal.size());
+            while (tampon.hasRemaining() && canal.read(tampon) >= 0) {
+                // Lire tout le fichier
+            }
+            tampon.flip();
+        }
+
+        int finContenu = tampon.limit() - 8;
+        CRC32 crc = new CRC32();
+        ByteBuffer contenu = tampon.duplicate();
+        contenu.limit(finContenu);
+        crc.update(contenu);
+        if (crc.getValue() != tampon.getLong(finContenu)) {
+            throw new IOException("Instantané corrompu (CRC32 invalide): " + nomFichier);
+        }
+        tampon.limit(finContenu);
+
+        if (tampon.getInt() != MAGIC) {
+            throw new IOException("Ce fichier n'est pas un instantané du dictionnaire: " + nomFichier);
+        }
+        short version = tampon.getShort();
+        if (version < 1 || version > VERSION_FORMAT) {
+            throw new IOException("Version d'instantané non supportée: " + version);
+        }
+        long empreinteSource = version == 1 ? EMPREINTE_INCONNUE : tampon.getLong();
+        boolean frequencesLongues = version >= 3;
+
+        TypeScheme[] types = TypeScheme.values();
+        int nbSchemes = tampon.getInt();
+        for (int i = 0; i < nbSchemes; i++) {
+            int id = tampon.getInt();
+            Scheme scheme = new Scheme(lireChaine(tampon), lireChaine(tampon), lireChaine(tampon),
+                    types[tampon.get()]);
+            scheme.setId(id);
+            table.restaurer(scheme);
+        }
+
+        int nbRacines = tampon.getInt();
+        List<RacineNode> noeuds = new ArrayList<>(nbRacines);
+        for (int i = 0; i < nbRacines; i++) {
+            int id = tampon.getInt();
+            RacineNode noeud = new RacineNode(lireChaine(tampon));
+            noeud.setId(id);
+            noeud.setFrequence(frequencesLongues ? tampon.getLong() : tampon.getInt());
+            int nbDerives = tampon.getInt();
+            List<MotDerive> derives = new ArrayList<>(nbDerives);
+            for (int k = 0; k < nbDerives; k++) {
+                MotDerive md = new MotDerive(lireChaine(tampon), lireChaine(tampon));
+                md.setFrequence(frequencesLongues ? tampon.getLong() : tampon.getInt());
+                derives.add(md);
+            }
+            noeud.setMotsDerivesValides(derives);   // Déjà sans doublons à l'écriture
+            noeuds.add(noeud);
+        }
+        arbre.restaurer(noeuds);
+        return empreinteSource;
+    }
+
+    private static String lireChaine(ByteBuffer tampon) {
+        int longueur = tampon.getShort() & 0xFFFF;
+        String s = new String(tampon.array(), tampon.arrayOffset() + tampon.position(), longueur,
+                StandardCharsets.UTF_8);
+        tampon.position(tampon.position() + longueur);
+        return s;
+    }
+
+    /**
+     * Tampon d'écriture qui s'agrandit à la demande
+     */
+    private static class Ecrivain {
+        ByteBuffer tampon = ByteBuffer.allocate(64 * 1024);
+
+        void reserver(int n) {
+            if (tampon.remaining() < n) {
+                ByteBuffer plusGrand = ByteBuffer.allocate(Math.max(tampon.capacity() * 2, tampon.position() + n));
+                tampon.flip();
+                plusGrand.put(tampon);
+                tampon = plusGrand;
+            }
+        }
+
+        void entier(int v) {
+            reserver(4);
+            tampon.putInt(v);
+        }
+
+        void entierLong(long v) {
+            reserver(8);
+            tampon.putLong(v);
+        }
+
+        void octet(byte v) {
+            reserver(1);
+            tampon.put(v);
+        }
+
+        void chaine(String s) {
+            byte[] octets = (s == null ? "" : s).getBytes(StandardCharsets.UTF_8);
+            if (octets.length > 0xFFFF) {
+                throw new IllegalArgumentException("Chaîne trop longue pour l'instantané");
+            }
+            reserver(2 + octets.length);
+            tampon.putShort((short) octets.length);
+            tampon.put(octets);
+        }
+    }
+}
@@ -0,0 +1,470 @@
+package utils;
+
+import structures.ABR;
+import structures.HashTable;
+import structures.ObservateurDictionnaire;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.zip.CRC32;
+
+/**
+ * Journal en ajout seul des modifications du dictionnaire (persistance incrémentale).
+ *
+ * Chaque inserer, supprimer, ajouterMotDerive ou incrementerFrequence de l'ABR devient un
+ * enregistrement compact ajouté en fin de fichier. Les enregistrements sont regroupés
+ * par un thread d'écriture : un seul write + force pour tous ceux arrivés pendant
+ * l'écriture précédente (validation groupée). Le coût de persistance est donc
+ * proportionnel au nombre de modifications, pas à la taille du dictionnaire.
+ *
+ * Enregistrement : longueur (int), type (byte), chaînes (short + UTF-8), CRC32 (int).
+ * Au rejeu, un enregistrement incomplet ou corrompu en fin de fichier (arrêt brutal)
+ * termine la lecture.
+ *
+ * Compaction : quand le journal dépasse un seuil d'enregistrements, l'état complet est
+ * écrit dans l'instantané (InstantaneDictionnaire) puis le journal est vidé. Plusieurs
+ * threads modifient l'arbre (menu, rechargement, serveurs) : la compaction tient donc le
+ * verrou d'écriture de l'arbre de l'instantané jusqu'à la troncature. L'arbre notifie
+ * sous ce même verrou, si bien qu'aucune modification n'est à moitié journalisée pendant
+ * la compaction : tous les enregistrements déjà en file sont couverts par l'instantané et
+ * abandonnés, et aucun n'arrive après la troncature pour une modification déjà incluse.
+ * La compaction au seuil est faite par le thread d'écriture, qui n'attend le verrou de
+ * l'arbre qu'un court instant (les lots suivants ne doivent pas attendre un long
+ * détenteur du verrou) et réessaie après le lot suivant.
+ *
+ * Mode synchrone : l'enregistrement est mis en file sous le verrou de l'arbre, mais
+ * l'attente du disque se fait après que l'arbre l'a relâché (modificationTerminee).
+ */
+public class Journal implements ObservateurDictionnaire, AutoCloseable {
+
+    private static final byte INSERTION = 1;
+    private static final byte MOT_DERIVE = 2;
+    private static final byte FREQUENCE = 3;
+    private static final byte SUPPRESSION = 4;
+
+    /** Attente maximale du verrou de l'arbre par le thread d'écriture avant de servir un nouveau lot */
+    private static final long ATTENTE_VERROU_MS = 10;
+
+    private final Path fichier;
+    private final FileChannel canal;
+    private final ABR arbre;
+    private final HashTable table;
+    private final String fichierInstantane;
+    private final int seuilCompaction;
+    private final boolean synchrone;
+
+    // File des enregistrements en attente, protégée par "this"
+    private List<ByteBuffer> enAttente = new ArrayList<>();
+    private long dernierEnfile = 0;      // numéro du dernier enregistrement mis en file
+    private long dernierDurable = 0;     // numéro du dernier enregistrement écrit et forcé
+    private long depuisCompaction = 0;
+    private long nbEcritures = 0;        // nombre de write groupés
+    private long generation = 0;         // incrémentée à chaque compaction (lots devenus caducs)
+    private boolean ferme = false;
+    private IOException erreur;
+    private final Thread ecrivain;
+    private final Object verrouCanal = new Object();   // Écriture d'un lot ou troncature, jamais les deux
+    private volatile long empreinteSource = InstantaneDictionnaire.EMPREINTE_INCONNUE;
+    private final ThreadLocal<long[]> aAttendre = ThreadLocal.withInitial(() -> new long[1]);  // mode synchrone
+
+    /**
+     * Ouvre (ou crée) un journal et l'attache comme observateur de l'arbre
+     * @param nomFichier Fichier du journal
+     * @param arbre Arbre observé
+     * @param table Table des schèmes (écrite avec l'instantané lors des compactions)
+     * @param fichierInstantane Instantané produit par la compaction
+     * @param seuilCompaction Nombre d'enregistrements avant compaction (<= 0 : jamais)
+     * @param synchrone true : chaque modification attend que son enregistrement soit sur disque
+     */
+    public Journal(String nomFichier, ABR arbre, HashTable table, String fichierInstantane,
+                   int seuilCompaction, boolean synchrone) throws IOException {
+        this.fichier = Paths.get(nomFichier);
+        this.canal = FileChannel.open(fichier, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.arbre = arbre;
+        this.table = table;
+        this.fichierInstantane = fichierInstantane;
+        this.seuilCompaction = seuilCompaction;
+        this.synchrone = synchrone;
+
+        this.ecrivain = new Thread(this::boucleEcriture, "journal-ecrivain");
+        this.ecrivain.setDaemon(true);
+        this.ecrivain.start();
+        arbre.setObservateur(this);
+    }
+
+    @Override
+    public void racineInseree(String racine) {
+        enregistrer(INSERTION, racine, null, null);
+    }
+
+    @Override
+    public void motDeriveAjoute(String racine, String mot, String scheme) {
+        enregistrer(MOT_DERIVE, racine, mot, scheme);
+    }
+
+    @Override
+    public void frequenceIncrementee(String racine) {
+        enregistrer(FREQUENCE, racine, null, null);
+    }
+
+    @Override
+    public void racineSupprimee(String racine) {
+        enregistrer(SUPPRESSION, racine, null, null);
+    }
+
+    /**
+     * Mode synchrone : attend, verrou de l'arbre relâché, que les enregistrements de
+     * la modification de ce thread soient sur disque. Les lecteurs de l'arbre ne
+     * patientent donc pas derrière le disque.
+     */
+    @Override
+    public void modificationTerminee() {
+        long[] numero = aAttendre.get();
+        if (numero[0] > 0) {
+            long n = numero[0];
+            numero[0] = 0;
+            attendre(n);
+        }
+    }
+
+    /**
+     * Encode et met en file un enregistrement (appelé sous le verrou de l'arbre, ne bloque
+     * pas ; en mode synchrone, l'attente est faite par modificationTerminee)
+     */
+    private void enregistrer(byte type, String a, String b, String c) {
+        ByteBuffer enregistrement = encoder(type, a, b, c);
+        long numero;
+        synchronized (this) {
+            if (ferme) {
+                throw new IllegalStateException("Journal fermé");
+            }
+            enAttente.add(enregistrement);
+            numero = ++dernierEnfile;
+            depuisCompaction++;
+            notifyAll();
+        }
+
+        if (synchrone) {
+            aAttendre.get()[0] = numero;
+        }
+    }
+
+    /**
+     * Appelé sous le moniteur
+     */
+    private boolean compactionDue() {
+        return seuilCompaction > 0 && depuisCompaction >= seuilCompaction;
+    }
+
+    private static ByteBuffer encoder(byte type, String a, String b, String c) {
+        byte[] oa = a.getBytes(StandardCharsets.UTF_8);
+        byte[] ob = b == null ? null : b.getBytes(StandardCharsets.UTF_8);
+        byte[] oc = c == null ? null : c.getBytes(StandardCharsets.UTF_8);
+        int corps = 1 + 2 + oa.length + (ob == null ? 0 : 2 + ob.length) + (oc == null ? 0 : 2 + oc.length);
+
+        ByteBuffer tampon = ByteBuffer.allocate(4 + corps + 4);
+        tampon.putInt(corps).put(type);
+        tampon.putShort((short) oa.length).put(oa);
+        if (ob != null) {
+            tampon.putShort((short) ob.length).put(ob);
+        }
+        if (oc != null) {
+            tampon.putShort((short) oc.length).put(oc);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(tampon.array(), 4, corps);
+        tampon.putInt((int) crc.getValue());
+        tampon.flip();
+        return tampon;
+    }
+
+    /**
+     * Thread d'écriture : prend tout ce qui est en file et l'écrit en un seul lot,
+     * puis compacte si le seuil est atteint
+     */
+    private void boucleEcriture() {
+        while (true) {
+            List<ByteBuffer> lot;
+            long numeroLot;
+            long generationLot;
+            synchronized (this) {
+                while (enAttente.isEmpty() && !ferme && !compactionDue()) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (enAttente.isEmpty() && ferme) {
+                    return;   // Fermé et tout est écrit
+                }
+                lot = enAttente;
+                enAttente = new ArrayList<>();
+                numeroLot = dernierEnfile;
+                generationLot = generation;
+            }
+
+            if (!lot.isEmpty()) {
+                try {
+                    ecrireLot(lot, generationLot);
+                } catch (IOException e) {
+                    synchronized (this) {
+                        erreur = e;
+                        notifyAll();
+                    }
+                    return;
+                }
+                synchronized (this) {
+                    dernierDurable = Math.max(dernierDurable, numeroLot);
+                    nbEcritures++;
+                    notifyAll();
+                }
+            }
+
+            boolean compacter;
+            synchronized (this) {
+                compacter = compactionDue();
+            }
+            if (compacter) {
+                essayerCompacter();
+            }
+        }
+    }
+
+    /**
+     * Écrit et force un lot, sauf si une compaction l'a rendu caduc entre-temps
+     */
+    private void ecrireLot(List<ByteBuffer> lot, long generationLot) throws IOException {
+        synchronized (verrouCanal) {
+            synchronized (this) {
+                if (generationLot != generation) {
+                    return;   // Déjà couvert par l'instantané de la compaction
+                }
+            }
+            ByteBuffer[] tampons = lot.toArray(new ByteBuffer[0]);
+            long restant = 0;
+            for (ByteBuffer t : tampons) {
+                restant += t.remaining();
+            }
+            while (restant > 0) {
+                restant -= canal.write(tampons);
+            }
+            canal.force(false);
+        }
+    }
+
+    /**
+     * Compaction au seuil par le thread d'écriture : le verrou de l'arbre n'est attendu
+     * que brièvement : tant qu'il attend, aucun lot n'est écrit, et les modificateurs
+     * synchrones attendent ces lots
+     */
+    private void essayerCompacter() {
+        Lock verrouArbre = arbre.getVerrouModifications();
+        try {
+            if (!verrouArbre.tryLock(ATTENTE_VERROU_MS, TimeUnit.MILLISECONDS)) {
+                return;   // Réessayer après le prochain lot
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            compacterSousVerrou();
+        } catch (IOException e) {
+            System.err.println("❌ Erreur de compaction du journal: " + e.getMessage());
+            synchronized (this) {
+                depuisCompaction = 0;   // Réessayer au prochain seuil, pas à chaque lot
+            }
+        } finally {
+            verrouArbre.unlock();
+        }
+    }
+
+    /**
+     * Attend que l'enregistrement de numéro donné soit sur disque
+     */
+    private synchronized void attendre(long numero) {
+        while (dernierDurable < numero && erreur == null) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        if (erreur != null) {
+            throw new IllegalStateException("Écriture du journal impossible", erreur);
+        }
+    }
+
+    /**
+     * Attend que toutes les modifications déjà enregistrées soient sur disque
+     */
+    public void synchroniser() {
+        long numero;
+        synchronized (this) {
+            numero = dernierEnfile;
+        }
+        attendre(numero);
+    }
+
+    /**
+     * Écrit l'état complet dans l'instantané puis vide le journal. Attend que les
+     * modifications en cours soient terminées ; ne pas appeler en tenant un verrou de
+     * l'arbre ni depuis l'observateur.
+     */
+    public void compacter() throws IOException {
+        Lock verrouArbre = arbre.getVerrouModifications();
+        verrouArbre.lock();
+        try {
+            compacterSousVerrou();
+        } finally {
+            verrouArbre.unlock();
+        }
+    }
+
+    /**
+     * Appelé sous le verrou d'écriture de l'arbre : l'arbre contient exactement les
+     * modifications de tous les enregistrements déjà mis en file
+     */
+    private void compacterSousVerrou() throws IOException {
+        InstantaneDictionnaire.sauvegarder(fichierInstantane, arbre, table, empreinteSource);
+        synchronized (verrouCanal) {
+            long couverts;
+            synchronized (this) {
+                enAttente = new ArrayList<>();   // Couverts par l'instantané
+                generation++;                    // Un lot déjà pris par l'écrivain ne sera pas écrit
+                couverts = dernierEnfile;
+            }
+            canal.truncate(0);
+            canal.force(true);
+            synchronized (this) {
+                dernierDurable = Math.max(dernierDurable, couverts);
+                depuisCompaction = 0;
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Empreinte du fichier texte des racines intégré à l'arbre, écrite avec chaque
+     * instantané de compaction (voir InstantaneDictionnaire.empreinte)
+     */
+    public void setEmpreinteSource(long empreinteSource) {
+        this.empreinteSource = empreinteSource;
+    }
+
+    /**
+     * Rejoue un journal sur un arbre (au démarrage, après chargement de l'instantané).
+     * L'observateur de l'arbre est désactivé pendant le rejeu.
+     * @return Le nombre d'enregistrements rejoués
+     */
+    public static int rejouer(String nomFichier, ABR arbre) throws IOException {
+        Path chemin = Paths.get(nomFichier);
+        if (!Files.exists(chemin)) {
+            return 0;
+        }
+
+        ObservateurDictionnaire observateur = arbre.getObservateur();
+        arbre.setObservateur(null);
+        int nb = 0;
+        try (FileChannel lecture = FileChannel.open(chemin, StandardOpenOption.READ)) {
+            ByteBuffer tampon = lecture.map(FileChannel.MapMode.READ_ONLY, 0, lecture.size());
+            while (tampon.remaining() >= 4) {
+                int corps = tampon.getInt();
+                if (corps <= 0 || tampon.remaining() < corps + 4) {
+                    break;   // Fin tronquée
+                }
+                byte[] octets = new byte[corps];
+                tampon.get(octets);
+                CRC32 crc = new CRC32();
+                crc.update(octets);
+                if ((int) crc.getValue() != tampon.getInt()) {
+                    break;   // Enregistrement corrompu
+                }
+
+                ByteBuffer e = ByteBuffer.wrap(octets);
+                byte type = e.get();
+                String racine = lireChaine(e);
+                switch (type) {
+                    case INSERTION:
+                        arbre.inserer(racine);
+                        break;
+                    case MOT_DERIVE:
+                        arbre.ajouterMotDerive(racine, lireChaine(e), lireChaine(e));
+                        break;
+                    case FREQUENCE:
+                        arbre.incrementerFrequence(racine);
+                        break;
+                    case SUPPRESSION:
+                        arbre.supprimer(racine);
+                        break;
+                    default:
+                        throw new IOException("Type d'enregistrement inconnu: " + type);
+                }
+                nb++;
+            }
+        } finally {
+            arbre.setObservateur(observateur);
+        }
+        return nb;
+    }
+
+    private static String lireChaine(ByteBuffer tampon) {
+        int longueur = tampon.getShort() & 0xFFFF;
+        String s = new String(tampon.array(), tampon.position(), longueur, StandardCharsets.UTF_8);
+        tampon.position(tampon.position() + longueur);
+        return s;
+    }
+
+    /**
+     * Nombre d'écritures groupées effectuées (à comparer au nombre d'enregistrements)
+     */
+    public synchronized long getNbEcritures() {
+        return nbEcritures;
+    }
+
+    public synchronized long getNbEnregistrements() {
+        return dernierEnfile;
+    }
+
+    /**
+     * Détache le journal de l'arbre, écrit tout ce qui est en attente et ferme le fichier.
+     * Le détachement se fait sous le verrou d'écriture de l'arbre : une modification
+     * concurrente est soit journalisée avant, soit appliquée sans journal après, jamais
+     * appliquée puis refusée par un journal déjà fermé.
+     */
+    @Override
+    public void close() throws IOException {
+        Lock verrouArbre = arbre.getVerrouModifications();
+        verrouArbre.lock();
+        try {
+            if (arbre.getObservateur() == this) {
+                arbre.setObservateur(null);
+            }
+            synchronized (this) {
+                ferme = true;
+                notifyAll();
+            }
+        } finally {
+            verrouArbre.unlock();
+        }
+        try {
+            ecrivain.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        canal.close();
+    }
+}
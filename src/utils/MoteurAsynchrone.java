@@ -0,0 +1,107 @@
+package utils;
+
+import utils.MoteurMorphologique.ResultatDecomposition;
+import utils.MoteurMorphologique.ResultatValidation;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+/**
+ * Variantes asynchrones du moteur morphologique, pour les appelants qui ne doivent jamais
+ * bloquer (boucle d'événements d'un serveur, interface graphique).
+ *
+ * Chaque appel s'exécute sur l'exécuteur fourni et rend aussitôt un CompletableFuture.
+ * Annulation et délai : cancel() ou l'expiration du délai terminent le futur ; le calcul
+ * le voit (annulation coopérative) et libère son thread au prochain point de contrôle de
+ * la décomposition. Seul le futur rendu par ces méthodes est observé : annuler un futur
+ * dérivé (thenApply...) n'interrompt pas le calcul.
+ */
+public class MoteurAsynchrone {
+
+    private final MoteurMorphologique moteur;
+    private final Executor executeur;
+    private final long delaiMaxMs;   // 0 = pas de délai
+
+    /**
+     * Exécute les calculs dans le pool commun, sans délai
+     */
+    public MoteurAsynchrone(MoteurMorphologique moteur) {
+        this(moteur, ForkJoinPool.commonPool(), 0);
+    }
+
+    /**
+     * @param executeur Exécuteur des calculs (jamais celui de l'appelant s'il ne doit pas bloquer)
+     * @param delaiMaxMs Délai après lequel un futur échoue avec TimeoutException (0 = aucun)
+     */
+    public MoteurAsynchrone(MoteurMorphologique moteur, Executor executeur, long delaiMaxMs) {
+        if (delaiMaxMs < 0) {
+            throw new IllegalArgumentException("Délai négatif: " + delaiMaxMs);
+        }
+        this.moteur = moteur;
+        this.executeur = executeur;
+        this.delaiMaxMs = delaiMaxMs;
+    }
+
+    public CompletableFuture<String> genererMotDerive(String racine, String nomScheme) {
+        return soumettre(annule -> moteur.genererMotDerive(racine, nomScheme));
+    }
+
+    public CompletableFuture<List<String>> genererTousLesDerivees(String racine) {
+        return soumettre(annule -> moteur.genererTousLesDerivees(racine));
+    }
+
+    public CompletableFuture<ResultatValidation> validerMot(String mot, String racine) {
+        return soumettre(annule -> moteur.validerMot(mot, racine));
+    }
+
+    public CompletableFuture<ResultatDecomposition> decomposerMot(String mot) {
+        return soumettre(annule -> moteur.decomposerMot(mot, annule));
+    }
+
+    public CompletableFuture<ResultatDecomposition> decomposerToken(String token) {
+        return soumettre(annule -> moteur.decomposerToken(token, annule));
+    }
+
+    public Executor getExecuteur() {
+        return executeur;
+    }
+
+    public long getDelaiMaxMs() {
+        return delaiMaxMs;
+    }
+
+    /**
+     * Lance le calcul ; il reçoit un test d'annulation vrai dès que le futur est terminé
+     * (annulé, expiré ou complété de l'extérieur)
+     */
+    private <T> CompletableFuture<T> soumettre(Function<BooleanSupplier, T> calcul) {
+        CompletableFuture<T> futur = new CompletableFuture<>();
+        if (delaiMaxMs > 0) {
+            futur.orTimeout(delaiMaxMs, TimeUnit.MILLISECONDS);
+        }
+        try {
+            executeur.execute(() -> {
+                if (futur.isDone()) {
+                    return;   // Annulé ou expiré avant de commencer
+                }
+                try {
+                    futur.complete(calcul.apply(futur::isDone));
+                } catch (CancellationException e) {
+                    futur.cancel(false);   // Déjà terminé en pratique : sans effet
+                } catch (Throwable t) {
+                    futur.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            futur.completeExceptionally(e);
+        }
+        return futur;
+    }
+}
@@ -1,66 +1,197 @@
 package utils;
 
+import models.AlphabetArabe;
+import models.Normaliseur;
 import models.Scheme;
 import models.RacineNode.MotDerive;
-import structures.ABR;
+import structures.DictionnaireRacines;
+import structures.HashParfaite;
 import structures.HashTable;
-import models.RacineNode;
+import structures.MatriceGeneration;
+import structures.TransducteurMinimal;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 
 /**
  * Moteur de génération et validation morphologique.
  * Gère la génération de mots dérivés et la validation morphologique.
+ *
+ * Concurrence : les schèmes ne sont jamais lus dans la HashTable pendant une requête,
+ * mais dans un catalogue immuable (liste, table parfaite, tableau par id) publié par
+ * une écriture volatile. Les modifications du catalogue passent par modifierSchemes,
+ * qui les sérialise et republie le catalogue ; les lectures n'attendent donc jamais.
+ * Les décompositions simultanées d'un même mot partagent un seul parcours complet.
  */
 public class MoteurMorphologique {
 
-    private ABR arbreRacines;
+    private DictionnaireRacines dictionnaire;   // ABR en mémoire ou DictionnaireDisque
     private HashTable tableSchemes;
+    private volatile CatalogueSchemes catalogue;  // Instantané immuable des schèmes, reconstruit si la table change
+    private final Object verrouSchemes = new Object();  // Sérialise les modifications du catalogue
+    private volatile boolean modificationEnCours;        // modifierSchemes en cours : lire l'ancien catalogue
+    private final MatriceGeneration matrice = new MatriceGeneration();  // Cache (id racine, id schème) → mot
+    private volatile TransducteurMinimal transducteur;  // Analyseur compilé, null tant que non compilé/chargé
+    private final Normaliseur normaliseur = Normaliseur.getDefaut();  // Même normalisation que l'ABR et les schèmes
+    private volatile SegmenteurAffixes segmenteur;       // Construit au premier decomposerToken
+    private volatile int versionSegmenteur;              // Version de la table de schèmes du segmenteur
+
+    /** Nombre de racines parcourues entre deux tests d'annulation */
+    private static final int PAS_ANNULATION = 256;
+    private static final BooleanSupplier JAMAIS_ANNULE = () -> false;
+    /** Intervalle de vérification de l'annulation pendant l'attente d'un parcours partagé */
+    private static final long ATTENTE_ANNULATION_MS = 10;
+
+    // Parcours complets en cours, par mot normalisé (single-flight)
+    private final ConcurrentHashMap<String, CompletableFuture<ResultatDecomposition>> parcoursEnCours =
+            new ConcurrentHashMap<>();
+    private final LongAdder parcoursEconomises = new LongAdder();
 
     /**
      * Constructeur
+     * @param dictionnaire Les racines : un ABR, ou un DictionnaireDisque pour un tas minimal
      */
-    public MoteurMorphologique(ABR arbreRacines, HashTable tableSchemes) {
-        this.arbreRacines = arbreRacines;
+    public MoteurMorphologique(DictionnaireRacines dictionnaire, HashTable tableSchemes) {
+        this.dictionnaire = dictionnaire;
         this.tableSchemes = tableSchemes;
     }
 
     /**
-     * Génère un mot dérivé à partir d'une racine et d'un schème
+     * Fige le catalogue de schèmes actuel (table de hachage parfaite minimale, liste et
+     * tableau par id). Si la table est modifiée ensuite hors de modifierSchemes, le
+     * catalogue est reconstruit au premier accès.
+     */
+    public void figerSchemes() {
+        synchronized (verrouSchemes) {
+            publierCatalogue();
+        }
+    }
+
+    /**
+     * Modifie la table des schèmes (ajout, suppression, changement de pattern) puis
+     * republie le catalogue. Les modifications sont sérialisées ; les requêtes en cours
+     * continuent sur l'ancien catalogue.
+     */
+    public void modifierSchemes(Consumer<HashTable> modification) {
+        synchronized (verrouSchemes) {
+            modificationEnCours = true;
+            try {
+                modification.accept(tableSchemes);
+                publierCatalogue();
+            } finally {
+                modificationEnCours = false;
+            }
+        }
+    }
+
+    /**
+     * Catalogue courant. Pendant un modifierSchemes, l'ancien catalogue reste servi sans
+     * attendre ; si la table a été modifiée directement, le catalogue est reconstruit.
+     */
+    private CatalogueSchemes catalogue() {
+        CatalogueSchemes c = catalogue;
+        if (c != null && (c.version == tableSchemes.getVersion() || modificationEnCours)) {
+            return c;
+        }
+        synchronized (verrouSchemes) {
+            if (catalogue == null || catalogue.version != tableSchemes.getVersion()) {
+                publierCatalogue();
+            }
+            return catalogue;
+        }
+    }
+
+    /**
+     * Reconstruit le catalogue depuis la table et le publie ; ses schèmes deviennent les
+     * seuls à remplir la matrice de génération. Appelé sous verrouSchemes.
+     */
+    private void publierCatalogue() {
+        CatalogueSchemes nouveau = new CatalogueSchemes(tableSchemes);
+        matrice.adopterSchemes(nouveau.liste);
+        this.catalogue = nouveau;
+    }
+
+    /**
+     * Schèmes du catalogue courant, dans l'ordre de la table (liste immuable)
+     */
+    public List<Scheme> getSchemes() {
+        return catalogue().liste;
+    }
+
+    /**
+     * Recherche un schème par son nom dans la table parfaite du catalogue
+     */
+    public Scheme rechercherScheme(String nomScheme) {
+        return catalogue().parNom.rechercher(nomScheme);
+    }
+
+    /**
+     * Génère un mot dérivé à partir d'une racine et d'un schème.
+     * N'affiche rien (appelé aussi par les serveurs) : la raison d'un échec est donnée
+     * par expliquerEchecGeneration.
      * @param racine La racine trilitère
      * @param nomScheme Le nom du schème à appliquer
      * @return Le mot généré, ou null en cas d'erreur
      */
     public String genererMotDerive(String racine, String nomScheme) {
         // Vérifier que la racine existe
-        if (!arbreRacines.existe(racine)) {
-            System.out.println("❌ Erreur: La racine '" + racine + "' n'existe pas dans l'arbre.");
+        int idRacine = dictionnaire.getIdRacine(racine);
+        if (idRacine < 0) {
             return null;
         }
 
         // Vérifier que le schème existe
-        Scheme scheme = tableSchemes.rechercher(nomScheme);
+        Scheme scheme = rechercherScheme(nomScheme);
         if (scheme == null) {
-            System.out.println("❌ Erreur: Le schème '" + nomScheme + "' n'existe pas.");
             return null;
         }
 
-        // Vérifier que la racine est trilitère
-        if (racine.length() != 3) {
-            System.out.println("❌ Erreur: La racine doit être trilitère (3 lettres).");
+        // Vérifier que la racine est trilitère (une fois normalisée)
+        String racineTrouvee = dictionnaire.getRacine(idRacine);
+        if (racineTrouvee.length() != 3) {
             return null;
         }
 
-        // Générer le mot
-        String motGenere = scheme.appliquerScheme(racine);
+        // Générer le mot (ou le relire depuis le cache)
+        String motGenere = matrice.obtenir(idRacine, racineTrouvee, scheme);
 
         // Ajouter le mot dérivé à la racine
-        arbreRacines.ajouterMotDerive(racine, motGenere, nomScheme);
+        dictionnaire.ajouterMotDerive(racine, motGenere, nomScheme);
 
         return motGenere;
     }
 
+    /**
+     * Raison pour laquelle genererMotDerive échoue sur ce couple (mêmes vérifications)
+     * @return Le message d'erreur, ou null si la génération est possible
+     */
+    public String expliquerEchecGeneration(String racine, String nomScheme) {
+        int idRacine = dictionnaire.getIdRacine(racine);
+        if (idRacine < 0) {
+            return "La racine '" + racine + "' n'existe pas dans l'arbre.";
+        }
+        if (rechercherScheme(nomScheme) == null) {
+            return "Le schème '" + nomScheme + "' n'existe pas.";
+        }
+        if (dictionnaire.getRacine(idRacine).length() != 3) {
+            return "La racine doit être trilitère (3 lettres).";
+        }
+        return null;
+    }
+
     /**
      * Génère tous les mots dérivés possibles pour une racine
      * @param racine La racine trilitère
@@ -69,25 +200,27 @@ public class MoteurMorphologique {
     public List<String> genererTousLesDerivees(String racine) {
         List<String> derivees = new ArrayList<>();
 
-        if (!arbreRacines.existe(racine)) {
+        int idRacine = dictionnaire.getIdRacine(racine);
+        if (idRacine < 0) {
             System.out.println("❌ La racine '" + racine + "' n'existe pas.");
             return derivees;
         }
+        String racineTrouvee = dictionnaire.getRacine(idRacine);
 
-        List<Scheme> schemes = tableSchemes.getTousLesSchemes();
+        List<Scheme> schemes = catalogue().liste;
 
         System.out.println("\n📚 Génération de tous les dérivés de la racine: " + racine);
         System.out.println("─".repeat(60));
 
         for (Scheme scheme : schemes) {
             try {
-                String motGenere = scheme.appliquerScheme(racine);
+                String motGenere = matrice.obtenir(idRacine, racineTrouvee, scheme);
                 String resultat = String.format("%-15s + %-15s → %s",
                         racine, scheme.getNom(), motGenere);
                 derivees.add(resultat);
 
                 // Ajouter à la liste des dérivés de la racine
-                arbreRacines.ajouterMotDerive(racine, motGenere, scheme.getNom());
+                dictionnaire.ajouterMotDerive(racine, motGenere, scheme.getNom());
 
                 System.out.println(resultat);
             } catch (Exception e) {
@@ -101,6 +234,118 @@ public class MoteurMorphologique {
         return derivees;
     }
 
+    /**
+     * Précalcule en parallèle tout le lexique racine × schème.
+     * Les racines sont réparties en tranches d'ids entre les threads ; chaque racine
+     * n'est traitée que par un seul thread, qui remplit sa ligne de la matrice de
+     * génération puis fusionne ses dérivés dans le nœud en une seule passe.
+     * À appeler au démarrage, avant de servir des requêtes.
+     * @param nbThreads Nombre de threads (<= 0 : nombre de cœurs)
+     * @return Rapport du précalcul (formes générées, durée, débit)
+     */
+    public RapportPrecalcul precalculerLexique(int nbThreads) {
+        if (nbThreads <= 0) {
+            nbThreads = Runtime.getRuntime().availableProcessors();
+        }
+
+        List<Scheme> schemes = catalogue().liste;
+        int nbIds = dictionnaire.getNombreIds();
+        int tailleTranche = Math.max(64, nbIds / (nbThreads * 4) + 1);
+
+        long debut = System.nanoTime();
+        ExecutorService executeur = Executors.newFixedThreadPool(nbThreads);
+        List<Future<Long>> taches = new ArrayList<>();
+
+        try {
+            for (int premier = 0; premier < nbIds; premier += tailleTranche) {
+                final int de = premier;
+                final int a = Math.min(nbIds, premier + tailleTranche);
+                taches.add(executeur.submit(() -> precalculerTranche(de, a, schemes)));
+            }
+
+            long formes = 0;
+            for (Future<Long> tache : taches) {
+                formes += tache.get();
+            }
+
+            return new RapportPrecalcul(dictionnaire.getTaille(), schemes.size(), formes,
+                    System.nanoTime() - debut, nbThreads);
+        } catch (Exception e) {
+            throw new IllegalStateException("Échec du précalcul du lexique", e);
+        } finally {
+            executeur.shutdown();
+        }
+    }
+
+    /**
+     * Génère les formes des racines d'ids [de, a[ pour tous les schèmes
+     * @return Le nombre de formes générées
+     */
+    private long precalculerTranche(int de, int a, List<Scheme> schemes) {
+        long formes = 0;
+        List<MotDerive> lot = new ArrayList<>(schemes.size());
+
+        for (int id = de; id < a; id++) {
+            String racine = dictionnaire.getRacine(id);
+            if (racine == null || racine.length() != 3) {
+                continue;
+            }
+
+            lot.clear();
+            for (Scheme scheme : schemes) {
+                String mot = matrice.obtenir(id, racine, scheme);
+                lot.add(new MotDerive(mot, scheme.getNom()));
+                formes++;
+            }
+            dictionnaire.fusionnerMotsDerives(id, lot);
+        }
+
+        return formes;
+    }
+
+    /**
+     * Compile toutes les formes racine × schème en un transducteur minimal
+     * utilisé ensuite par decomposerMot (formes normalisées, comme les mots cherchés).
+     * @return Le transducteur compilé
+     */
+    public TransducteurMinimal compilerTransducteur() {
+        List<Scheme> schemes = catalogue().liste;
+        List<TransducteurMinimal.Entree> entrees = new ArrayList<>();
+
+        for (int id = 0; id < dictionnaire.getNombreIds(); id++) {
+            String racine = dictionnaire.getRacine(id);
+            if (racine == null || racine.length() != 3) {
+                continue;
+            }
+            for (Scheme scheme : schemes) {
+                entrees.add(new TransducteurMinimal.Entree(
+                        normaliseur.normaliser(matrice.obtenir(id, racine, scheme)), id, scheme.getId()));
+            }
+        }
+
+        this.transducteur = TransducteurMinimal.construire(entrees);
+        return transducteur;
+    }
+
+    /**
+     * Installe un transducteur déjà compilé (ex: chargé depuis un fichier).
+     * Les ids qu'il contient doivent correspondre à ceux de l'arbre et de la table.
+     */
+    public void setTransducteur(TransducteurMinimal transducteur) {
+        this.transducteur = transducteur;
+    }
+
+    public TransducteurMinimal getTransducteur() {
+        return transducteur;
+    }
+
+    /**
+     * Retourne le cache de génération (statistiques, invalidation manuelle)
+     */
+    public MatriceGeneration getMatriceGeneration() {
+        return matrice;
+    }
+
     /**
      * Valide si un mot appartient morphologiquement à une racine
      * @param mot Le mot à valider
@@ -109,10 +354,12 @@ public class MoteurMorphologique {
      */
     public ResultatValidation validerMot(String mot, String racine) {
         // Vérifier que la racine existe
-        if (!arbreRacines.existe(racine)) {
+        int idRacine = dictionnaire.getIdRacine(racine);
+        if (idRacine < 0) {
             return new ResultatValidation(false, null,
                     "La racine '" + racine + "' n'existe pas dans l'arbre");
         }
+        racine = dictionnaire.getRacine(idRacine);   // Forme normalisée
 
         // Vérifier que la racine est trilitère
         if (racine.length() != 3) {
@@ -121,13 +368,13 @@ public class MoteurMorphologique {
         }
 
         // Tester tous les schèmes
-        List<Scheme> schemes = tableSchemes.getTousLesSchemes();
+        List<Scheme> schemes = catalogue().liste;
 
         for (Scheme scheme : schemes) {
             try {
                 if (scheme.correspondAuScheme(mot, racine)) {
                     // Ajouter le mot validé à la racine
-                    arbreRacines.ajouterMotDerive(racine, mot, scheme.getNom());
+                    dictionnaire.ajouterMotDerive(racine, mot, scheme.getNom());
 
                     return new ResultatValidation(true, scheme.getNom(),
                             "Le mot appartient à la racine via le schème " + scheme.getNom());
@@ -142,15 +389,209 @@ public class MoteurMorphologique {
     }
 
     /**
-     * Décompose un mot pour identifier la racine et le schème
+     * Décompose un mot pour identifier la racine et le schème. Si plusieurs racines
+     * conviennent, la première par id (ordre d'insertion) est retenue, voir parcourirDictionnaire.
      * @param mot Le mot à décomposer
      * @return Résultat de décomposition
      */
     public ResultatDecomposition decomposerMot(String mot) {
-        List<String> racines = arbreRacines.getToutesLesRacines();
+        return decomposerMot(mot, JAMAIS_ANNULE);
+    }
+
+    /**
+     * Décompose un mot en s'arrêtant si l'appelant renonce (annulation coopérative)
+     * @param annule Interrogé toutes les PAS_ANNULATION racines du parcours complet
+     * @throws CancellationException si annule devient vrai avant la fin du parcours
+     */
+    public ResultatDecomposition decomposerMot(String mot, BooleanSupplier annule) {
+        return decomposer(mot, annule, null);
+    }
+
+    /**
+     * Décompose un mot dans un budget (échéance et/ou nombre de candidats racine × schème).
+     * Le budget est vérifié pendant le parcours complet ; s'il s'épuise avant qu'une racine
+     * ne corresponde, le résultat est un échec marqué tronqué (estTronque), qui indique la
+     * part du dictionnaire examinée. Le parcours s'arrêtant à la première correspondance,
+     * aucun candidat n'est encore établi à ce moment : il n'y a pas de résultat partiel à
+     * rendre pour un mot nu (voir decomposerToken). Ce parcours n'est pas partagé avec les
+     * appels simultanés.
+     */
+    public ResultatDecomposition decomposerMot(String mot, Budget budget) {
+        return decomposer(mot, JAMAIS_ANNULE, budget);
+    }
 
-        for (String racine : racines) {
-            List<Scheme> schemes = tableSchemes.getTousLesSchemes();
+    /**
+     * @param budget null : pas de budget, parcours complet partagé entre appels simultanés
+     */
+    private ResultatDecomposition decomposer(String mot, BooleanSupplier annule, Budget budget) {
+        // Chemin rapide : transducteur compilé (O(longueur du mot))
+        TransducteurMinimal fst = transducteur;
+        if (fst != null) {
+            ResultatDecomposition resultat = analyserParTransducteur(fst, mot);
+            if (resultat != null) {
+                return resultat;
+            }
+            // Sinon : le dictionnaire ou les schèmes ont pu évoluer depuis la compilation, on parcourt
+        }
+
+        return budget == null ? parcourirEnCommun(mot, annule) : parcourirDictionnaire(mot, annule, budget);
+    }
+
+    /**
+     * Analyse par le transducteur, alignée sur le parcours complet : chaque analyse est
+     * revérifiée sur le catalogue courant (le transducteur n'est pas recompilé quand un
+     * schème change), puis on retient la plus petite racine par id et, pour cette racine,
+     * le premier schème dans l'ordre du catalogue, comme le ferait parcourirDictionnaire.
+     * @return null si aucune analyse n'est encore valide
+     */
+    private ResultatDecomposition analyserParTransducteur(TransducteurMinimal fst, String mot) {
+        CatalogueSchemes c = catalogue();
+        long codeMot = normaliseur.normaliserEtCoder(mot);
+        int idRetenu = -1;
+        Scheme schemeRetenu = null;
+        // Analyses triées par (id racine, id schème) : la première racine valide est la plus petite
+        for (long analyse : fst.rechercher(normaliseur.normaliser(mot))) {
+            int idRacine = TransducteurMinimal.idRacine(analyse);
+            if (schemeRetenu != null && idRacine != idRetenu) {
+                break;
+            }
+            Scheme scheme = c.parId(TransducteurMinimal.idScheme(analyse));
+            if (scheme == null || !correspond(scheme, mot, codeMot, idRacine)) {
+                continue;   // Racine supprimée, schème retiré ou pattern modifié
+            }
+            if (schemeRetenu == null || c.rang(scheme) < c.rang(schemeRetenu)) {
+                idRetenu = idRacine;
+                schemeRetenu = scheme;
+            }
+        }
+        if (schemeRetenu == null) {
+            return null;
+        }
+        return new ResultatDecomposition(true, dictionnaire.getRacine(idRetenu), schemeRetenu.getNom(),
+                "Mot décomposé avec succès");
+    }
+
+    /**
+     * Le mot est-il la forme de la racine d'id donné par ce schème ? (forme codée si possible)
+     */
+    private boolean correspond(Scheme scheme, String mot, long codeMot, int idRacine) {
+        long codeRacine = dictionnaire.getCodeRacine(idRacine);
+        if (codeMot != AlphabetArabe.NON_CODABLE && codeRacine != AlphabetArabe.NON_CODABLE) {
+            return scheme.correspondAuScheme(codeMot, codeRacine);
+        }
+        String racine = dictionnaire.getRacine(idRacine);
+        return racine != null && scheme.correspondAuScheme(mot, racine);
+    }
+
+    /**
+     * Parcours complet partagé (single-flight) : des appelants simultanés qui décomposent
+     * le même mot normalisé attendent le parcours déjà lancé au lieu d'en refaire un.
+     * Si l'initiateur est annulé, un appelant encore intéressé relance le parcours.
+     */
+    private ResultatDecomposition parcourirEnCommun(String mot, BooleanSupplier annule) {
+        String cle = normaliseur.normaliser(mot);
+        while (true) {
+            CompletableFuture<ResultatDecomposition> enCours = parcoursEnCours.get(cle);
+            if (enCours == null) {
+                CompletableFuture<ResultatDecomposition> nouveau = new CompletableFuture<>();
+                enCours = parcoursEnCours.putIfAbsent(cle, nouveau);
+                if (enCours == null) {
+                    try {
+                        ResultatDecomposition resultat = parcourirDictionnaire(mot, annule, null);
+                        nouveau.complete(resultat);
+                        return resultat;
+                    } catch (Throwable t) {
+                        nouveau.completeExceptionally(t);
+                        throw t;
+                    } finally {
+                        parcoursEnCours.remove(cle, nouveau);
+                    }
+                }
+            }
+            ResultatDecomposition resultat = attendreParcours(enCours, annule);
+            if (resultat != null) {
+                parcoursEconomises.increment();
+                return resultat;
+            }
+            // Parcours partagé annulé par son initiateur : le relancer
+        }
+    }
+
+    /**
+     * Attend le parcours d'un autre appelant, en restant annulable
+     * @return Son résultat, ou null si ce parcours a été annulé
+     */
+    private static ResultatDecomposition attendreParcours(CompletableFuture<ResultatDecomposition> parcours,
+                                                          BooleanSupplier annule) {
+        while (true) {
+            if (annule.getAsBoolean()) {
+                throw new CancellationException("Attente d'une décomposition annulée");
+            }
+            try {
+                return annule == JAMAIS_ANNULE ? parcours.get()
+                        : parcours.get(ATTENTE_ANNULATION_MS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // Revérifier l'annulation
+            } catch (CancellationException e) {
+                return null;   // Levée par get() quand l'initiateur a été annulé
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Attente d'une décomposition interrompue");
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IllegalStateException("Échec de la décomposition partagée", e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Nombre de parcours complets évités : appels servis par le parcours d'un autre appelant
+     */
+    public long getNbParcoursEconomises() {
+        return parcoursEconomises.sum();
+    }
+
+    /**
+     * Parcours complet du dictionnaire par id
+     *
+     * Ordre : les racines sont examinées par id croissant, c'est-à-dire dans l'ordre
+     * d'insertion (ordre alphabétique seulement pour un chargement en masse), et non plus
+     * dans l'ordre alphabétique de getToutesLesRacines. Pour un mot qui correspond à
+     * plusieurs racines, la racine retenue est la première insérée ; pour elle, le premier
+     * schème dans l'ordre du catalogue. Le transducteur applique la même règle.
+     * @param budget null si illimité
+     */
+    private ResultatDecomposition parcourirDictionnaire(String mot, BooleanSupplier annule, Budget budget) {
+        // Parcours par id : aucune liste de toutes les racines n'est construite.
+        // Mot et racines sont comparés sous forme codée ; on ne décode que la racine trouvée.
+        List<Scheme> schemes = catalogue().liste;
+        long codeMot = normaliseur.normaliserEtCoder(mot);
+        int nbIds = dictionnaire.getNombreIds();
+        for (int id = 0; id < nbIds; id++) {
+            if (id % PAS_ANNULATION == 0 && annule.getAsBoolean()) {
+                throw new CancellationException("Décomposition de '" + mot + "' annulée");
+            }
+            if (budget != null && !budget.consommer(schemes.size(), id % PAS_ANNULATION == 0)) {
+                return new ResultatDecomposition(false, null, null,
+                        "Budget épuisé: " + id + "/" + nbIds + " racines examinées", null, true);
+            }
+            long codeRacine = dictionnaire.getCodeRacine(id);
+            if (codeMot != AlphabetArabe.NON_CODABLE && codeRacine != AlphabetArabe.NON_CODABLE) {
+                for (Scheme scheme : schemes) {
+                    if (scheme.correspondAuScheme(codeMot, codeRacine)) {
+                        return new ResultatDecomposition(true, dictionnaire.getRacine(id), scheme.getNom(),
+                                "Mot décomposé avec succès");
+                    }
+                }
+                continue;
+            }
+
+            String racine = dictionnaire.getRacine(id);
+            if (racine == null) {
+                continue;
+            }
 
             for (Scheme scheme : schemes) {
                 try {
@@ -168,18 +609,112 @@ public class MoteurMorphologique {
                 "Impossible de décomposer le mot");
     }
 
+    /**
+     * Décompose un mot pouvant porter des proclitiques et des suffixes (والكاتبون, بكتابها ...).
+     * Le segmenteur propose des tiges de longueur plausible, classées ; la première tige
+     * reconnue par decomposerMot donne le résultat.
+     * @param token Le mot tel qu'il apparaît dans un texte
+     * @return Résultat de décomposition, avec la segmentation retenue
+     */
+    public ResultatDecomposition decomposerToken(String token) {
+        return decomposerToken(token, JAMAIS_ANNULE);
+    }
+
+    /**
+     * decomposerToken avec annulation coopérative (testée entre les tiges et pendant chaque parcours)
+     * @throws CancellationException si annule devient vrai avant la fin
+     */
+    public ResultatDecomposition decomposerToken(String token, BooleanSupplier annule) {
+        return analyserToken(token, annule, null);
+    }
+
+    /**
+     * decomposerToken dans un budget commun à toutes les tiges candidates. Si le budget
+     * s'épuise avant qu'une tige ne soit reconnue, le résultat est marqué tronqué et porte
+     * ce qui était établi : les tiges déjà écartées, et le meilleur candidat parmi les
+     * tiges restantes s'il y en a un (voir resultatPartiel).
+     */
+    public ResultatDecomposition decomposerToken(String token, Budget budget) {
+        return analyserToken(token, JAMAIS_ANNULE, budget);
+    }
+
+    private ResultatDecomposition analyserToken(String token, BooleanSupplier annule, Budget budget) {
+        List<SegmenteurAffixes.Candidat> candidats = getSegmenteur().segmenter(token);
+        List<String> ecartees = new ArrayList<>();
+        for (int i = 0; i < candidats.size(); i++) {
+            SegmenteurAffixes.Candidat candidat = candidats.get(i);
+            if (annule.getAsBoolean()) {
+                throw new CancellationException("Décomposition de '" + token + "' annulée");
+            }
+            if (budget != null && budget.estEpuise()) {
+                return resultatPartiel("Budget épuisé avant la tige candidate " + candidat.getTige(),
+                        candidats.subList(i + 1, candidats.size()), ecartees);
+            }
+            ResultatDecomposition resultat = decomposer(candidat.getTige(), annule, budget);
+            if (resultat.estSucces()) {
+                return new ResultatDecomposition(true, resultat.getRacine(), resultat.getScheme(),
+                        resultat.getMessage(), candidat);
+            }
+            if (resultat.estTronque()) {
+                return resultatPartiel(resultat.getMessage(), candidats.subList(i + 1, candidats.size()), ecartees);
+            }
+            ecartees.add(candidat.getTige());
+        }
+        return new ResultatDecomposition(false, null, null,
+                "Impossible de décomposer le mot (aucune tige candidate ne correspond)");
+    }
+
+    /**
+     * Résultat d'un decomposerToken interrompu par le budget. Les tiges suivantes sont
+     * encore soumises au transducteur compilé (coût proportionnel à leur longueur, sans
+     * parcours) : la première reconnue est le meilleur candidat établi, rendu comme un
+     * succès tronqué, puisqu'une tige mieux classée n'a pas été examinée jusqu'au bout.
+     * Sinon, échec tronqué. Dans les deux cas, le résultat liste les tiges déjà écartées.
+     * @param restantes Tiges classées après celle dont l'examen a été interrompu
+     */
+    private ResultatDecomposition resultatPartiel(String raison, List<SegmenteurAffixes.Candidat> restantes,
+                                                  List<String> ecartees) {
+        TransducteurMinimal fst = transducteur;
+        if (fst != null) {
+            for (SegmenteurAffixes.Candidat candidat : restantes) {
+                ResultatDecomposition resultat = analyserParTransducteur(fst, candidat.getTige());
+                if (resultat != null) {
+                    return new ResultatDecomposition(true, resultat.getRacine(), resultat.getScheme(),
+                            "Candidat établi avant épuisement du budget (" + raison + ")", candidat, true, ecartees);
+                }
+            }
+        }
+        return new ResultatDecomposition(false, null, null, raison, null, true, ecartees);
+    }
+
+    /**
+     * Retourne le segmenteur, reconstruit si les schèmes ont changé (longueurs plausibles)
+     */
+    public SegmenteurAffixes getSegmenteur() {
+        CatalogueSchemes c = catalogue();
+        SegmenteurAffixes s = segmenteur;
+        if (s == null || versionSegmenteur != c.version) {
+            synchronized (this) {
+                if (segmenteur == null || versionSegmenteur != c.version) {
+                    segmenteur = new SegmenteurAffixes(c.liste);
+                    versionSegmenteur = c.version;
+                }
+                s = segmenteur;
+            }
+        }
+        return s;
+    }
+
     /**
      * Affiche tous les dérivés validés d'une racine
      */
     public void afficherDerivesDeRacine(String racine) {
-        RacineNode noeud = arbreRacines.rechercher(racine);
-
-        if (noeud == null) {
+        if (!dictionnaire.existe(racine)) {
             System.out.println("❌ La racine '" + racine + "' n'existe pas.");
             return;
         }
 
-        List<MotDerive> derives = noeud.getMotsDerivesValides();
+        List<MotDerive> derives = dictionnaire.getMotsDerivesDeRacine(racine);
 
         System.out.println("\n📖 Dérivés validés de la racine: " + racine);
         System.out.println("─".repeat(60));
@@ -198,6 +733,44 @@ public class MoteurMorphologique {
         System.out.println("Total: " + derives.size() + " dérivés");
     }
 
+    /**
+     * Instantané immuable du catalogue de schèmes
+     */
+    private static final class CatalogueSchemes {
+        final int version;
+        final List<Scheme> liste;      // ordre de la table (ordre de validation)
+        final HashParfaite parNom;
+        final Scheme[] parId;
+        final int[] rangParId;         // position de chaque schème dans liste, par id
+
+        CatalogueSchemes(HashTable table) {
+            this.version = table.getVersion();
+            this.liste = Collections.unmodifiableList(table.getTousLesSchemes());
+            this.parNom = HashParfaite.construire(table);
+            int max = 0;
+            for (Scheme scheme : liste) {
+                max = Math.max(max, scheme.getId() + 1);
+            }
+            this.parId = new Scheme[max];
+            this.rangParId = new int[max];
+            for (int i = 0; i < liste.size(); i++) {
+                Scheme scheme = liste.get(i);
+                if (scheme.getId() >= 0) {
+                    parId[scheme.getId()] = scheme;
+                    rangParId[scheme.getId()] = i;
+                }
+            }
+        }
+
+        int rang(Scheme scheme) {
+            return rangParId[scheme.getId()];
+        }
+
+        Scheme parId(int id) {
+            return id >= 0 && id < parId.length ? parId[id] : null;
+        }
+    }
+
     /**
      * Classe représentant le résultat d'une validation
      */
@@ -234,6 +807,112 @@ public class MoteurMorphologique {
         }
     }
 
+    /**
+     * Classe représentant le rapport d'un précalcul du lexique
+     */
+    public static class RapportPrecalcul {
+        private int nbRacines;
+        private int nbSchemes;
+        private long nbFormes;
+        private long dureeNs;
+        private int nbThreads;
+
+        public RapportPrecalcul(int nbRacines, int nbSchemes, long nbFormes, long dureeNs, int nbThreads) {
+            this.nbRacines = nbRacines;
+            this.nbSchemes = nbSchemes;
+            this.nbFormes = nbFormes;
+            this.dureeNs = dureeNs;
+            this.nbThreads = nbThreads;
+        }
+
+        public int getNbRacines() {
+            return nbRacines;
+        }
+
+        public int getNbSchemes() {
+            return nbSchemes;
+        }
+
+        public long getNbFormes() {
+            return nbFormes;
+        }
+
+        public double getDureeMs() {
+            return dureeNs / 1_000_000.0;
+        }
+
+        public double getFormesParSeconde() {
+            return dureeNs == 0 ? 0.0 : nbFormes / (dureeNs / 1_000_000_000.0);
+        }
+
+        @Override
+        public String toString() {
+            return "✓ Lexique précalculé: " + nbRacines + " racines × " + nbSchemes + " schèmes = " +
+                    nbFormes + " formes en " + String.format("%.1f", getDureeMs()) + " ms (" +
+                    String.format("%,.0f", getFormesParSeconde()) + " formes/s, " + nbThreads + " threads)";
+        }
+    }
+
+    /**
+     * Classe représentant le budget d'une décomposition : une échéance (System.nanoTime)
+     * et/ou un nombre maximal de candidats racine × schème examinés par les parcours complets.
+     * À usage unique et propre à un appel : il se consomme au fil des tiges d'un decomposerToken.
+     */
+    public static class Budget {
+        private final long echeance;        // Long.MAX_VALUE si pas d'échéance ; comparée par différence
+        private final boolean avecEcheance;
+        private final long candidatsMax;    // Long.MAX_VALUE si illimité
+        private long candidatsExamines;
+        private boolean epuise;
+
+        /**
+         * @param dureeNanos Durée accordée à partir de maintenant (0 = pas d'échéance)
+         * @param candidatsMax Nombre maximal de candidats racine × schème (0 = illimité)
+         */
+        public Budget(long dureeNanos, long candidatsMax) {
+            this.avecEcheance = dureeNanos > 0;
+            this.echeance = avecEcheance ? System.nanoTime() + dureeNanos : Long.MAX_VALUE;
+            this.candidatsMax = candidatsMax > 0 ? candidatsMax : Long.MAX_VALUE;
+        }
+
+        public static Budget duree(long dureeNanos) {
+            return new Budget(dureeNanos, 0);
+        }
+
+        public static Budget candidats(long candidatsMax) {
+            return new Budget(0, candidatsMax);
+        }
+
+        /**
+         * Réserve n candidats ; l'horloge n'est lue que si verifierEcheance (elle coûte plus
+         * cher qu'une comparaison)
+         * @return false si le budget est épuisé
+         */
+        boolean consommer(int n, boolean verifierEcheance) {
+            if (epuise) {
+                return false;
+            }
+            if (candidatsExamines + n > candidatsMax
+                    || (verifierEcheance && avecEcheance && System.nanoTime() - echeance >= 0)) {
+                epuise = true;
+                return false;
+            }
+            candidatsExamines += n;
+            return true;
+        }
+
+        public boolean estEpuise() {
+            if (!epuise && avecEcheance && System.nanoTime() - echeance >= 0) {
+                epuise = true;
+            }
+            return epuise;
+        }
+
+        public long getCandidatsExamines() {
+            return candidatsExamines;
+        }
+    }
+
     /**
      * Classe représentant le résultat d'une décomposition
      */
@@ -242,12 +921,34 @@ public class MoteurMorphologique {
         private String racine;
         private String scheme;
         private String message;
+        private SegmenteurAffixes.Candidat segmentation;   // null si le mot a été analysé nu
+        private boolean tronque;                           // Budget épuisé avant la fin de l'analyse
+        private List<String> tigesEcartees;                // Tiges examinées sans succès (résultat tronqué)
 
         public ResultatDecomposition(boolean succes, String racine, String scheme, String message) {
+            this(succes, racine, scheme, message, null);
+        }
+
+        public ResultatDecomposition(boolean succes, String racine, String scheme, String message,
+                                     SegmenteurAffixes.Candidat segmentation) {
+            this(succes, racine, scheme, message, segmentation, false);
+        }
+
+        public ResultatDecomposition(boolean succes, String racine, String scheme, String message,
+                                     SegmenteurAffixes.Candidat segmentation, boolean tronque) {
+            this(succes, racine, scheme, message, segmentation, tronque, Collections.emptyList());
+        }
+
+        public ResultatDecomposition(boolean succes, String racine, String scheme, String message,
+                                     SegmenteurAffixes.Candidat segmentation, boolean tronque,
+                                     List<String> tigesEcartees) {
             this.succes = succes;
             this.racine = racine;
             this.scheme = scheme;
             this.message = message;
+            this.segmentation = segmentation;
+            this.tronque = tronque;
+            this.tigesEcartees = Collections.unmodifiableList(new ArrayList<>(tigesEcartees));
         }
 
         public boolean estSucces() {
@@ -266,10 +967,35 @@ public class MoteurMorphologique {
             return message;
         }
 
+        public SegmenteurAffixes.Candidat getSegmentation() {
+            return segmentation;
+        }
+
+        /**
+         * @return true si l'analyse s'est arrêtée faute de budget : le résultat n'est pas
+         *         définitif. Un échec tronqué peut n'être dû qu'au budget ; un succès tronqué
+         *         est le meilleur candidat établi avant l'épuisement (une tige mieux classée
+         *         n'a pas été examinée jusqu'au bout).
+         */
+        public boolean estTronque() {
+            return tronque;
+        }
+
+        /**
+         * @return Les tiges candidates entièrement examinées sans succès avant l'épuisement
+         *         du budget (vide si le résultat n'est pas tronqué)
+         */
+        public List<String> getTigesEcartees() {
+            return tigesEcartees;
+        }
+
         @Override
         public String toString() {
             if (succes) {
-                return "✓ Racine: " + racine + " | Schème: " + scheme;
+                String decoupage = (segmentation == null || segmentation.longueurAffixes() == 0)
+                        ? "" : " | Segmentation: " + segmentation;
+                return "✓ Racine: " + racine + " | Schème: " + scheme + decoupage
+                        + (tronque ? " (candidat, budget épuisé)" : "");
             } else {
                 return "✗ " + message;
             }
@@ -0,0 +1,339 @@
+package utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Ordonnanceur des appels au moteur entre classes de priorité : les requêtes interactives
+ * (interface, API) ne doivent pas attendre derrière les traitements de corpus en lot.
+ *
+ * Chaque classe a sa propre file bornée ; une file pleine refuse la tâche
+ * (RejectedExecutionException) au lieu de grossir. Un pool fixe de threads sert les files
+ * selon la politique :
+ *  - PRIORITE_STRICTE : la file interactive est toujours servie d'abord (le lot peut être
+ *    affamé tant que les requêtes interactives ne tarissent pas) ;
+ *  - PARTAGE_EQUITABLE : quand les deux files attendent, poidsInteractif tâches
+ *    interactives pour une tâche de lot (le lot garde au moins 1/(poids+1) du débit).
+ * Une tâche commencée n'est jamais interrompue : la latence interactive est bornée par la
+ * durée d'une tâche de lot en cours, d'où l'intérêt de lots courts ou d'un Budget.
+ *
+ * Mesures par classe : tâches soumises, refusées, terminées, profondeur de file (courante
+ * et maximale), latences d'attente et de bout en bout (histogramme logarithmique).
+ */
+public class OrdonnanceurMoteur implements AutoCloseable {
+
+    public enum Priorite {
+        INTERACTIVE,
+        LOT
+    }
+
+    public enum Politique {
+        PRIORITE_STRICTE,
+        PARTAGE_EQUITABLE
+    }
+
+    private final Politique politique;
+    private final int poidsInteractif;
+    private final Map<Priorite, FileAttente> files = new EnumMap<>(Priorite.class);
+    private final ReentrantLock verrou = new ReentrantLock();
+    private final Condition travailDisponible = verrou.newCondition();
+    private final List<Thread> threads = new ArrayList<>();
+    private int interactivesDepuisLot;   // Servies d'affilée pendant que le lot attend (partage équitable)
+    private boolean arrete;
+
+    /**
+     * @param nbThreads Threads servant les deux files
+     * @param capaciteInteractive Taille maximale de la file interactive
+     * @param capaciteLot Taille maximale de la file de lot
+     * @param poidsInteractif Tâches interactives servies par tâche de lot (PARTAGE_EQUITABLE)
+     */
+    public OrdonnanceurMoteur(int nbThreads, int capaciteInteractive, int capaciteLot,
+                              Politique politique, int poidsInteractif) {
+        if (nbThreads < 1 || capaciteInteractive < 1 || capaciteLot < 1 || poidsInteractif < 1) {
+            throw new IllegalArgumentException("Threads, capacités et poids doivent être positifs");
+        }
+        this.politique = politique;
+        this.poidsInteractif = poidsInteractif;
+        files.put(Priorite.INTERACTIVE, new FileAttente(capaciteInteractive));
+        files.put(Priorite.LOT, new FileAttente(capaciteLot));
+        for (int i = 0; i < nbThreads; i++) {
+            Thread t = new Thread(this::servir, "morpho-ordonnanceur-" + i);
+            t.setDaemon(true);
+            threads.add(t);
+            t.start();
+        }
+    }
+
+    /**
+     * Place un calcul dans la file de sa classe
+     * @return Le futur du calcul ; échoue avec RejectedExecutionException si la file est pleine
+     */
+    public <T> CompletableFuture<T> soumettre(Priorite priorite, Callable<T> calcul) {
+        CompletableFuture<T> futur = new CompletableFuture<>();
+        try {
+            executeur(priorite).execute(() -> {
+                try {
+                    futur.complete(calcul.call());
+                } catch (Throwable t) {
+                    futur.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            futur.completeExceptionally(e);
+        }
+        return futur;
+    }
+
+    /**
+     * Vue Executor d'une classe, par exemple pour MoteurAsynchrone :
+     * new MoteurAsynchrone(moteur, ordonnanceur.executeur(Priorite.INTERACTIVE), 0)
+     * @throws RejectedExecutionException (à l'exécution) si la file est pleine ou l'ordonnanceur arrêté
+     */
+    public Executor executeur(Priorite priorite) {
+        FileAttente file = files.get(priorite);
+        return tache -> {
+            file.statistiques.soumises.increment();
+            verrou.lock();
+            try {
+                if (arrete || file.taches.size() >= file.capacite) {
+                    file.statistiques.refusees.increment();
+                    throw new RejectedExecutionException(arrete ? "Ordonnanceur arrêté"
+                            : "File " + priorite + " pleine (" + file.capacite + ")");
+                }
+                file.taches.add(new Tache(tache, System.nanoTime()));
+                file.statistiques.profondeurMax = Math.max(file.statistiques.profondeurMax, file.taches.size());
+                travailDisponible.signal();
+            } finally {
+                verrou.unlock();
+            }
+        };
+    }
+
+    /**
+     * Boucle d'un thread : prend la prochaine tâche selon la politique et l'exécute
+     */
+    private void servir() {
+        while (true) {
+            Tache tache;
+            FileAttente file;
+            verrou.lock();
+            try {
+                while ((file = choisirFile()) == null) {
+                    if (arrete) {
+                        return;
+                    }
+                    travailDisponible.awaitUninterruptibly();
+                }
+                tache = file.taches.poll();
+            } finally {
+                verrou.unlock();
+            }
+
+            long debut = System.nanoTime();
+            try {
+                tache.travail.run();
+            } catch (Throwable t) {
+                // Une tâche défaillante (exception ou erreur) ne doit pas tuer le thread de
+                // service : soumettre a déjà fait échouer son futur, une tâche passée par
+                // executeur n'a personne à prévenir
+            }
+            long fin = System.nanoTime();
+            file.statistiques.enregistrer(debut - tache.soumission, fin - tache.soumission);
+        }
+    }
+
+    /**
+     * File à servir, ou null si les deux sont vides. Appelé sous le verrou.
+     */
+    private FileAttente choisirFile() {
+        FileAttente interactive = files.get(Priorite.INTERACTIVE);
+        FileAttente lot = files.get(Priorite.LOT);
+        if (interactive.taches.isEmpty()) {
+            interactivesDepuisLot = 0;
+            return lot.taches.isEmpty() ? null : lot;
+        }
+        if (lot.taches.isEmpty() || politique == Politique.PRIORITE_STRICTE) {
+            return interactive;
+        }
+        if (interactivesDepuisLot < poidsInteractif) {
+            interactivesDepuisLot++;
+            return interactive;
+        }
+        interactivesDepuisLot = 0;
+        return lot;
+    }
+
+    /**
+     * @return true si l'appelant est un thread de l'ordonnanceur : y attendre une autre
+     *         tâche de l'ordonnanceur pourrait occuper tous ses threads
+     */
+    public boolean estThreadDeService() {
+        return threads.contains(Thread.currentThread());
+    }
+
+    /**
+     * Profondeur courante de la file d'une classe
+     */
+    public int getProfondeur(Priorite priorite) {
+        verrou.lock();
+        try {
+            return files.get(priorite).taches.size();
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    public StatistiquesClasse getStatistiques(Priorite priorite) {
+        return files.get(priorite).statistiques;
+    }
+
+    public Politique getPolitique() {
+        return politique;
+    }
+
+    /**
+     * Refuse les nouvelles tâches ; les threads terminent les files puis s'arrêtent
+     */
+    @Override
+    public void close() {
+        verrou.lock();
+        try {
+            arrete = true;
+            travailDisponible.signalAll();
+        } finally {
+            verrou.unlock();
+        }
+        for (Thread t : threads) {
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static class Tache {
+        private final Runnable travail;
+        private final long soumission;
+
+        private Tache(Runnable travail, long soumission) {
+            this.travail = travail;
+            this.soumission = soumission;
+        }
+    }
+
+    private static class FileAttente {
+        private final ArrayDeque<Tache> taches = new ArrayDeque<>();   // Protégée par le verrou de l'ordonnanceur
+        private final int capacite;
+        private final StatistiquesClasse statistiques = new StatistiquesClasse();
+
+        private FileAttente(int capacite) {
+            this.capacite = capacite;
+        }
+    }
+
+    /**
+     * Classe représentant les mesures d'une classe de priorité. Les latences sont rangées
+     * dans des intervalles de puissances de 2 microsecondes : un centile est donné par la
+     * borne haute de son intervalle (précision ×2, sans conserver chaque mesure).
+     */
+    public static class StatistiquesClasse {
+        private static final int NB_INTERVALLES = 40;
+
+        private final LongAdder soumises = new LongAdder();
+        private final LongAdder refusees = new LongAdder();
+        private final LongAdder terminees = new LongAdder();
+        private final LongAdder attenteTotaleNs = new LongAdder();
+        private final AtomicLongArray attentes = new AtomicLongArray(NB_INTERVALLES);
+        private final AtomicLongArray latences = new AtomicLongArray(NB_INTERVALLES);
+        private volatile int profondeurMax;   // Écrit sous le verrou de l'ordonnanceur
+
+        private void enregistrer(long attenteNs, long latenceNs) {
+            terminees.increment();
+            attenteTotaleNs.add(attenteNs);
+            attentes.incrementAndGet(intervalle(attenteNs));
+            latences.incrementAndGet(intervalle(latenceNs));
+        }
+
+        private static int intervalle(long ns) {
+            long us = Math.max(1, ns / 1_000);
+            return Math.min(NB_INTERVALLES - 1, 63 - Long.numberOfLeadingZeros(us));
+        }
+
+        private static double centileMs(AtomicLongArray histogramme, double p) {
+            long total = 0;
+            for (int i = 0; i < NB_INTERVALLES; i++) {
+                total += histogramme.get(i);
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rang = (long) Math.ceil(p / 100.0 * total);
+            long cumul = 0;
+            for (int i = 0; i < NB_INTERVALLES; i++) {
+                cumul += histogramme.get(i);
+                if (cumul >= rang) {
+                    return (1L << (i + 1)) / 1_000.0;
+                }
+            }
+            return (1L << NB_INTERVALLES) / 1_000.0;
+        }
+
+        public long getSoumises() {
+            return soumises.sum();
+        }
+
+        public long getRefusees() {
+            return refusees.sum();
+        }
+
+        public long getTerminees() {
+            return terminees.sum();
+        }
+
+        public int getProfondeurMax() {
+            return profondeurMax;
+        }
+
+        public double getAttenteMoyenneMs() {
+            long n = terminees.sum();
+            return n == 0 ? 0 : attenteTotaleNs.sum() / 1e6 / n;
+        }
+
+        /**
+         * @param p Centile entre 0 et 100
+         * @return Borne haute (ms) du centile de l'attente en file
+         */
+        public double getCentileAttenteMs(double p) {
+            return centileMs(attentes, p);
+        }
+
+        /**
+         * @param p Centile entre 0 et 100
+         * @return Borne haute (ms) du centile de la latence soumission → fin d'exécution
+         */
+        public double getCentileLatenceMs(double p) {
+            return centileMs(latences, p);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%,d terminées, %,d refusées, file max %d, attente moy. %.2f ms, " +
+                            "latence p50 ≤ %.2f ms, p99 ≤ %.2f ms",
+                    getTerminees(), getRefusees(), profondeurMax, getAttenteMoyenneMs(),
+                    getCentileLatenceMs(50), getCentileLatenceMs(99));
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package utils;
+
+import utils.MoteurMorphologique.ResultatDecomposition;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Étage d'analyse pour flux (java.util.concurrent.Flow) : reçoit des mots de surface et
+ * publie, dans l'ordre d'arrivée, leur décomposition par le moteur (decomposerToken).
+ *
+ * Contre-pression pilotée par la demande :
+ *  - au plus capacite mots sont demandés en amont et non encore émis en aval (mots en
+ *    attente, en cours d'analyse ou analysés) : la file interne est bornée ;
+ *  - l'amont n'est relancé qu'à mesure que l'aval consomme ; un consommateur lent
+ *    ralentit donc l'analyse puis la source, sans croissance de file ;
+ *  - au plus parallelisme analyses s'exécutent en même temps sur l'exécuteur.
+ *
+ * Un seul abonné aval. Une annulation par l'aval annule l'amont et interrompt les
+ * analyses en cours (annulation coopérative du moteur) ; une erreur d'analyse est
+ * transmise à l'aval et annule l'amont.
+ */
+public class ProcesseurAnalyse implements Flow.Processor<String, ProcesseurAnalyse.Analyse> {
+
+    private final MoteurMorphologique moteur;
+    private final Executor executeur;
+    private final int parallelisme;
+    private final int capacite;
+    private final int lotAmont;   // Demandes groupées en amont (évite un request(1) par mot)
+
+    // État partagé, protégé par this
+    private final ArrayDeque<Analyse> file = new ArrayDeque<>();      // Reçus et non émis, dans l'ordre
+    private final ArrayDeque<Analyse> aLancer = new ArrayDeque<>();   // Reçus, pas encore confiés à l'exécuteur
+    private int enCours;
+    private long demandeAmont;   // Demandés en amont, pas encore reçus
+    private long demandeAval;    // Demandés par l'aval, pas encore émis
+    private Flow.Subscription amont;
+    private Flow.Subscriber<? super Analyse> aval;
+    private boolean abonne;
+    private boolean amontTermine;
+    private Throwable erreur;
+    private boolean emission;    // Un thread émet vers l'aval
+    private int tailleMaxFile;
+    private long nbEmis;
+    private volatile boolean fini;   // Signal terminal envoyé ou aval désabonné
+
+    /**
+     * @param executeur Exécuteur des analyses
+     * @param parallelisme Nombre maximal d'analyses simultanées
+     * @param capacite Nombre maximal de mots reçus et non encore émis
+     */
+    public ProcesseurAnalyse(MoteurMorphologique moteur, Executor executeur, int parallelisme, int capacite) {
+        if (parallelisme < 1 || capacite < 1) {
+            throw new IllegalArgumentException("Parallélisme et capacité doivent être positifs");
+        }
+        this.moteur = moteur;
+        this.executeur = executeur;
+        this.parallelisme = parallelisme;
+        this.capacite = capacite;
+        this.lotAmont = Math.max(1, capacite / 4);
+    }
+
+    // ───────────────────────── Côté amont (mots) ─────────────────────────
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        synchronized (this) {
+            if (amont != null || fini) {
+                subscription.cancel();
+                return;
+            }
+            amont = subscription;
+            demandeAmont = capacite;
+        }
+        subscription.request(capacite);
+    }
+
+    @Override
+    public void onNext(String mot) {
+        synchronized (this) {
+            if (fini) {
+                return;
+            }
+            Analyse analyse = new Analyse(mot);
+            demandeAmont--;
+            file.add(analyse);
+            aLancer.add(analyse);
+            tailleMaxFile = Math.max(tailleMaxFile, file.size());
+        }
+        lancer();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        synchronized (this) {
+            amontTermine = true;
+            if (erreur == null) {
+                erreur = throwable;
+            }
+        }
+        vider();
+    }
+
+    @Override
+    public void onComplete() {
+        synchronized (this) {
+            amontTermine = true;
+        }
+        vider();
+    }
+
+    // ───────────────────────── Côté aval (analyses) ─────────────────────────
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super Analyse> subscriber) {
+        synchronized (this) {
+            if (abonne) {
+                subscriber.onSubscribe(new Flow.Subscription() {
+                    public void request(long n) { }
+                    public void cancel() { }
+                });
+                subscriber.onError(new IllegalStateException("ProcesseurAnalyse n'accepte qu'un abonné"));
+                return;
+            }
+            abonne = true;
+        }
+        // onSubscribe avant tout autre signal : l'abonné n'est visible par vider() qu'ensuite
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+                synchronized (ProcesseurAnalyse.this) {
+                    if (n <= 0) {
+                        if (erreur == null) {
+                            erreur = new IllegalArgumentException("Demande non positive: " + n);
+                        }
+                    } else {
+                        demandeAval = demandeAval + n < 0 ? Long.MAX_VALUE : demandeAval + n;
+                    }
+                }
+                vider();
+            }
+
+            @Override
+            public void cancel() {
+                terminer();
+            }
+        });
+        synchronized (this) {
+            aval = subscriber;
+        }
+        vider();
+    }
+
+    // ───────────────────────── Analyse et émission ─────────────────────────
+
+    /**
+     * Confie des mots à l'exécuteur tant que le parallélisme le permet
+     */
+    private void lancer() {
+        List<Analyse> aDemarrer = new ArrayList<>();
+        synchronized (this) {
+            while (enCours < parallelisme && !aLancer.isEmpty() && !fini) {
+                aDemarrer.add(aLancer.poll());
+                enCours++;
+            }
+        }
+        for (Analyse analyse : aDemarrer) {
+            try {
+                executeur.execute(() -> analyser(analyse));
+            } catch (RejectedExecutionException e) {
+                synchronized (this) {
+                    enCours--;
+                    if (erreur == null) {
+                        erreur = e;
+                    }
+                }
+                vider();
+            }
+        }
+    }
+
+    private void analyser(Analyse analyse) {
+        ResultatDecomposition resultat = null;
+        Throwable echec = null;
+        try {
+            resultat = moteur.decomposerToken(analyse.mot, () -> fini);
+        } catch (CancellationException e) {
+            // Aval désabonné ou flux en erreur : le résultat ne sera pas émis
+        } catch (Throwable t) {
+            echec = t;
+        }
+        synchronized (this) {
+            analyse.resultat = resultat;
+            analyse.termine = true;
+            enCours--;
+            if (echec != null && erreur == null) {
+                erreur = echec;
+            }
+        }
+        lancer();
+        vider();
+    }
+
+    /**
+     * Émet vers l'aval tout ce qui peut l'être, dans l'ordre, puis relance l'amont.
+     * Un seul thread émet à la fois ; il ne s'arrête qu'après avoir constaté, sous le verrou,
+     * qu'il n'y a plus rien à faire, si bien qu'aucun changement d'état n'est perdu.
+     */
+    private void vider() {
+        synchronized (this) {
+            if (emission) {
+                return;   // L'émetteur en cours relit l'état avant de rendre la main
+            }
+            emission = true;
+        }
+        while (true) {
+            Flow.Subscriber<? super Analyse> s;
+            Analyse aEmettre = null;
+            Throwable echec = null;
+            boolean complet = false;
+            boolean annulerAmont = false;
+            long aDemander = 0;
+            synchronized (this) {
+                s = aval;
+                if (fini || s == null) {
+                    emission = false;
+                    return;
+                }
+                if (erreur != null) {
+                    echec = erreur;
+                    annulerAmont = !amontTermine;
+                    fini = true;
+                    file.clear();
+                    aLancer.clear();
+                } else if (demandeAval > 0 && !file.isEmpty() && file.peek().termine) {
+                    aEmettre = file.poll();
+                    demandeAval--;
+                    nbEmis++;
+                } else if (file.isEmpty() && amontTermine) {
+                    complet = true;
+                    fini = true;
+                } else {
+                    // Rien à émettre : relancer l'amont si besoin, sinon rendre la main
+                    aDemander = aDemanderEnAmont();
+                    if (aDemander == 0) {
+                        emission = false;
+                        return;
+                    }
+                }
+                if (aDemander == 0) {
+                    aDemander = aDemanderEnAmont();
+                }
+            }
+            if (aDemander > 0) {
+                amont.request(aDemander);
+            }
+            if (echec != null) {
+                if (annulerAmont && amont != null) {
+                    amont.cancel();
+                }
+                s.onError(echec);
+            } else if (complet) {
+                s.onComplete();
+            } else if (aEmettre != null) {
+                s.onNext(aEmettre);
+            }
+        }
+    }
+
+    /**
+     * Nombre de mots à redemander en amont pour remonter à capacite (0 sous le seuil de lot).
+     * Appelé sous le verrou.
+     */
+    private long aDemanderEnAmont() {
+        if (amont == null || amontTermine || fini) {
+            return 0;
+        }
+        long manque = capacite - file.size() - demandeAmont;
+        if (manque < lotAmont) {
+            return 0;
+        }
+        demandeAmont += manque;
+        return manque;
+    }
+
+    private void terminer() {
+        Flow.Subscription s;
+        synchronized (this) {
+            if (fini) {
+                return;
+            }
+            fini = true;
+            file.clear();
+            aLancer.clear();
+            s = amontTermine ? null : amont;
+        }
+        if (s != null) {
+            s.cancel();
+        }
+    }
+
+    /**
+     * @return La plus grande taille atteinte par la file interne (au plus capacite)
+     */
+    public synchronized int getTailleMaxFile() {
+        return tailleMaxFile;
+    }
+
+    public synchronized long getNbEmis() {
+        return nbEmis;
+    }
+
+    public int getCapacite() {
+        return capacite;
+    }
+
+    public int getParallelisme() {
+        return parallelisme;
+    }
+
+    /**
+     * Classe représentant un mot analysé, publié vers l'aval
+     */
+    public static class Analyse {
+        private final String mot;
+        private ResultatDecomposition resultat;   // Écrit sous le verrou du processeur avant émission
+        private boolean termine;
+
+        private Analyse(String mot) {
+            this.mot = mot;
+        }
+
+        public String getMot() {
+            return mot;
+        }
+
+        public ResultatDecomposition getResultat() {
+            return resultat;
+        }
+
+        @Override
+        public String toString() {
+            return mot + " → " + resultat;
+        }
+    }
+}
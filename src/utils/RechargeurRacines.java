@@ -0,0 +1,211 @@
+package utils;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Rechargement à chaud du fichier des racines.
+ *
+ * Un thread surveille le fichier (WatchService sur son dossier). À chaque modification,
+ * le nouveau fichier est lu en un ensemble trié, puis comparé aux racines de l'arbre
+ * (déjà triées par le parcours infixe) en une seule passe de fusion : seules les
+ * racines ajoutées sont insérées et seules les racines disparues sont supprimées.
+ * Chaque modification prend le verrou d'écriture de l'ABR le temps d'une opération,
+ * les lecteurs continuent donc d'être servis pendant le rechargement. Les modifications
+ * passent par la façade : une racine supprimée libère aussi sa ligne de la matrice de
+ * génération.
+ *
+ * Les racines conservées gardent leur id, leur fréquence et leurs dérivés.
+ */
+public class RechargeurRacines {
+
+    /** Délai laissé à l'éditeur pour finir d'écrire avant de relire le fichier */
+    private static final long DELAI_STABILISATION_MS = 200;
+
+    private final Path fichier;
+    private final SystemeMorphologique systeme;
+    private WatchService surveillance;
+    private Thread surveillant;
+    private volatile Runnable apresRechargement;
+
+    public RechargeurRacines(String nomFichier, SystemeMorphologique systeme) {
+        this.fichier = Paths.get(nomFichier).toAbsolutePath();
+        this.systeme = systeme;
+    }
+
+    /**
+     * Relit le fichier et applique la différence avec l'arbre
+     * @return Le rapport (ajouts, suppressions, durées)
+     */
+    public RapportRechargement recharger() throws IOException {
+        long debut = System.nanoTime();
+        TreeSet<String> nouvelles = ChargeurDonnees.lireRacinesTriees(fichier.toString());
+        List<String> actuelles = systeme.getArbre().getToutesLesRacines();
+        long finLecture = System.nanoTime();
+
+        // Passe de fusion sur les deux listes triées
+        List<String> aInserer = new ArrayList<>();
+        List<String> aSupprimer = new ArrayList<>();
+        Iterator<String> it = nouvelles.iterator();
+        String nouvelle = it.hasNext() ? it.next() : null;
+        int i = 0;
+        while (nouvelle != null || i < actuelles.size()) {
+            String actuelle = i < actuelles.size() ? actuelles.get(i) : null;
+            int comparaison = nouvelle == null ? 1 : actuelle == null ? -1 : nouvelle.compareTo(actuelle);
+            if (comparaison == 0) {
+                nouvelle = it.hasNext() ? it.next() : null;
+                i++;
+            } else if (comparaison < 0) {
+                aInserer.add(nouvelle);
+                nouvelle = it.hasNext() ? it.next() : null;
+            } else {
+                aSupprimer.add(actuelle);
+                i++;
+            }
+        }
+
+        // Une opération par prise de verrou : les lecteurs s'intercalent
+        for (String racine : aSupprimer) {
+            systeme.supprimerRacine(racine);
+        }
+        for (String racine : aInserer) {
+            systeme.ajouterRacine(racine);
+        }
+
+        return new RapportRechargement(aInserer.size(), aSupprimer.size(), systeme.getArbre().getTaille(),
+                finLecture - debut, System.nanoTime() - finLecture);
+    }
+
+    /**
+     * Action exécutée par le thread de surveillance après chaque rechargement réussi
+     * (ex: réécrire l'instantané, désormais synchronisé avec le nouveau fichier)
+     */
+    public void setApresRechargement(Runnable action) {
+        this.apresRechargement = action;
+    }
+
+    /**
+     * Démarre la surveillance du fichier dans un thread démon
+     */
+    public synchronized void demarrer() throws IOException {
+        if (surveillant != null) {
+            return;
+        }
+        surveillance = FileSystems.getDefault().newWatchService();
+        fichier.getParent().register(surveillance,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+        surveillant = new Thread(this::surveiller, "rechargeur-racines");
+        surveillant.setDaemon(true);
+        surveillant.start();
+    }
+
+    private void surveiller() {
+        try {
+            while (true) {
+                WatchKey cle = surveillance.take();
+                boolean concerne = false;
+                for (WatchEvent<?> evenement : cle.pollEvents()) {
+                    Object contexte = evenement.context();
+                    if (contexte instanceof Path && fichier.getFileName().equals(contexte)) {
+                        concerne = true;
+                    }
+                }
+                cle.reset();
+                if (!concerne) {
+                    continue;
+                }
+
+                // Une sauvegarde produit souvent plusieurs événements : on les regroupe
+                Thread.sleep(DELAI_STABILISATION_MS);
+                WatchKey suivante;
+                while ((suivante = surveillance.poll()) != null) {
+                    suivante.pollEvents();
+                    suivante.reset();
+                }
+
+                try {
+                    System.out.println("\n🔄 " + recharger());
+                    Runnable action = apresRechargement;
+                    if (action != null) {
+                        action.run();
+                    }
+                } catch (IOException e) {
+                    System.err.println("❌ Rechargement impossible: " + e.getMessage());
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Arrêt demandé
+        }
+    }
+
+    /**
+     * Arrête la surveillance
+     */
+    public synchronized void arreter() {
+        if (surveillant == null) {
+            return;
+        }
+        try {
+            surveillance.close();
+        } catch (IOException e) {
+            // Rien à faire de plus
+        }
+        surveillant.interrupt();
+        surveillant = null;
+    }
+
+    /**
+     * Classe représentant le rapport d'un rechargement
+     */
+    public static class RapportRechargement {
+        private int nbInsertions;
+        private int nbSuppressions;
+        private int nbRacines;
+        private long dureeLectureNs;
+        private long dureeApplicationNs;
+
+        public RapportRechargement(int nbInsertions, int nbSuppressions, int nbRacines,
+                                   long dureeLectureNs, long dureeApplicationNs) {
+            this.nbInsertions = nbInsertions;
+            this.nbSuppressions = nbSuppressions;
+            this.nbRacines = nbRacines;
+            this.dureeLectureNs = dureeLectureNs;
+            this.dureeApplicationNs = dureeApplicationNs;
+        }
+
+        public int getNbInsertions() {
+            return nbInsertions;
+        }
+
+        public int getNbSuppressions() {
+            return nbSuppressions;
+        }
+
+        public int getNbRacines() {
+            return nbRacines;
+        }
+
+        public long getDureeTotaleNs() {
+            return dureeLectureNs + dureeApplicationNs;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Rechargement: +%d / -%d racines (total %d) en %.2f ms (lecture %.2f ms, diff et application %.2f ms)",
+                    nbInsertions, nbSuppressions, nbRacines, getDureeTotaleNs() / 1_000_000.0,
+                    dureeLectureNs / 1_000_000.0, dureeApplicationNs / 1_000_000.0);
+        }
+    }
+}
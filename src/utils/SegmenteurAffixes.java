@@ -0,0 +1,233 @@
+package utils;
+
+import models.Normaliseur;
+import models.Scheme;
+import structures.HashTable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Segmentation d'un mot en proclitiques + tige + suffixes (و، ف، ب، ل، ال ... / ـه، ـها، ـون، ـات، ة ...).
+ *
+ * Les affixes connus sont rangés dans deux tries : un trie des préfixes parcouru depuis
+ * le début du mot, et un trie des suffixes (inversés) parcouru depuis la fin. Une seule
+ * descente dans chaque trie donne toutes les longueurs d'affixe possibles ; les tiges
+ * candidates sont les combinaisons préfixe × suffixe dont la longueur est celle d'au
+ * moins un pattern de schème (une tige de longueur impossible n'est jamais testée).
+ *
+ * Classement : le mot nu d'abord (comportement historique de decomposerMot), puis les
+ * tiges par longueur d'affixes retirés décroissante (le plus long affixe d'abord).
+ */
+public class SegmenteurAffixes {
+
+    private static final String[] PREFIXES = {
+            "و", "ف", "ب", "ل", "ك", "س",
+            "ال", "وال", "فال", "بال", "كال", "لل", "ولل", "فلل", "وبال", "فبال", "وكال",
+            "وب", "ول", "فب", "فل", "وس", "فس"
+    };
+
+    private static final String[] SUFFIXES = {
+            "ه", "ها", "هم", "هن", "هما", "ك", "كم", "كن", "كما", "نا", "ني", "ي",
+            "ون", "ين", "ان", "ات", "ة", "وا", "تان", "تين", "اتها", "اته", "تها", "ته"
+    };
+
+    private final Trie prefixes = new Trie();
+    private final Trie suffixes = new Trie();
+    private final boolean[] longueursPlausibles;   // longueurs des patterns de schèmes
+    private final Normaliseur normaliseur = Normaliseur.getDefaut();
+
+    private final LongAdder nbMots = new LongAdder();
+    private final LongAdder nbDecoupages = new LongAdder();   // combinaisons préfixe × suffixe possibles
+    private final LongAdder nbCandidats = new LongAdder();    // tiges gardées après élagage
+
+    /**
+     * Construit le segmenteur pour les schèmes d'une table
+     */
+    public SegmenteurAffixes(HashTable schemes) {
+        this(schemes.getTousLesSchemes());
+    }
+
+    /**
+     * Construit le segmenteur pour une liste de schèmes
+     */
+    public SegmenteurAffixes(List<Scheme> schemes) {
+        for (String p : PREFIXES) {
+            prefixes.ajouter(normaliseur.normaliser(p), false);
+        }
+        for (String s : SUFFIXES) {
+            suffixes.ajouter(normaliseur.normaliser(s), true);
+        }
+
+        int max = 0;
+        List<Integer> longueurs = new ArrayList<>();
+        for (Scheme scheme : schemes) {
+            int longueur = normaliseur.normaliser(scheme.getPattern()).length();
+            longueurs.add(longueur);
+            max = Math.max(max, longueur);
+        }
+        this.longueursPlausibles = new boolean[max + 1];
+        for (int longueur : longueurs) {
+            longueursPlausibles[longueur] = true;
+        }
+    }
+
+    /**
+     * Génère les tiges candidates d'un mot, classées
+     * @param mot Le mot (normalisé ici s'il ne l'est pas)
+     * @return Les candidats plausibles, le plus probable en premier
+     */
+    public List<Candidat> segmenter(String mot) {
+        String m = normaliseur.normaliser(mot.trim());
+        int n = m.length();
+
+        int[] longueursPrefixes = new int[n + 1];
+        int[] longueursSuffixes = new int[n + 1];
+        int nbP = prefixes.correspondances(m, false, longueursPrefixes);
+        int nbS = suffixes.correspondances(m, true, longueursSuffixes);
+
+        List<Candidat> candidats = new ArrayList<>();
+        for (int i = 0; i < nbP; i++) {
+            for (int j = 0; j < nbS; j++) {
+                int p = longueursPrefixes[i];
+                int s = longueursSuffixes[j];
+                int tige = n - p - s;
+                if (tige > 0 && tige < longueursPlausibles.length && longueursPlausibles[tige]) {
+                    candidats.add(new Candidat(m.substring(0, p), m.substring(p, n - s), m.substring(n - s)));
+                }
+            }
+        }
+        // Mot nu d'abord, puis le plus d'affixes retirés d'abord
+        candidats.sort((a, b) -> {
+            int ra = a.longueurAffixes() == 0 ? Integer.MAX_VALUE : a.longueurAffixes();
+            int rb = b.longueurAffixes() == 0 ? Integer.MAX_VALUE : b.longueurAffixes();
+            if (ra != rb) {
+                return Integer.compare(rb, ra);
+            }
+            return Integer.compare(a.prefixe.length(), b.prefixe.length());
+        });
+
+        nbMots.increment();
+        nbDecoupages.add((long) nbP * nbS);
+        nbCandidats.add(candidats.size());
+        return candidats;
+    }
+
+    /**
+     * Nombre moyen de tiges candidates transmises à la correspondance de schèmes par mot
+     */
+    public double getMoyenneCandidats() {
+        long mots = nbMots.sum();
+        return mots == 0 ? 0 : (double) nbCandidats.sum() / mots;
+    }
+
+    /**
+     * Nombre moyen de découpages préfixe × suffixe avant élagage par longueur
+     */
+    public double getMoyenneDecoupages() {
+        long mots = nbMots.sum();
+        return mots == 0 ? 0 : (double) nbDecoupages.sum() / mots;
+    }
+
+    public long getNbMots() {
+        return nbMots.sum();
+    }
+
+    public void reinitialiserStatistiques() {
+        nbMots.reset();
+        nbDecoupages.reset();
+        nbCandidats.reset();
+    }
+
+    /**
+     * Trie de caractères ; les suffixes y sont rangés à l'envers
+     */
+    private static final class Trie {
+        private char[] etiquettes = new char[0];
+        private Trie[] enfants = new Trie[0];
+        private boolean terminal;
+
+        void ajouter(String affixe, boolean inverse) {
+            Trie noeud = this;
+            for (int i = 0; i < affixe.length(); i++) {
+                char c = affixe.charAt(inverse ? affixe.length() - 1 - i : i);
+                Trie enfant = noeud.enfant(c);
+                if (enfant == null) {
+                    enfant = new Trie();
+                    int k = noeud.etiquettes.length;
+                    noeud.etiquettes = Arrays.copyOf(noeud.etiquettes, k + 1);
+                    noeud.enfants = Arrays.copyOf(noeud.enfants, k + 1);
+                    noeud.etiquettes[k] = c;
+                    noeud.enfants[k] = enfant;
+                }
+                noeud = enfant;
+            }
+            noeud.terminal = true;
+        }
+
+        Trie enfant(char c) {
+            for (int k = 0; k < etiquettes.length; k++) {
+                if (etiquettes[k] == c) {
+                    return enfants[k];
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Descend le trie le long du mot et note chaque longueur d'affixe reconnue (0 compris)
+         * @param depuisFin true pour lire le mot depuis la fin (suffixes)
+         * @return Le nombre de longueurs écrites dans sortie
+         */
+        int correspondances(String mot, boolean depuisFin, int[] sortie) {
+            int nb = 0;
+            sortie[nb++] = 0;
+            Trie noeud = this;
+            for (int i = 0; i < mot.length() && noeud != null; i++) {
+                noeud = noeud.enfant(mot.charAt(depuisFin ? mot.length() - 1 - i : i));
+                if (noeud != null && noeud.terminal) {
+                    sortie[nb++] = i + 1;
+                }
+            }
+            return nb;
+        }
+    }
+
+    /**
+     * Classe représentant une segmentation candidate préfixe + tige + suffixe
+     */
+    public static class Candidat {
+        private String prefixe;
+        private String tige;
+        private String suffixe;
+
+        public Candidat(String prefixe, String tige, String suffixe) {
+            this.prefixe = prefixe;
+            this.tige = tige;
+            this.suffixe = suffixe;
+        }
+
+        public String getPrefixe() {
+            return prefixe;
+        }
+
+        public String getTige() {
+            return tige;
+        }
+
+        public String getSuffixe() {
+            return suffixe;
+        }
+
+        public int longueurAffixes() {
+            return prefixe.length() + suffixe.length();
+        }
+
+        @Override
+        public String toString() {
+            return (prefixe.isEmpty() ? "" : prefixe + "+") + "[" + tige + "]" + (suffixe.isEmpty() ? "" : "+" + suffixe);
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package utils;
+
+import models.RacineNode;
+import models.RacineNode.Frequence;
+import models.RacineNode.MotDerive;
+import models.Scheme;
+import structures.ABR;
+import structures.HashTable;
+import utils.MoteurMorphologique.Budget;
+import utils.MoteurMorphologique.ResultatDecomposition;
+import utils.MoteurMorphologique.ResultatValidation;
+import utils.OrdonnanceurMoteur.Politique;
+import utils.OrdonnanceurMoteur.Priorite;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Façade du système morphologique : un dictionnaire de racines, un catalogue de schèmes
+ * et le moteur qui les relie, partagés par tous les threads (console, Swing, serveurs).
+ *
+ * Contrat de concurrence :
+ *  - Lectures (génération, validation, décomposition, recherche, dérivés) : appelables
+ *    en parallèle depuis n'importe quel thread, sans verrou global. Elles lisent l'ABR
+ *    sous son verrou de lecture et les schèmes dans un catalogue immuable.
+ *  - Effets de bord des lectures (dérivés enregistrés, fréquences) : non bloquants,
+ *    voir RacineNode. Une lecture concurrente des dérivés peut ne pas voir un ajout
+ *    en cours, jamais une liste incohérente.
+ *  - Modifications du dictionnaire (ajouterRacine, supprimerRacine) : sous le verrou
+ *    d'écriture de l'ABR, une opération à la fois.
+ *  - Modifications du catalogue de schèmes (ajouterScheme, supprimerScheme,
+ *    modifierPattern) : sérialisées, puis publiées d'un bloc ; une requête en cours
+ *    termine avec l'ancien catalogue.
+ * Les structures exposées par getArbre/getTableSchemes ne doivent pas être modifiées
+ * directement pendant que d'autres threads utilisent la façade.
+ *
+ * Les points d'entrée (console, Swing, serveurs) passent leurs appels au moteur par
+ * executer, dans la classe de priorité de l'appelant : INTERACTIVE pour une requête
+ * unitaire ou un geste de l'utilisateur, LOT pour les traitements en masse. Les lectures
+ * ci-dessous restent appelables directement (tests, calculs déjà ordonnancés).
+ */
+public class SystemeMorphologique {
+
+    /** Taille de la file interactive de l'ordonnanceur */
+    public static final int CAPACITE_INTERACTIVE = 1024;
+
+    /** Taille de la file de lot de l'ordonnanceur */
+    public static final int CAPACITE_LOT = 16 * 1024;
+
+    /** Tâches interactives servies par tâche de lot quand les deux files attendent */
+    public static final int POIDS_INTERACTIF = 8;
+
+    private final ABR arbre;
+    private final HashTable tableSchemes;
+    private final MoteurMorphologique moteur;
+    private final Object verrouOrdonnanceur = new Object();
+    private volatile OrdonnanceurMoteur ordonnanceur;   // Créé au premier appel ordonnancé
+
+    /**
+     * Construit la façade sur des structures déjà chargées et fige le catalogue de schèmes
+     */
+    public SystemeMorphologique(ABR arbre, HashTable tableSchemes) {
+        this.arbre = arbre;
+        this.tableSchemes = tableSchemes;
+        this.moteur = new MoteurMorphologique(arbre, tableSchemes);
+        moteur.figerSchemes();
+    }
+
+    // ───────────────────────── Lectures (parallèles) ─────────────────────────
+
+    /**
+     * @return Le mot généré, ou null si la racine ou le schème est inconnu
+     */
+    public String generer(String racine, String nomScheme) {
+        return moteur.genererMotDerive(racine, nomScheme);
+    }
+
+    /**
+     * @return La raison d'échec de generer sur ce couple, ou null si elle est possible
+     */
+    public String expliquerEchecGeneration(String racine, String nomScheme) {
+        return moteur.expliquerEchecGeneration(racine, nomScheme);
+    }
+
+    public List<String> genererTous(String racine) {
+        return moteur.genererTousLesDerivees(racine);
+    }
+
+    public ResultatValidation valider(String mot, String racine) {
+        return moteur.validerMot(mot, racine);
+    }
+
+    /**
+     * Décompose un mot pouvant porter des proclitiques et des suffixes
+     */
+    public ResultatDecomposition decomposer(String mot) {
+        return moteur.decomposerToken(mot);
+    }
+
+    /**
+     * Décompose dans un budget (voir MoteurMorphologique.Budget) : au-delà, le résultat est
+     * marqué tronqué plutôt que rendu en retard, avec ce qui était établi (meilleur candidat,
+     * tiges écartées ; voir MoteurMorphologique.decomposerToken)
+     */
+    public ResultatDecomposition decomposer(String mot, Budget budget) {
+        return moteur.decomposerToken(mot, budget);
+    }
+
+    public RacineNode rechercherRacine(String racine) {
+        return arbre.rechercher(racine);
+    }
+
+    public boolean existeRacine(String racine) {
+        return arbre.existe(racine);
+    }
+
+    public List<MotDerive> getDerives(String racine) {
+        return arbre.getMotsDerivesDeRacine(racine);
+    }
+
+    /**
+     * Classement des racines par fréquence (instantané, voir ABR)
+     */
+    public List<Frequence> getRacinesLesPlusFrequentes(int k) {
+        return arbre.getRacinesLesPlusFrequentes(k);
+    }
+
+    /**
+     * Classement des dérivés d'une racine par fréquence (liste vide si la racine est inconnue)
+     */
+    public List<Frequence> getDerivesLesPlusFrequents(String racine, int k) {
+        RacineNode noeud = arbre.rechercher(racine);
+        return noeud == null ? new ArrayList<>() : noeud.getDerivesLesPlusFrequents(k);
+    }
+
+    /**
+     * Parcours complets de décomposition évités par le partage entre appels simultanés
+     */
+    public long getNbDecompositionsEconomisees() {
+        return moteur.getNbParcoursEconomises();
+    }
+
+    public Scheme rechercherScheme(String nom) {
+        return moteur.rechercherScheme(nom);
+    }
+
+    public List<Scheme> getSchemes() {
+        return moteur.getSchemes();
+    }
+
+    /**
+     * Variantes asynchrones (CompletableFuture) des lectures, exécutées sur executeur
+     * @param delaiMaxMs Délai maximal de chaque appel (0 = aucun)
+     */
+    public MoteurAsynchrone asynchrone(Executor executeur, long delaiMaxMs) {
+        return new MoteurAsynchrone(moteur, executeur, delaiMaxMs);
+    }
+
+    // ───────────────────────── Ordonnancement ─────────────────────────
+
+    /**
+     * Ordonnanceur partagé par les points d'entrée : un thread par processeur, partage
+     * équitable (POIDS_INTERACTIF tâches interactives pour une tâche de lot)
+     */
+    public OrdonnanceurMoteur getOrdonnanceur() {
+        OrdonnanceurMoteur o = ordonnanceur;
+        if (o == null) {
+            synchronized (verrouOrdonnanceur) {
+                o = ordonnanceur;
+                if (o == null) {
+                    o = new OrdonnanceurMoteur(Runtime.getRuntime().availableProcessors(),
+                            CAPACITE_INTERACTIVE, CAPACITE_LOT, Politique.PARTAGE_EQUITABLE, POIDS_INTERACTIF);
+                    ordonnanceur = o;
+                }
+            }
+        }
+        return o;
+    }
+
+    /**
+     * Exécute un calcul dans la file de sa classe de priorité et attend son résultat : les
+     * appels interactifs passent devant les traitements en lot. Depuis un thread de
+     * l'ordonnanceur, le calcul s'exécute sur place (voir estThreadDeService).
+     * @throws java.util.concurrent.RejectedExecutionException si la file de cette classe est pleine
+     */
+    public <T> T executer(Priorite priorite, Supplier<T> calcul) {
+        OrdonnanceurMoteur o = getOrdonnanceur();
+        if (o.estThreadDeService()) {
+            return calcul.get();
+        }
+        try {
+            return o.soumettre(priorite, calcul::get).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Étage Flow analysant un flux de mots (voir ProcesseurAnalyse)
+     */
+    public ProcesseurAnalyse processeurAnalyse(Executor executeur, int parallelisme, int capacite) {
+        return new ProcesseurAnalyse(moteur, executeur, parallelisme, capacite);
+    }
+
+    // ───────────────────────── Écritures ─────────────────────────
+
+    /**
+     * @return false si la racine existait déjà (sa fréquence est alors incrémentée)
+     */
+    public boolean ajouterRacine(String racine) {
+        return arbre.inserer(racine);
+    }
+
+    /**
+     * Supprime une racine et vide sa ligne de génération (son id n'est jamais réattribué :
+     * la ligne ne servirait plus)
+     * @return false si la racine n'existait pas
+     */
+    public boolean supprimerRacine(String racine) {
+        int id = arbre.supprimerEtIdentifier(racine);
+        if (id < 0) {
+            return false;
+        }
+        moteur.getMatriceGeneration().invaliderLigne(id);
+        return true;
+    }
+
+    public void ajouterScheme(Scheme scheme) {
+        moteur.modifierSchemes(table -> table.ajouter(scheme.getNom(), scheme));
+    }
+
+    public void supprimerScheme(String nom) {
+        moteur.modifierSchemes(table -> table.supprimer(nom));
+    }
+
+    /**
+     * Change le pattern d'un schème. Le schème partagé n'est pas modifié en place : une
+     * copie le remplace dans la table (même id), et les formes générées avec l'ancien
+     * objet sont invalidées par la matrice de génération.
+     * @return false si le schème n'existe pas
+     */
+    public boolean modifierPattern(String nom, String pattern) {
+        boolean[] trouve = new boolean[1];
+        moteur.modifierSchemes(table -> {
+            Scheme ancien = table.rechercher(nom);
+            if (ancien != null) {
+                table.ajouter(nom, new Scheme(nom, pattern, ancien.getDescription(), ancien.getType()));
+                trouve[0] = true;
+            }
+        });
+        return trouve[0];
+    }
+
+    // ───────────────────────── Accès aux composants ─────────────────────────
+
+    public MoteurMorphologique getMoteur() {
+        return moteur;
+    }
+
+    public ABR getArbre() {
+        return arbre;
+    }
+
+    public HashTable getTableSchemes() {
+        return tableSchemes;
+    }
+}
@@ -0,0 +1,1271 @@
+package utils;
+
+import models.RacineNode;
+import models.RacineNode.MotDerive;
+import models.Scheme;
+import models.Scheme.TypeScheme;
+import serveur.GenerateurCharge;
+import serveur.Json;
+import serveur.ServeurLignes;
+import serveur.ServeurMorphologique;
+import structures.ABR;
+import structures.DictionnaireDisque;
+import structures.DictionnaireFragmente;
+import structures.DictionnaireRacines;
+import structures.HashTable;
+import structures.HashTableConcurrente;
+import utils.MoteurMorphologique.Budget;
+import utils.MoteurMorphologique.ResultatDecomposition;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Tests de performance et de robustesse intégrés (appelés depuis le menu de Main).
+ * Chaque test affiche son verdict et ses mesures sur la console.
+ */
+public class TestsPerformance {
+
+    /**
+     * Test de stress multi-thread de HashTableConcurrente :
+     * chaque thread insère ses propres clés, en supprime la moitié, pendant que
+     * des lecteurs parcourent la table en continu. On vérifie ensuite l'état final.
+     * @return true si l'état final est cohérent
+     */
+    public static boolean testerConcurrenceHashTable(int nbThreads, int clesParThread) {
+        System.out.println("\n=== Stress test HashTableConcurrente ===");
+        HashTableConcurrente table = new HashTableConcurrente();
+        CountDownLatch depart = new CountDownLatch(1);
+        AtomicInteger erreursLecture = new AtomicInteger(0);
+        AtomicBoolean arret = new AtomicBoolean(false);
+
+        List<Thread> ecrivains = new ArrayList<>();
+        for (int t = 0; t < nbThreads; t++) {
+            final int numero = t;
+            ecrivains.add(new Thread(() -> {
+                attendre(depart);
+                for (int i = 0; i < clesParThread; i++) {
+                    String cle = "t" + numero + "_" + i;
+                    table.ajouter(cle, new Scheme(cle, "فاعل", TypeScheme.AUTRE));
+                }
+                for (int i = 0; i < clesParThread; i += 2) {
+                    table.supprimer("t" + numero + "_" + i);
+                }
+            }));
+        }
+
+        List<Thread> lecteurs = new ArrayList<>();
+        for (int t = 0; t < Math.max(1, nbThreads / 2); t++) {
+            lecteurs.add(new Thread(() -> {
+                attendre(depart);
+                while (!arret.get()) {
+                    for (Scheme s : table.getTousLesSchemes()) {
+                        // Une clé impaire n'est jamais supprimée : une fois vue, elle doit rester visible
+                        int numero = Integer.parseInt(s.getNom().substring(s.getNom().indexOf('_') + 1));
+                        if (numero % 2 == 1 && table.rechercher(s.getNom()) == null) {
+                            erreursLecture.incrementAndGet();
+                        }
+                    }
+                }
+            }));
+        }
+
+        ecrivains.forEach(Thread::start);
+        lecteurs.forEach(Thread::start);
+        depart.countDown();
+        joindre(ecrivains);
+        arret.set(true);
+        joindre(lecteurs);
+
+        int attendu = nbThreads * (clesParThread / 2);
+        int manquantes = 0;
+        for (int t = 0; t < nbThreads; t++) {
+            for (int i = 0; i < clesParThread; i++) {
+                boolean present = table.existe("t" + t + "_" + i);
+                if (present != (i % 2 == 1)) {
+                    manquantes++;
+                }
+            }
+        }
+
+        boolean ok = table.getTaille() == attendu && manquantes == 0 && erreursLecture.get() == 0;
+        System.out.println("Taille finale: " + table.getTaille() + " (attendu " + attendu + ")");
+        System.out.println("Clés incohérentes: " + manquantes + " | Erreurs de lecture: " + erreursLecture.get());
+        System.out.println(ok ? "✓ Test réussi" : "✗ Test échoué");
+        return ok;
+    }
+
+    /**
+     * Compare le débit (opérations/s) de HashTableConcurrente et d'une HashTable
+     * protégée par un verrou global, avec 90% de lectures et 10% d'écritures.
+     */
+    public static void comparerDebitHashTable(int nbThreads, int operationsParThread) {
+        System.out.println("\n=== Débit: verrou global vs HashTableConcurrente ===");
+        System.out.println("Threads: " + nbThreads + " | Opérations/thread: " + operationsParThread);
+
+        HashTable globale = new HashTable();
+        Object verrouGlobal = new Object();
+        HashTableConcurrente concurrente = new HashTableConcurrente();
+        ChargeurDonnees.initialiserSchemes(globale);
+        ChargeurDonnees.initialiserSchemes(concurrente);
+        List<String> noms = globale.getTousLesNoms();
+
+        double debitGlobal = mesurerDebit(nbThreads, operationsParThread, (lecture, cle) -> {
+            synchronized (verrouGlobal) {
+                if (lecture) {
+                    globale.rechercher(cle);
+                } else {
+                    globale.ajouter(cle, globale.rechercher(cle));   // Même schème sous son nom : écriture sans changement d'id
+                }
+            }
+        }, noms);
+
+        double debitConcurrent = mesurerDebit(nbThreads, operationsParThread, (lecture, cle) -> {
+            if (lecture) {
+                concurrente.rechercher(cle);
+            } else {
+                concurrente.ajouter(cle, concurrente.rechercher(cle));
+            }
+        }, noms);
+
+        System.out.println("Verrou global:        " + String.format("%,.0f", debitGlobal) + " ops/s");
+        System.out.println("HashTableConcurrente: " + String.format("%,.0f", debitConcurrent) + " ops/s");
+        System.out.println("Rapport: x" + String.format("%.2f", debitConcurrent / debitGlobal));
+    }
+
+    /**
+     * Mesure le précalcul parallèle du lexique sur un dictionnaire synthétique
+     */
+    public static void mesurerPrecalcul(int nbRacines, int nbSchemes, int nbThreads) {
+        System.out.println("\n=== Précalcul parallèle du lexique ===");
+        ABR arbre = new ABR();
+        for (String racine : genererRacinesSynthetiques(nbRacines)) {
+            arbre.inserer(racine);
+        }
+        HashTable table = genererSchemesSynthetiques(nbSchemes);
+
+        MoteurMorphologique moteur = new MoteurMorphologique(arbre, table);
+        System.out.println(moteur.precalculerLexique(nbThreads));
+    }
+
+    /**
+     * Compare le chargeur ligne à ligne et le chargeur par projection mémoire
+     * sur un fichier synthétique de nbLignes lignes (quelques lignes invalides incluses)
+     */
+    public static void comparerChargeurs(int nbLignes, int nbThreads) {
+        System.out.println("\n=== Chargement: BufferedReader vs projection mémoire ===");
+        try {
+            Path fichier = Files.createTempFile("racines_bench", ".txt");
+            List<String> racines = genererRacinesSynthetiques(20_000);
+            try (BufferedWriter bw = Files.newBufferedWriter(fichier, StandardCharsets.UTF_8)) {
+                bw.write("# Fichier synthétique\n");
+                for (int i = 0; i < nbLignes; i++) {
+                    bw.write(i % 250_000 == 0 ? "كتابة" : racines.get(i % racines.size()));
+                    bw.newLine();
+                }
+            }
+
+            long debut = System.nanoTime();
+            int nb = ChargeurDonnees.chargerRacinesDepuisFichier(fichier.toString(), new ABR());
+            double dureeClassique = (System.nanoTime() - debut) / 1_000_000.0;
+            System.out.println("BufferedReader: " + nb + " racines en " + String.format("%.1f", dureeClassique) + " ms");
+
+            ChargeurDonnees.RapportChargement rapport =
+                    ChargeurDonnees.chargerRacinesProjetees(fichier.toString(), new ABR(), nbThreads);
+            System.out.println("Projection:     " + rapport);
+            for (String message : rapport.decrireLignesInvalides(3)) {
+                System.out.println("  " + message);
+            }
+
+            Files.deleteIfExists(fichier);
+        } catch (IOException e) {
+            System.err.println("❌ Erreur: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Compare l'ABR en mémoire et le dictionnaire sur disque (fichier trié projeté) :
+     * tas occupé, débit de recherche, puis une génération et une décomposition
+     * via MoteurMorphologique branché sur le disque.
+     */
+    public static void comparerDictionnaireDisque(int nbRacines, int nbRecherches) {
+        System.out.println("\n=== Dictionnaire: ABR en mémoire vs fichier projeté ===");
+        List<String> racines = genererRacinesSynthetiques(nbRacines);
+        try {
+            long avant = tasUtilise();
+            ABR arbre = new ABR();
+            arbre.insererEnMasse(racines);
+            long tasArbre = tasUtilise() - avant;
+
+            Path fichier = Files.createTempFile("racines", ".dat");
+            DictionnaireDisque.ecrire(fichier.toString(), racines);
+            avant = tasUtilise();
+            DictionnaireDisque disque = DictionnaireDisque.ouvrir(fichier.toString());
+            long tasDisque = tasUtilise() - avant;
+
+            System.out.println("ABR:    " + arbre.getTaille() + " racines, tas ≈ " + tasArbre / 1024 + " Ko");
+            System.out.println("Disque: " + disque.getTaille() + " racines, tas ≈ " + Math.max(0, tasDisque) / 1024
+                    + " Ko, fichier " + disque.getTailleOctets() / 1024 + " Ko");
+
+            mesurerRecherches("ABR", arbre, racines, nbRecherches);
+            mesurerRecherches("Disque", disque, racines, nbRecherches);
+
+            MoteurMorphologique moteur = new MoteurMorphologique(disque, genererSchemesSynthetiques(10));
+            String mot = moteur.genererMotDerive(racines.get(racines.size() / 2), "s0");
+            System.out.println("Moteur sur disque: " + mot + " → " + moteur.decomposerMot(mot).getRacine());
+
+            Files.deleteIfExists(fichier);
+            // Garder l'arbre vivant jusqu'ici pour que la mesure de tas ait un sens
+            java.lang.ref.Reference.reachabilityFence(arbre);
+        } catch (IOException e) {
+            System.err.println("❌ Erreur: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Segmentation des affixes : des mots générés reçoivent des proclitiques et des
+     * suffixes aléatoires, puis sont décomposés par decomposerToken. Affiche le taux de
+     * racines retrouvées et le nombre moyen de tiges testées par mot, à comparer au
+     * nombre de découpages préfixe × suffixe avant élagage.
+     */
+    public static void mesurerSegmentation(int nbRacines, int nbMots) {
+        System.out.println("\n=== Segmentation des affixes ===");
+        String[] prefixes = {"", "", "و", "ف", "ب", "ال", "وال", "بال", "لل"};
+        String[] suffixes = {"", "", "ه", "ها", "ون", "ات", "هم", "ين"};
+
+        List<String> racines = genererRacinesSynthetiques(nbRacines);
+        MoteurMorphologique moteur = construireSysteme(racines).getMoteur();
+        moteur.compilerTransducteur();
+        List<Scheme> listeSchemes = moteur.getSchemes();
+
+        ThreadLocalRandom aleatoire = ThreadLocalRandom.current();
+        int retrouvees = 0;
+        long debut = System.nanoTime();
+        for (int i = 0; i < nbMots; i++) {
+            String racine = racines.get(aleatoire.nextInt(racines.size()));
+            Scheme scheme = listeSchemes.get(aleatoire.nextInt(listeSchemes.size()));
+            String token = prefixes[aleatoire.nextInt(prefixes.length)] + scheme.appliquerScheme(racine)
+                    + suffixes[aleatoire.nextInt(suffixes.length)];
+            if (racine.equals(moteur.decomposerToken(token).getRacine())) {
+                retrouvees++;
+            }
+        }
+        double ms = (System.nanoTime() - debut) / 1_000_000.0;
+
+        SegmenteurAffixes segmenteur = moteur.getSegmenteur();
+        System.out.println(String.format("Racine attendue retrouvée: %d/%d (%.1f%%)",
+                retrouvees, nbMots, 100.0 * retrouvees / nbMots));
+        System.out.println(String.format("Découpages préfixe × suffixe: %.2f par mot", segmenteur.getMoyenneDecoupages()));
+        System.out.println(String.format("Tiges candidates testées:    %.2f par mot (après élagage par longueur)",
+                segmenteur.getMoyenneCandidats()));
+        System.out.println(String.format("Durée: %.1f ms (%.1f µs par mot)", ms, ms * 1000 / nbMots));
+    }
+
+    /**
+     * Service HTTP/JSON : démarre le serveur sur un port libre de l'interface locale et le
+     * charge depuis la même JVM, d'abord en requêtes simples puis en lots. Affiche le débit
+     * et les latences p50/p99 mesurées côté client.
+     */
+    public static void mesurerServeurHttp(int nbRacines, int nbClients, long dureeMs, int tailleLot) {
+        System.out.println("\n=== Service HTTP/JSON ===");
+        List<String> racines = genererRacinesSynthetiques(nbRacines);
+        SystemeMorphologique systeme = construireSysteme(racines);
+        systeme.getMoteur().compilerTransducteur();
+        List<String> nomsSchemes = new ArrayList<>();
+        for (Scheme s : systeme.getSchemes()) {
+            nomsSchemes.add(s.getNom());
+        }
+
+        ServeurMorphologique serveur;
+        try {
+            serveur = new ServeurMorphologique(systeme, 0);
+        } catch (IOException e) {
+            System.err.println("❌ Démarrage du serveur impossible: " + e.getMessage());
+            return;
+        }
+        serveur.demarrer();
+        System.out.println("Serveur sur le port " + serveur.getPort() + " (threads " +
+                (serveur.utiliseThreadsVirtuels() ? "virtuels" : "plateforme, JVM sans threads virtuels") + ")");
+
+        try (GenerateurCharge generateur = new GenerateurCharge(serveur.getPort(), racines, nomsSchemes)) {
+            generateur.executer(nbClients, Math.min(500, dureeMs), 1);   // Chauffe (JIT, connexions)
+            System.out.println("Simple: " + generateur.executer(nbClients, dureeMs, 1));
+            System.out.println("Lots:   " + generateur.executer(nbClients, dureeMs, tailleLot));
+        }
+        serveur.arreter(0);
+        System.out.println(serveur.getNbErreurs() == 0 ? "✓ Aucune erreur côté serveur"
+                : "❌ " + serveur.getNbErreurs() + " erreurs côté serveur");
+    }
+
+    /**
+     * Décomposition en masse : mêmes mots envoyés au service HTTP (POST /lot/decomposer par
+     * lots) puis au serveur NIO à protocole ligne (une connexion, toutes les requêtes en vol).
+     * Vérifie que les réponses NIO arrivent dans l'ordre (racine attendue ligne par ligne).
+     */
+    public static void comparerServeurLignes(int nbRacines, int nbMots, int tailleLot) {
+        System.out.println("\n=== Décomposition en masse: HTTP/JSON vs protocole ligne (NIO) ===");
+        List<String> racines = genererRacinesSynthetiques(nbRacines);
+        SystemeMorphologique systeme = construireSysteme(racines);
+        systeme.getMoteur().compilerTransducteur();
+
+        List<Scheme> listeSchemes = systeme.getSchemes();
+        List<String> mots = new ArrayList<>(nbMots);
+        List<String> attendues = new ArrayList<>(nbMots);
+        ThreadLocalRandom aleatoire = ThreadLocalRandom.current();
+        for (int i = 0; i < nbMots; i++) {
+            String racine = racines.get(aleatoire.nextInt(racines.size()));
+            mots.add(listeSchemes.get(aleatoire.nextInt(listeSchemes.size())).appliquerScheme(racine));
+            attendues.add(racine);
+        }
+
+        try {
+            ServeurMorphologique http = new ServeurMorphologique(systeme, 0);
+            http.demarrer();
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1).build();
+            long debut = System.nanoTime();
+            for (int i = 0; i < nbMots; i += tailleLot) {
+                List<Object> lot = new ArrayList<>();
+                for (String mot : mots.subList(i, Math.min(nbMots, i + tailleLot))) {
+                    lot.add(Collections.singletonMap("mot", mot));
+                }
+                client.send(HttpRequest.newBuilder(
+                                URI.create("http://127.0.0.1:" + http.getPort() + "/lot/decomposer"))
+                                .POST(HttpRequest.BodyPublishers.ofString(Json.ecrire(lot)))
+                                .build(),
+                        HttpResponse.BodyHandlers.ofString());
+            }
+            double sHttp = (System.nanoTime() - debut) / 1e9;
+            http.arreter(0);
+            System.out.println(String.format("HTTP/JSON (lots de %d): %,.0f mots/s", tailleLot, nbMots / sHttp));
+
+            try (ServeurLignes nio = new ServeurLignes(systeme, 0, 0);
+                 Socket socket = new Socket("127.0.0.1", demarrerEtPort(nio))) {
+                socket.setTcpNoDelay(true);
+                debut = System.nanoTime();
+                Thread emetteur = new Thread(() -> {
+                    try {
+                        Writer sortie = new BufferedWriter(new OutputStreamWriter(
+                                socket.getOutputStream(), StandardCharsets.UTF_8), 64 * 1024);
+                        for (String mot : mots) {
+                            sortie.write("D ");
+                            sortie.write(mot);
+                            sortie.write('\n');
+                        }
+                        sortie.flush();
+                        socket.shutdownOutput();
+                    } catch (IOException e) {
+                        System.err.println("❌ Envoi interrompu: " + e.getMessage());
+                    }
+                });
+                emetteur.start();
+
+                BufferedReader entree = new BufferedReader(new InputStreamReader(
+                        socket.getInputStream(), StandardCharsets.UTF_8), 64 * 1024);
+                int recues = 0;
+                int horsOrdre = 0;
+                String ligne;
+                while ((ligne = entree.readLine()) != null) {
+                    if (!ligne.startsWith("OK " + attendues.get(recues) + " ")) {
+                        horsOrdre++;
+                    }
+                    recues++;
+                }
+                double sNio = (System.nanoTime() - debut) / 1e9;
+                emetteur.join();
+                System.out.println(String.format("Protocole ligne (NIO):  %,.0f mots/s (%.1fx)",
+                        recues / sNio, sHttp / sNio));
+                System.out.println(recues == nbMots && horsOrdre == 0
+                        ? "✓ " + recues + " réponses, toutes dans l'ordre des requêtes"
+                        : "❌ " + recues + "/" + nbMots + " réponses, " + horsOrdre + " inattendues");
+            }
+        } catch (IOException e) {
+            System.err.println("❌ " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static int demarrerEtPort(ServeurLignes serveur) {
+        serveur.demarrer();
+        return serveur.getPort();
+    }
+
+    /**
+     * Façade partagée : des threads génèrent et décomposent en boucle sur quelques racines
+     * « chaudes », avec tous les schèmes dont celui que l'écrivain modifie, pendant que cet
+     * écrivain ajoute et supprime des racines et change le pattern du schème. Aucune exception
+     * ne doit remonter ; quand le schème n'a pas changé pendant l'appel, le mot généré et la
+     * racine retrouvée doivent correspondre à son pattern courant ; et pour chaque racine
+     * chaude la somme des fréquences de ses dérivés doit égaler le nombre de générations
+     * réussies (aucune mise à jour perdue).
+     * @return true si l'état final est cohérent
+     */
+    public static boolean testerFacadeConcurrente(int nbThreads, int operationsParThread) {
+        System.out.println("\n=== Façade partagée: lectures parallèles + écritures ===");
+        List<String> racines = genererRacinesSynthetiques(2_000);
+        SystemeMorphologique systeme = construireSysteme(racines);
+        systeme.getMoteur().compilerTransducteur();
+        systeme.ajouterScheme(new Scheme("تجربة", "مفعول", TypeScheme.AUTRE));
+        List<String> nomsSchemes = new ArrayList<>();
+        for (Scheme s : systeme.getSchemes()) {
+            nomsSchemes.add(s.getNom());
+        }
+
+        List<String> chaudes = racines.subList(0, 8);
+        AtomicLongArray generations = new AtomicLongArray(chaudes.size());
+        AtomicInteger exceptions = new AtomicInteger();
+        AtomicInteger perimes = new AtomicInteger();
+        AtomicInteger verifies = new AtomicInteger();
+        AtomicBoolean arret = new AtomicBoolean(false);
+        CountDownLatch depart = new CountDownLatch(1);
+
+        List<Thread> lecteurs = new ArrayList<>();
+        for (int t = 0; t < nbThreads; t++) {
+            lecteurs.add(new Thread(() -> {
+                ThreadLocalRandom aleatoire = ThreadLocalRandom.current();
+                attendre(depart);
+                for (int i = 0; i < operationsParThread; i++) {
+                    try {
+                        int k = aleatoire.nextInt(chaudes.size());
+                        String racine = chaudes.get(k);
+                        // Le schème modifié par l'écrivain une fois sur deux
+                        String nom = aleatoire.nextBoolean() ? "تجربة"
+                                : nomsSchemes.get(aleatoire.nextInt(nomsSchemes.size()));
+                        Scheme avant = systeme.rechercherScheme(nom);
+                        String attendu = avant.appliquerScheme(racine);
+                        boolean correct;
+                        if (aleatoire.nextBoolean()) {
+                            String mot = systeme.generer(racine, nom);
+                            if (mot != null) {
+                                generations.incrementAndGet(k);
+                            }
+                            correct = attendu.equals(mot);
+                        } else {
+                            ResultatDecomposition r = systeme.decomposer(attendu);
+                            correct = r.estSucces() && racine.equals(r.getRacine());
+                        }
+                        // Pattern inchangé pendant l'appel : le résultat doit être le sien
+                        if (systeme.rechercherScheme(nom) == avant) {
+                            verifies.incrementAndGet();
+                            if (!correct) {
+                                perimes.incrementAndGet();
+                            }
+                        }
+                    } catch (RuntimeException e) {
+                        exceptions.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        Thread ecrivain = new Thread(() -> {
+            attendre(depart);
+            int n = 0;
+            while (!arret.get()) {
+                try {
+                    String racine = racines.get(chaudes.size() + n % 50);   // hors du transducteur une fois réinsérée
+                    systeme.supprimerRacine(racine);
+                    systeme.ajouterRacine(racine);
+                    systeme.modifierPattern("تجربة", n % 2 == 0 ? "مفعال" : "مفعول");
+                    n++;
+                } catch (RuntimeException e) {
+                    exceptions.incrementAndGet();
+                }
+            }
+            System.out.println("Écritures concurrentes: " + n + " × (suppression + ajout + changement de pattern)");
+        });
+
+        lecteurs.forEach(Thread::start);
+        ecrivain.start();
+        long debut = System.nanoTime();
+        depart.countDown();
+        joindre(lecteurs);
+        double secondes = (System.nanoTime() - debut) / 1e9;
+        arret.set(true);
+        joindre(List.of(ecrivain));
+
+        int incoherentes = 0;
+        for (int k = 0; k < chaudes.size(); k++) {
+            long somme = 0;
+            for (MotDerive md : systeme.getDerives(chaudes.get(k))) {
+                somme += md.getFrequence();
+            }
+            if (somme != generations.get(k)) {
+                incoherentes++;
+                System.out.println("❌ " + chaudes.get(k) + ": " + somme + " comptés pour " + generations.get(k) + " générations");
+            }
+        }
+        System.out.println(String.format("%d threads: %,.0f opérations/s", nbThreads,
+                nbThreads * (double) operationsParThread / secondes));
+        System.out.println(String.format("Résultats vérifiés contre le pattern courant: %,d (%d périmés)",
+                verifies.get(), perimes.get()));
+        boolean ok = exceptions.get() == 0 && incoherentes == 0 && perimes.get() == 0;
+        System.out.println(ok ? "✓ Aucune exception, aucun résultat périmé, aucune mise à jour de dérivé perdue"
+                : "❌ " + exceptions.get() + " exceptions, " + perimes.get() + " résultats périmés, "
+                        + incoherentes + " racines incohérentes");
+        return ok;
+    }
+
+    /**
+     * Racine chaude : nbThreads threads incrémentent la fréquence d'une même racine.
+     * Compare un int++ sans verrou (mises à jour perdues), un int sous verrou, un
+     * AtomicInteger (une seule case disputée) et le compteur LongAdder de RacineNode ;
+     * puis mesure la génération de bout en bout sur un seul mot dérivé via la façade,
+     * et affiche le classement des dérivés.
+     */
+    public static void mesurerRacineChaude(int nbThreads, int operationsParThread) {
+        System.out.println("\n=== Racine chaude: compteurs de fréquence sous contention ===");
+        long attendu = (long) nbThreads * operationsParThread;
+
+        int[] naif = new int[1];
+        mesurerCompteur("int++ sans verrou", nbThreads, operationsParThread, () -> naif[0]++, () -> naif[0], attendu);
+
+        int[] verrouille = new int[1];
+        Object verrou = new Object();
+        mesurerCompteur("int sous verrou", nbThreads, operationsParThread, () -> {
+            synchronized (verrou) {
+                verrouille[0]++;
+            }
+        }, () -> verrouille[0], attendu);
+
+        AtomicInteger atomique = new AtomicInteger();
+        mesurerCompteur("AtomicInteger", nbThreads, operationsParThread, atomique::incrementAndGet, atomique::get, attendu);
+
+        RacineNode noeud = new RacineNode("كتب");
+        noeud.setFrequence(0);
+        mesurerCompteur("RacineNode (LongAdder)", nbThreads, operationsParThread, noeud::incrementerFrequence,
+                noeud::getFrequence, attendu);
+
+        // De bout en bout : tous les threads génèrent le même mot (كاتب) via la façade
+        SystemeMorphologique systeme = construireSysteme(genererRacinesSynthetiques(1_000));
+        systeme.getArbre().inserer("كتب");
+        String nomScheme = systeme.getSchemes().get(0).getNom();
+        int generations = Math.max(1, operationsParThread / 20);
+        mesurerCompteur("génération via la façade", nbThreads, generations,
+                () -> systeme.generer("كتب", nomScheme),
+                () -> systeme.getDerivesLesPlusFrequents("كتب", 1).get(0).getFrequence(),
+                (long) nbThreads * generations);
+        System.out.println("Dérivés les plus fréquents de كتب: " + systeme.getDerivesLesPlusFrequents("كتب", 3));
+    }
+
+    /**
+     * API asynchrone : (1) les appels rendent la main sans attendre le calcul et donnent les
+     * mêmes résultats que le moteur synchrone ; (2) des décompositions coûteuses (parcours
+     * complet de nbRacines racines, sans transducteur) dépassent leur délai et libèrent leur
+     * thread au lieu d'occuper le pool jusqu'au bout ; (3) cancel() arrête un calcul en cours.
+     */
+    public static boolean testerApiAsynchrone(int nbRacines, int nbThreads, int nbAppels) {
+        System.out.println("\n=== API asynchrone: CompletableFuture, délai et annulation ===");
+        List<String> racines = genererRacinesSynthetiques(nbRacines);
+        SystemeMorphologique systeme = construireSysteme(racines);
+        List<String> noms = new ArrayList<>();
+        for (Scheme scheme : systeme.getSchemes()) {
+            noms.add(scheme.getNom());
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(nbThreads);
+        boolean ok = true;
+        try {
+            // (1) Appels non bloquants, résultats identiques au moteur synchrone
+            MoteurAsynchrone async = systeme.asynchrone(pool, 0);
+            List<CompletableFuture<String>> futurs = new ArrayList<>(nbAppels);
+            List<String> attendus = new ArrayList<>(nbAppels);
+            for (int i = 0; i < nbAppels; i++) {
+                attendus.add(systeme.generer(racines.get(i % racines.size()), noms.get(i % noms.size())));
+            }
+            long debut = System.nanoTime();
+            for (int i = 0; i < nbAppels; i++) {
+                futurs.add(async.genererMotDerive(racines.get(i % racines.size()), noms.get(i % noms.size())));
+            }
+            long soumission = System.nanoTime() - debut;
+            CompletableFuture.allOf(futurs.toArray(new CompletableFuture<?>[0])).join();
+            double dureeMs = (System.nanoTime() - debut) / 1e6;
+            int differents = 0;
+            for (int i = 0; i < nbAppels; i++) {
+                if (!Objects.equals(attendus.get(i), futurs.get(i).join())) {
+                    differents++;
+                }
+            }
+            ok &= differents == 0;
+            System.out.println(String.format("%,d générations asynchrones en %.0f ms, soumission: %.2f µs par appel %s",
+                    nbAppels, dureeMs, soumission / 1e3 / nbAppels,
+                    differents == 0 ? "✓ résultats identiques" : "❌ " + differents + " résultats différents"));
+
+            // (2) Décompositions vouées à l'échec : parcours complet, coupé par le délai
+            String introuvable = "ثثثثث";
+            long t0 = System.nanoTime();
+            systeme.getMoteur().decomposerMot(introuvable);
+            double parcoursMs = (System.nanoTime() - t0) / 1e6;
+            long delaiMs = Math.max(1, (long) (parcoursMs / 20));
+            int nbLentes = nbThreads * 8;
+            MoteurAsynchrone avecDelai = systeme.asynchrone(pool, delaiMs);
+            List<CompletableFuture<ResultatDecomposition>> lentes = new ArrayList<>();
+            t0 = System.nanoTime();
+            for (int i = 0; i < nbLentes; i++) {
+                lentes.add(avecDelai.decomposerMot(introuvable));
+            }
+            int expirees = 0;
+            for (CompletableFuture<ResultatDecomposition> f : lentes) {
+                try {
+                    f.join();
+                } catch (CompletionException e) {
+                    if (e.getCause() instanceof TimeoutException) {
+                        expirees++;
+                    }
+                }
+            }
+            // Le pool est libre quand une tâche triviale passe : sans annulation coopérative,
+            // il faudrait attendre nbLentes / nbThreads parcours complets
+            CompletableFuture.runAsync(() -> { }, pool).join();
+            double liberationMs = (System.nanoTime() - t0) / 1e6;
+            double sansAnnulationMs = parcoursMs * nbLentes / nbThreads;
+            boolean libere = liberationMs < sansAnnulationMs / 2;
+            ok &= expirees == nbLentes && libere;
+            System.out.println(String.format("Parcours complet: %.1f ms ; %d décompositions avec délai %d ms: %d expirées",
+                    parcoursMs, nbLentes, delaiMs, expirees));
+            System.out.println(String.format("Pool libéré après %.1f ms (sans annulation: ~%.0f ms) %s",
+                    liberationMs, sansAnnulationMs, libere ? "✓" : "❌"));
+
+            // (3) cancel() pendant le calcul
+            CompletableFuture<ResultatDecomposition> annulee = async.decomposerToken(introuvable);
+            annulee.cancel(true);
+            CompletableFuture.runAsync(() -> { }, pool).join();
+            ok &= annulee.isCancelled();
+            System.out.println(annulee.isCancelled() ? "✓ Décomposition annulée par cancel()" : "❌ cancel() sans effet");
+        } finally {
+            pool.shutdownNow();
+        }
+        return ok;
+    }
+
+    /**
+     * Flux Flow : une source (SubmissionPublisher) alimente ProcesseurAnalyse, lu par un
+     * consommateur rapide puis par un consommateur lent. Vérifie l'ordre et l'exhaustivité
+     * des résultats et, avec le consommateur lent, que l'avance de la source sur l'aval
+     * reste bornée par les tampons (capacité du processeur + tampon de la source).
+     */
+    public static boolean testerFluxAnalyse(int nbRacines, int nbMots, int parallelisme, int capacite) {
+        System.out.println("\n=== Flux d'analyse (Flow) avec contre-pression ===");
+        String[] prefixes = {"", "و", "ال", "وال", "بال"};
+        String[] suffixes = {"", "ه", "ها", "ون", "ات"};
+        List<String> racines = genererRacinesSynthetiques(nbRacines);
+        SystemeMorphologique systeme = construireSysteme(racines);
+        systeme.getMoteur().compilerTransducteur();
+        List<Scheme> listeSchemes = systeme.getSchemes();
+
+        ThreadLocalRandom aleatoire = ThreadLocalRandom.current();
+        List<String> mots = new ArrayList<>(nbMots);
+        for (int i = 0; i < nbMots; i++) {
+            String racine = racines.get(aleatoire.nextInt(racines.size()));
+            Scheme scheme = listeSchemes.get(aleatoire.nextInt(listeSchemes.size()));
+            mots.add(prefixes[aleatoire.nextInt(prefixes.length)] + scheme.appliquerScheme(racine)
+                    + suffixes[aleatoire.nextInt(suffixes.length)]);
+        }
+
+        long debut = System.nanoTime();
+        for (String mot : mots) {
+            systeme.decomposer(mot);
+        }
+        double secondes = (System.nanoTime() - debut) / 1e9;
+        System.out.println(String.format("Référence synchrone (1 thread): %,.0f mots/s", nbMots / secondes));
+
+        ExecutorService pool = Executors.newFixedThreadPool(parallelisme);
+        boolean ok = true;
+        try {
+            ok &= consommerFlux("Consommateur rapide", systeme.processeurAnalyse(pool, parallelisme, capacite),
+                    mots, 0);
+            ok &= consommerFlux("Consommateur lent (500 µs/mot)", systeme.processeurAnalyse(pool, parallelisme, capacite),
+                    mots.subList(0, Math.min(mots.size(), 4_000)), 500_000);
+        } finally {
+            pool.shutdownNow();
+        }
+        return ok;
+    }
+
+    private static boolean consommerFlux(String nom, ProcesseurAnalyse processeur, List<String> mots, long pauseNs) {
+        SubmissionPublisher<String> source = new SubmissionPublisher<>(ForkJoinPool.commonPool(), 256);
+        AtomicLong produits = new AtomicLong();
+        AtomicLong avanceMax = new AtomicLong();
+        AtomicInteger desordres = new AtomicInteger();
+        AtomicInteger decomposes = new AtomicInteger();
+        CountDownLatch fin = new CountDownLatch(1);
+        Throwable[] erreur = new Throwable[1];
+
+        processeur.subscribe(new Flow.Subscriber<ProcesseurAnalyse.Analyse>() {
+            private Flow.Subscription abonnement;
+            private int recus;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                abonnement = subscription;
+                subscription.request(pauseNs > 0 ? 1 : Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ProcesseurAnalyse.Analyse analyse) {
+                if (!analyse.getMot().equals(mots.get(recus))) {
+                    desordres.incrementAndGet();
+                }
+                if (analyse.getResultat().estSucces()) {
+                    decomposes.incrementAndGet();
+                }
+                recus++;
+                avanceMax.accumulateAndGet(produits.get() - recus, Math::max);
+                if (pauseNs > 0) {
+                    LockSupport.parkNanos(pauseNs);
+                    abonnement.request(1);
+                }
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                erreur[0] = throwable;
+                fin.countDown();
+            }
+
+            @Override
+            public void onComplete() {
+                fin.countDown();
+            }
+        });
+        source.subscribe(processeur);
+
+        long debut = System.nanoTime();
+        for (String mot : mots) {
+            source.submit(mot);   // Bloque quand le tampon de la source est plein
+            produits.incrementAndGet();
+        }
+        source.close();
+        attendre(fin);
+        double secondes = (System.nanoTime() - debut) / 1e9;
+
+        long borne = processeur.getCapacite() + source.getMaxBufferCapacity() + 1;
+        boolean ok = erreur[0] == null && processeur.getNbEmis() == mots.size() && desordres.get() == 0
+                && (pauseNs == 0 || avanceMax.get() <= borne);
+        System.out.println(String.format("%s: %,d mots en %.2f s (%,.0f mots/s), %d décomposés, file max %d/%d, " +
+                        "avance max de la source %,d (borne %,d) %s",
+                nom, processeur.getNbEmis(), secondes, processeur.getNbEmis() / secondes, decomposes.get(),
+                processeur.getTailleMaxFile(), processeur.getCapacite(), avanceMax.get(), borne,
+                ok ? "✓" : "❌" + (erreur[0] != null ? " " + erreur[0] : "") + (desordres.get() > 0 ? " désordre" : "")));
+        return ok;
+    }
+
+    /**
+     * Dictionnaire fragmenté vs ABR unique, sur nbRacines racines quadrilitères : chargement
+     * en masse (un thread par fragment), insertions concurrentes une à une, recherches ; puis
+     * cohérence (taille, ids denses et uniques, aller-retour racine → id → racine) et un
+     * moteur branché sur le dictionnaire fragmenté.
+     */
+    public static boolean comparerDictionnaireFragmente(int nbRacines, int nbThreads) {
+        System.out.println("\n=== Dictionnaire fragmenté vs ABR unique ===");
+        List<String> racines = genererRacinesQuadrilateres(nbRacines);
+        Collections.shuffle(racines);
+        int n = racines.size();
+
+        // Chargement en masse
+        long debut = System.nanoTime();
+        ABR arbre = new ABR();
+        arbre.insererEnMasse(racines);
+        double msArbre = (System.nanoTime() - debut) / 1e6;
+        debut = System.nanoTime();
+        DictionnaireFragmente parLettre = new DictionnaireFragmente();
+        parLettre.insererEnMasse(racines, nbThreads);
+        double msLettre = (System.nanoTime() - debut) / 1e6;
+        debut = System.nanoTime();
+        DictionnaireFragmente parHachage = new DictionnaireFragmente(nbThreads * 4);
+        parHachage.insererEnMasse(racines, nbThreads);
+        double msHachage = (System.nanoTime() - debut) / 1e6;
+        System.out.println(String.format("Chargement en masse de %,d racines: ABR %.0f ms, par lettre %.0f ms, " +
+                "par hachage (%d fragments) %.0f ms", n, msArbre, msLettre, parHachage.getNombreFragments(), msHachage));
+
+        // Insertions concurrentes une à une
+        ABR arbreConcurrent = new ABR();
+        double debitArbre = mesurerInsertions(nbThreads, racines, arbreConcurrent::inserer);
+        DictionnaireFragmente fragmenteConcurrent = new DictionnaireFragmente();
+        double debitFragmente = mesurerInsertions(nbThreads, racines, fragmenteConcurrent::inserer);
+        System.out.println(String.format("Insertions concurrentes (%d threads): ABR %,.0f/s, fragmenté %,.0f/s (×%.1f)",
+                nbThreads, debitArbre, debitFragmente, debitFragmente / debitArbre));
+
+        mesurerRecherches("ABR", arbre, racines, 1_000_000);
+        mesurerRecherches("Fragmenté", parLettre, racines, 1_000_000);
+
+        // Cohérence : mêmes racines, ids uniques et denses, aller-retour par id
+        boolean ok = true;
+        for (DictionnaireFragmente d : List.of(parLettre, parHachage, fragmenteConcurrent)) {
+            boolean[] vus = new boolean[d.getNombreIds()];
+            int erreurs = 0;
+            for (String racine : racines) {
+                int id = d.getIdRacine(racine);
+                if (id < 0 || id >= vus.length || vus[id] || !racine.equals(d.getRacine(id))) {
+                    erreurs++;
+                } else {
+                    vus[id] = true;
+                }
+            }
+            ok &= erreurs == 0 && d.getTaille() == n && d.getNombreIds() == n
+                    && d.getToutesLesRacines().equals(arbre.getToutesLesRacines());
+            if (erreurs > 0) {
+                System.out.println("❌ " + erreurs + " racines introuvables ou ids incohérents");
+            }
+        }
+        parLettre.afficherStatistiques();
+        System.out.println("Plus gros fragment par hachage: " + Arrays.stream(parHachage.getTaillesFragments()).max().orElse(0)
+                + " racines (moyenne " + n / parHachage.getNombreFragments() + ")");
+
+        parLettre.inserer("كتب");
+        HashTable schemes = new HashTable();
+        ChargeurDonnees.initialiserSchemes(schemes);
+        MoteurMorphologique moteur = new MoteurMorphologique(parLettre, schemes);
+        String mot = moteur.genererMotDerive("كتب", "فاعل");
+        ResultatDecomposition decomposition = moteur.decomposerMot(mot);
+        ok &= "كتب".equals(decomposition.getRacine());
+        System.out.println("Moteur sur le dictionnaire fragmenté: كتب + فاعل → " + mot + " → " + decomposition.getRacine());
+        System.out.println(ok ? "✓ Dictionnaires fragmentés cohérents avec l'ABR" : "❌ Incohérence détectée");
+        return ok;
+    }
+
+    /**
+     * Rafales : à chaque rafale, nbThreads threads décomposent au même instant le même mot
+     * « à la mode », dont la racine est la dernière parcourue (pas de transducteur : parcours
+     * complet). Compare la durée d'une rafale à celle d'un parcours seul et à nbThreads
+     * parcours, et affiche le nombre de parcours évités par le partage.
+     */
+    public static boolean testerCoalescence(int nbRacines, int nbThreads, int nbRafales) {
+        System.out.println("\n=== Décompositions simultanées d'un même mot (single-flight) ===");
+        List<String> racines = genererRacinesSynthetiques(nbRacines);
+        SystemeMorphologique systeme = construireSysteme(racines);
+        String racine = systeme.getArbre().getRacine(systeme.getArbre().getNombreIds() - 1);
+        String mot = systeme.generer(racine, "فاعل");
+
+        ResultatDecomposition reference = null;
+        double parcoursMs = 0;
+        for (int i = 0; i < 5; i++) {   // Le dernier parcours, compilé par le JIT, sert de référence
+            long debut = System.nanoTime();
+            reference = systeme.getMoteur().decomposerMot(mot);
+            parcoursMs = (System.nanoTime() - debut) / 1e6;
+        }
+        ResultatDecomposition attendu = reference;
+
+        AtomicInteger differents = new AtomicInteger();
+        long economisesAvant = systeme.getNbDecompositionsEconomisees();
+        double totalMs = 0;
+        for (int r = 0; r < nbRafales; r++) {
+            CountDownLatch depart = new CountDownLatch(1);
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < nbThreads; t++) {
+                threads.add(new Thread(() -> {
+                    attendre(depart);
+                    ResultatDecomposition resultat = systeme.getMoteur().decomposerMot(mot);
+                    if (!Objects.equals(resultat.getRacine(), attendu.getRacine())
+                            || !Objects.equals(resultat.getScheme(), attendu.getScheme())) {
+                        differents.incrementAndGet();
+                    }
+                }));
+            }
+            threads.forEach(Thread::start);
+            long debut = System.nanoTime();
+            depart.countDown();
+            joindre(threads);
+            totalMs += (System.nanoTime() - debut) / 1e6;
+        }
+        long economises = systeme.getNbDecompositionsEconomisees() - economisesAvant;
+        long appels = (long) nbRafales * nbThreads;
+
+        System.out.println(String.format("Mot: %s → %s ; un parcours complet (%,d racines): %.1f ms",
+                mot, reference.getRacine(), systeme.getArbre().getTaille(), parcoursMs));
+        System.out.println(String.format("%d rafales × %d appels: %.1f ms par rafale (sans partage: ~%.0f ms)",
+                nbRafales, nbThreads, totalMs / nbRafales, parcoursMs * nbThreads));
+        System.out.println(String.format("Parcours effectués: %,d, évités: %,d (%.0f%% des appels)",
+                appels - economises, economises, 100.0 * economises / appels));
+        boolean ok = differents.get() == 0 && economises > 0;
+        System.out.println(ok ? "✓ Tous les appels ont reçu le même résultat"
+                : "❌ " + differents.get() + " résultats différents, " + economises + " parcours évités");
+        return ok;
+    }
+
+    /**
+     * Décomposition bornée : sur un gros dictionnaire (pas de transducteur), un mot inconnu
+     * coûte un parcours complet. Compare la latence sans budget à celle d'appels avec une
+     * échéance de budgetMs (résultat tronqué), vérifie un budget en nombre de candidats, et
+     * qu'un mot dont la racine est trouvée tôt aboutit sans être tronqué.
+     */
+    public static boolean testerDecompositionBornee(int nbRacines, long budgetMs, int nbAppels) {
+        System.out.println("\n=== Décomposition bornée (échéance, candidats) ===");
+        List<String> racines = new ArrayList<>(genererRacinesSynthetiques(2_000));
+        racines.addAll(genererRacinesQuadrilateres(nbRacines));
+        SystemeMorphologique systeme = construireSysteme(racines);
+        MoteurMorphologique moteur = systeme.getMoteur();
+        moteur.figerSchemes();
+        String inconnu = "ثثثثث";
+
+        long[] sansBudget = new long[10];
+        for (int i = 0; i < sansBudget.length; i++) {
+            long debut = System.nanoTime();
+            moteur.decomposerMot(inconnu);
+            sansBudget[i] = System.nanoTime() - debut;
+        }
+        Arrays.sort(sansBudget);
+
+        long[] avecBudget = new long[nbAppels];
+        int tronques = 0;
+        for (int i = 0; i < nbAppels; i++) {
+            long debut = System.nanoTime();
+            ResultatDecomposition resultat = moteur.decomposerMot(inconnu, Budget.duree(budgetMs * 1_000_000L));
+            avecBudget[i] = System.nanoTime() - debut;
+            if (resultat.estTronque()) {
+                tronques++;
+            }
+        }
+        Arrays.sort(avecBudget);
+        double p99 = avecBudget[(int) Math.ceil(0.99 * nbAppels) - 1] / 1e6;
+        // Le budget est vérifié toutes les PAS_ANNULATION racines ; les dépassements de la
+        // queue viennent de l'ordonnanceur et du GC, d'où un verdict sur la médiane
+        boolean ok = tronques == nbAppels && avecBudget[nbAppels / 2] / 1e6 <= budgetMs * 1.1 + 0.2;
+        System.out.println(String.format("Mot inconnu, %,d racines, sans budget: médiane %.1f ms, max %.1f ms",
+                systeme.getArbre().getTaille(), sansBudget[sansBudget.length / 2] / 1e6, sansBudget[sansBudget.length - 1] / 1e6));
+        System.out.println(String.format("Avec échéance de %d ms: médiane %.2f ms, p99 %.2f ms, max %.2f ms, %d/%d tronqués %s",
+                budgetMs, avecBudget[nbAppels / 2] / 1e6, p99, avecBudget[nbAppels - 1] / 1e6, tronques, nbAppels,
+                ok ? "✓" : "❌"));
+
+        Budget budget = Budget.candidats(100_000);
+        ResultatDecomposition resultat = moteur.decomposerMot(inconnu, budget);
+        boolean okCandidats = resultat.estTronque() && budget.getCandidatsExamines() <= 100_000;
+        ok &= okCandidats;
+        System.out.println("Budget de 100 000 candidats: " + resultat.getMessage() + " ("
+                + budget.getCandidatsExamines() + " candidats) " + (okCandidats ? "✓" : "❌"));
+
+        String racine = systeme.getArbre().getRacine(0);
+        String mot = moteur.genererMotDerive(racine, "فاعل");
+        resultat = moteur.decomposerMot(mot, Budget.duree(budgetMs * 1_000_000L));
+        boolean okConnu = resultat.estSucces() && !resultat.estTronque() && racine.equals(resultat.getRacine());
+        ok &= okConnu;
+        System.out.println("Mot connu (racine en tête du parcours): " + mot + " → " + resultat + " "
+                + (okConnu ? "✓" : "❌"));
+        return ok;
+    }
+
+    /**
+     * Interactif vs lot : un traitement de corpus garde 64 décompositions coûteuses en attente
+     * (mots inconnus, parcours complet) pendant qu'un client interactif demande une génération
+     * toutes les 2 ms. Compare la latence interactive et le débit du lot avec un pool FIFO
+     * partagé, puis avec l'ordonnanceur en priorité stricte et en partage équitable.
+     */
+    public static boolean comparerOrdonnancement(int nbThreads, long dureeMs) {
+        System.out.println("\n=== Ordonnancement interactif / lot ===");
+        List<String> racines = genererRacinesSynthetiques(20_000);
+        SystemeMorphologique systeme = construireSysteme(racines);
+        List<String> noms = new ArrayList<>();
+        for (Scheme scheme : systeme.getSchemes()) {
+            noms.add(scheme.getNom());
+        }
+        Runnable interactive = () -> {
+            ThreadLocalRandom aleatoire = ThreadLocalRandom.current();
+            systeme.generer(racines.get(aleatoire.nextInt(racines.size())), noms.get(aleatoire.nextInt(noms.size())));
+        };
+        Runnable lot = () -> {
+            // Mot inconnu distinct à chaque tâche : un parcours complet, non partagé
+            ThreadLocalRandom aleatoire = ThreadLocalRandom.current();
+            StringBuilder mot = new StringBuilder("ث");
+            for (int i = 0; i < 5; i++) {
+                mot.append(CONSONNES.charAt(aleatoire.nextInt(CONSONNES.length())));
+            }
+            systeme.getMoteur().decomposerMot(mot.toString());
+        };
+
+        ExecutorService pool = Executors.newFixedThreadPool(nbThreads);
+        double[] fifo;
+        try {
+            fifo = mesurerScenario("Pool FIFO partagé", pool, pool, interactive, lot, dureeMs);
+        } finally {
+            pool.shutdownNow();
+        }
+        double[] stricte;
+        try (OrdonnanceurMoteur ordonnanceur = new OrdonnanceurMoteur(nbThreads, 1_024, 64,
+                OrdonnanceurMoteur.Politique.PRIORITE_STRICTE, 4)) {
+            stricte = mesurerScenario("Priorité stricte", ordonnanceur.executeur(OrdonnanceurMoteur.Priorite.INTERACTIVE),
+                    ordonnanceur.executeur(OrdonnanceurMoteur.Priorite.LOT), interactive, lot, dureeMs);
+            afficherStatistiquesOrdonnanceur(ordonnanceur);
+        }
+        try (OrdonnanceurMoteur ordonnanceur = new OrdonnanceurMoteur(nbThreads, 1_024, 64,
+                OrdonnanceurMoteur.Politique.PARTAGE_EQUITABLE, 4)) {
+            mesurerScenario("Partage équitable 4:1", ordonnanceur.executeur(OrdonnanceurMoteur.Priorite.INTERACTIVE),
+                    ordonnanceur.executeur(OrdonnanceurMoteur.Priorite.LOT), interactive, lot, dureeMs);
+            afficherStatistiquesOrdonnanceur(ordonnanceur);
+        }
+        boolean ok = stricte[1] < fifo[1];
+        System.out.println(ok ? "✓ Les requêtes interactives ne font plus la queue derrière le lot"
+                : "❌ Latence interactive non améliorée");
+        return ok;
+    }
+
+    /**
+     * @return {p50, p99} de la latence interactive en ms
+     */
+    private static double[] mesurerScenario(String nom, Executor executeurInteractif, Executor executeurLot,
+                                            Runnable interactive, Runnable lot, long dureeMs) {
+        AtomicBoolean fin = new AtomicBoolean();
+        AtomicInteger lotEnAttente = new AtomicInteger();
+        AtomicInteger lotTermines = new AtomicInteger();
+        Thread corpus = new Thread(() -> {
+            while (!fin.get()) {
+                if (lotEnAttente.get() >= 64) {
+                    LockSupport.parkNanos(200_000);
+                    continue;
+                }
+                lotEnAttente.incrementAndGet();
+                try {
+                    executeurLot.execute(() -> {
+                        lot.run();
+                        lotTermines.incrementAndGet();
+                        lotEnAttente.decrementAndGet();
+                    });
+                } catch (RejectedExecutionException e) {
+                    lotEnAttente.decrementAndGet();
+                    LockSupport.parkNanos(200_000);
+                }
+            }
+        });
+        corpus.start();
+        LockSupport.parkNanos(50_000_000L);   // Laisser le lot remplir sa file
+
+        List<CompletableFuture<Long>> requetes = new ArrayList<>();
+        long debut = System.nanoTime();
+        long limite = debut + dureeMs * 1_000_000L;
+        while (System.nanoTime() < limite) {
+            long soumission = System.nanoTime();
+            requetes.add(CompletableFuture.supplyAsync(() -> {
+                interactive.run();
+                return System.nanoTime() - soumission;
+            }, executeurInteractif));
+            LockSupport.parkNanos(2_000_000L);
+        }
+        int lotPendant = lotTermines.get();
+        double secondes = (System.nanoTime() - debut) / 1e9;
+        fin.set(true);
+
+        long[] latences = new long[requetes.size()];
+        for (int i = 0; i < latences.length; i++) {
+            latences[i] = requetes.get(i).join();
+        }
+        try {
+            corpus.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Arrays.sort(latences);
+        double p50 = latences[latences.length / 2] / 1e6;
+        double p99 = latences[(int) Math.ceil(0.99 * latences.length) - 1] / 1e6;
+        System.out.println(String.format("%-22s interactif: %,d requêtes, p50 %.2f ms, p99 %.2f ms, max %.2f ms ; " +
+                        "lot: %,.0f décompositions/s",
+                nom + ":", latences.length, p50, p99, latences[latences.length - 1] / 1e6, lotPendant / secondes));
+        return new double[] {p50, p99};
+    }
+
+    private static void afficherStatistiquesOrdonnanceur(OrdonnanceurMoteur ordonnanceur) {
+        for (OrdonnanceurMoteur.Priorite priorite : OrdonnanceurMoteur.Priorite.values()) {
+            System.out.println("    " + priorite + ": " + ordonnanceur.getStatistiques(priorite));
+        }
+    }
+
+    private static double mesurerInsertions(int nbThreads, List<String> racines, Consumer<String> inserer) {
+        CountDownLatch depart = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < nbThreads; t++) {
+            final int numero = t;
+            threads.add(new Thread(() -> {
+                attendre(depart);
+                for (int i = numero; i < racines.size(); i += nbThreads) {
+                    inserer.accept(racines.get(i));
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        long debut = System.nanoTime();
+        depart.countDown();
+        joindre(threads);
+        return racines.size() / ((System.nanoTime() - debut) / 1e9);
+    }
+
+    private static void mesurerCompteur(String nom, int nbThreads, int operationsParThread, Runnable incrementer,
+                                        LongSupplier lire, long attendu) {
+        CountDownLatch depart = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < nbThreads; t++) {
+            threads.add(new Thread(() -> {
+                attendre(depart);
+                for (int i = 0; i < operationsParThread; i++) {
+                    incrementer.run();
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        long debut = System.nanoTime();
+        depart.countDown();
+        joindre(threads);
+        double secondes = (System.nanoTime() - debut) / 1e9;
+
+        long lu = lire.getAsLong();
+        System.out.println(String.format("%-26s %,14.0f incréments/s  %s", nom + ":", attendu / secondes,
+                lu == attendu ? "✓ " + lu : "❌ " + lu + "/" + attendu + " (" + (attendu - lu) + " perdus)"));
+    }
+
+    private static void mesurerRecherches(String nom, DictionnaireRacines dictionnaire, List<String> racines, int nb) {
+        long trouvees = 0;
+        long debut = System.nanoTime();
+        for (int i = 0; i < nb; i++) {
+            if (dictionnaire.getIdRacine(racines.get(i % racines.size())) >= 0) {
+                trouvees++;
+            }
+        }
+        double secondes = (System.nanoTime() - debut) / 1e9;
+        System.out.println(String.format("%-7s %,.0f recherches/s (%d/%d trouvées)", nom + ":", nb / secondes, trouvees, nb));
+    }
+
+    private static long tasUtilise() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static final String CONSONNES = "بتثجحخدذرزسشصضطظعغفقكلمنهوي";
+
+    /**
+     * Façade sur un ABR chargé en masse avec ces racines et les schèmes par défaut
+     */
+    private static SystemeMorphologique construireSysteme(List<String> racines) {
+        ABR arbre = new ABR();
+        arbre.insererEnMasse(racines);
+        HashTable schemes = new HashTable();
+        ChargeurDonnees.initialiserSchemes(schemes);
+        return new SystemeMorphologique(arbre, schemes);
+    }
+
+    /**
+     * Génère n racines trilitères distinctes (combinaisons de consonnes)
+     */
+    public static List<String> genererRacinesSynthetiques(int n) {
+        List<String> racines = new ArrayList<>(n);
+        int k = CONSONNES.length();
+        for (int i = 0; i < n && i < k * k * k; i++) {
+            racines.add("" + CONSONNES.charAt(i / (k * k)) + CONSONNES.charAt((i / k) % k) + CONSONNES.charAt(i % k));
+        }
+        return racines;
+    }
+
+    /**
+     * Génère n racines quadrilitères distinctes (jusqu'à 28⁴), pour les gros dictionnaires
+     */
+    public static List<String> genererRacinesQuadrilateres(int n) {
+        List<String> racines = new ArrayList<>(n);
+        int k = CONSONNES.length();
+        for (int i = 0; i < n && i < k * k * k * k; i++) {
+            racines.add("" + CONSONNES.charAt(i / (k * k * k)) + CONSONNES.charAt((i / (k * k)) % k)
+                    + CONSONNES.charAt((i / k) % k) + CONSONNES.charAt(i % k));
+        }
+        return racines;
+    }
+
+    /**
+     * Génère une table de n schèmes distincts (préfixe + gabarit)
+     */
+    public static HashTable genererSchemesSynthetiques(int n) {
+        String[] prefixes = {"", "م", "ت", "است", "ان", "ي", "ن", "مست", "من", "أ"};
+        String[] gabarits = {"فاعل", "فعيل", "فعول", "فعّال", "فعل", "فاعول", "فعلان", "فعالة", "فواعل", "فعائل"};
+        HashTable table = new HashTable();
+        for (int i = 0; i < n; i++) {
+            String pattern = prefixes[i % prefixes.length] + gabarits[(i / prefixes.length) % gabarits.length]
+                    + (i >= prefixes.length * gabarits.length ? "ات".repeat(i / (prefixes.length * gabarits.length)) : "");
+            table.ajouter("s" + i, new Scheme("s" + i, pattern, TypeScheme.AUTRE));
+        }
+        return table;
+    }
+
+    private interface Operation {
+        void executer(boolean lecture, String cle);
+    }
+
+    private static double mesurerDebit(int nbThreads, int operationsParThread, Operation operation, List<String> noms) {
+        CountDownLatch depart = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        String[] clesEcriture = new String[64];
+        for (int i = 0; i < clesEcriture.length; i++) {
+            clesEcriture[i] = "bench_" + i;
+        }
+
+        for (int t = 0; t < nbThreads; t++) {
+            threads.add(new Thread(() -> {
+                ThreadLocalRandom aleatoire = ThreadLocalRandom.current();
+                attendre(depart);
+                for (int i = 0; i < operationsParThread; i++) {
+                    boolean lecture = aleatoire.nextInt(10) != 0;
+                    String cle = lecture ? noms.get(aleatoire.nextInt(noms.size()))
+                            : clesEcriture[aleatoire.nextInt(clesEcriture.length)];
+                    operation.executer(lecture, cle);
+                }
+            }));
+        }
+
+        threads.forEach(Thread::start);
+        long debut = System.nanoTime();
+        depart.countDown();
+        joindre(threads);
+        long duree = System.nanoTime() - debut;
+
+        return (double) nbThreads * operationsParThread / (duree / 1_000_000_000.0);
+    }
+
+    private static void attendre(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void joindre(List<Thread> threads) {
+        for (Thread t : threads) {
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}